@@ -0,0 +1,65 @@
+package com.paythm.paythm_api.config;
+
+import com.paythm.paythm_api.entity.LedgerPosting;
+import com.paythm.paythm_api.repository.LedgerPostingRepository;
+import com.paythm.paythm_api.service.LedgerService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+/**
+ * Seeds the ledger once from the balances that existed before it: one
+ * OPENING posting with a leg per non-zero wallet, bank account and goal,
+ * balanced against equity:opening. Runs right after MoneyColumnMigration
+ * and is skipped once an OPENING posting exists.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class LedgerOpeningBalances implements CommandLineRunner {
+
+    private static final String KIND = "OPENING";
+
+    private final LedgerPostingRepository postingRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+
+    public LedgerOpeningBalances(LedgerPostingRepository postingRepo, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager txManager) {
+        this.postingRepo = postingRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (postingRepo.existsByKind(KIND))
+            return;
+        tx.executeWithoutResult(status -> {
+            LedgerPosting posting = new LedgerPosting();
+            posting.setKind(KIND);
+            posting.setMemo("Balances carried over from before the ledger");
+            Long postingId = postingRepo.save(posting).getId();
+            Timestamp now = Timestamp.valueOf(posting.getCreatedAt());
+
+            int legs = openingLegs(postingId, now, "wallet:", "wallet", "balance");
+            legs += openingLegs(postingId, now, "bank:", "bank_accounts", "balance");
+            legs += openingLegs(postingId, now, "goal:", "goals", "current_amount");
+            jdbcTemplate.update("insert into ledger_entries (posting_id, account, amount, posted_at) "
+                    + "select ?, ?, -coalesce(sum(amount), 0), ? from ledger_entries where posting_id = ?",
+                    postingId, LedgerService.OPENING, now, postingId);
+            System.out.println("✔ Ledger opened with " + legs + " carried-over balances");
+        });
+    }
+
+    private int openingLegs(Long postingId, Timestamp now, String prefix, String table, String column) {
+        return jdbcTemplate.update("insert into ledger_entries (posting_id, account, amount, posted_at) "
+                + "select ?, concat(?, id), " + column + ", ? from " + table + " where " + column + " <> 0",
+                postingId, prefix, now);
+    }
+}
@@ -0,0 +1,75 @@
+package com.paythm.paythm_api.config;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Converts legacy DOUBLE rupee columns to BIGINT paise (see Money) in place.
+ *
+ * ddl-auto=update never changes an existing column's type, so this runs on
+ * every start, before any other runner, and only touches columns that are
+ * still floating point. Each column is copied into a BIGINT sibling with
+ * ROUND(x * 100) and then swapped in with a single ALTER; a crash at any
+ * step leaves the original column intact and the next start redoes it.
+ * Do the first start after upgrading with traffic drained.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MoneyColumnMigration implements CommandLineRunner {
+
+    private static final List<String[]> MONEY_COLUMNS = List.of(
+            new String[] { "wallet", "balance" },
+            new String[] { "transaction", "amount" },
+            new String[] { "bank_accounts", "balance" },
+            new String[] { "goals", "target_amount" },
+            new String[] { "goals", "current_amount" },
+            new String[] { "budgets", "limit_amount" },
+            new String[] { "budgets", "spent_amount" },
+            new String[] { "bill_splits", "total_amount" },
+            new String[] { "bill_split_participants", "amount" });
+
+    private static final String COLUMN_TYPE_SQL = "select lower(data_type) from information_schema.columns "
+            + "where table_schema = database() and table_name = ? and column_name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MoneyColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        for (String[] column : MONEY_COLUMNS) {
+            migrate(column[0], column[1]);
+        }
+    }
+
+    private void migrate(String table, String column) {
+        String type = columnType(table, column);
+        if (type == null || !(type.startsWith("double") || type.equals("float") || type.equals("decimal")))
+            return;
+
+        String paise = column + "_paise";
+        long start = System.currentTimeMillis();
+        if (columnType(table, paise) == null) {
+            jdbcTemplate.execute("alter table `" + table + "` add column `" + paise + "` bigint not null default 0");
+        }
+        // Recomputed from the source column, so re-running after a crash is harmless
+        int rows = jdbcTemplate.update("update `" + table + "` set `" + paise + "` = coalesce(round(`" + column
+                + "` * 100), 0)");
+        jdbcTemplate.execute("alter table `" + table + "` drop column `" + column + "`, rename column `" + paise
+                + "` to `" + column + "`");
+        System.out.println("✔ Converted " + table + "." + column + " to paise (" + rows + " rows) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private String columnType(String table, String column) {
+        List<String> types = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, table, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+}
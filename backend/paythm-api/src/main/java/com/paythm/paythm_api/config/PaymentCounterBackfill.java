@@ -0,0 +1,70 @@
+package com.paythm.paythm_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * One-off job that fills wallet.payment_count from existing DEBIT rows.
+ * Enable with paythm.backfill.payment-counters=true for a single start,
+ * preferably during low traffic. Wallets are processed as id ranges in
+ * parallel; each range is one UPDATE, so reruns are safe.
+ */
+@Component
+@ConditionalOnProperty(name = "paythm.backfill.payment-counters", havingValue = "true")
+public class PaymentCounterBackfill implements CommandLineRunner {
+
+    private static final String BACKFILL_SQL = "update wallet w set w.payment_count = "
+            + "(select count(*) from transaction t where t.wallet_id = w.id and t.type = 'DEBIT') "
+            + "where w.id between ? and ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int threads;
+
+    public PaymentCounterBackfill(JdbcTemplate jdbcTemplate,
+            @Value("${paythm.backfill.chunk-size:1000}") int chunkSize,
+            @Value("${paythm.backfill.threads:4}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Long minId = jdbcTemplate.queryForObject("select min(id) from wallet", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from wallet", Long.class);
+        if (minId == null || maxId == null) {
+            System.out.println("--- PAYMENT COUNTER BACKFILL: no wallets ---");
+            return;
+        }
+
+        System.out.println("--- PAYMENT COUNTER BACKFILL: wallets " + minId + ".." + maxId + " ---");
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + chunkSize - 1);
+                chunks.add(pool.submit(() -> jdbcTemplate.update(BACKFILL_SQL, lo, hi)));
+            }
+            int updated = 0;
+            for (Future<Integer> chunk : chunks) {
+                updated += chunk.get();
+            }
+            System.out.println("✔ Backfilled payment counters for " + updated + " wallets in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.paythm.paythm_api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (@Scheduled), e.g. ledger snapshots
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package com.paythm.paythm_api.controller;
 
 import com.paythm.paythm_api.entity.Goal;
+import com.paythm.paythm_api.entity.Money;
 import com.paythm.paythm_api.service.GoalService;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,7 +32,7 @@ public class GoalController {
     public org.springframework.http.ResponseEntity<Goal> addMoney(@PathVariable Long goalId,
             @PathVariable double amount) {
         try {
-            return org.springframework.http.ResponseEntity.ok(service.addMoneyToGoal(goalId, amount));
+            return org.springframework.http.ResponseEntity.ok(service.addMoneyToGoal(goalId, Money.ofRupees(amount)));
         } catch (RuntimeException e) {
             return org.springframework.http.ResponseEntity.badRequest().build();
         }
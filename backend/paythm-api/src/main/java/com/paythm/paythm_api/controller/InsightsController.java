@@ -1,20 +1,96 @@
 package com.paythm.paythm_api.controller;
 
+import com.paythm.paythm_api.dto.CategoryOverrideRequest;
 import com.paythm.paythm_api.dto.InsightsResponse;
-import com.paythm.paythm_api.service.InsightsService;
+import com.paythm.paythm_api.entity.CategoryOverride;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.service.InsightsCache;
+import com.paythm.paythm_api.service.SpendRollups;
+import com.paythm.paythm_api.service.SpendingCategories;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/insights")
 @CrossOrigin(origins = "*") // Allow frontend access
 public class InsightsController {
 
     @Autowired
-    private InsightsService insightsService;
+    private InsightsCache insightsCache;
+
+    @Autowired
+    private SpendingCategories categories;
+
+    @Autowired
+    private SpendRollups rollups;
 
+    // Cached card; a stale one is returned while it is recomputed
     @GetMapping("/{userId}")
     public InsightsResponse getInsights(@PathVariable Long userId) {
-        return insightsService.generateInsights(userId);
+        return insightsCache.get(userId);
+    }
+
+    // Category -> spend for a month (yyyy-MM, default: this month)
+    @GetMapping("/{userId}/categories")
+    public ResponseEntity<?> categorySpend(@PathVariable Long userId, @RequestParam(required = false) String month) {
+        try {
+            YearMonth m = month == null || month.isBlank() ? YearMonth.now() : YearMonth.parse(month);
+            Map<String, Money> spend = categories.monthlySpend(userId, m);
+            return ResponseEntity.ok(spend);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Month must look like 2026-01");
+        }
+    }
+
+    // Spend chart from the rollups: granularity day|week|month, from/to yyyy-MM-dd (default: the last 30
+    // days, 12 weeks or 12 months up to today)
+    @GetMapping("/{userId}/series")
+    public ResponseEntity<?> series(@PathVariable Long userId, @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        try {
+            SpendRollups.Granularity g = SpendRollups.Granularity.parse(granularity);
+            LocalDate end = to == null || to.isBlank() ? LocalDate.now() : LocalDate.parse(to);
+            LocalDate start = from != null && !from.isBlank() ? LocalDate.parse(from) : switch (g) {
+                case DAY -> end.minusDays(29);
+                case WEEK -> end.minusWeeks(11);
+                case MONTH -> end.minusMonths(11);
+            };
+            return ResponseEntity.ok(rollups.series(userId, g, start, end));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Dates must look like 2026-01-31");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{userId}/category-overrides")
+    public List<CategoryOverride> overrides(@PathVariable Long userId) {
+        return categories.overrides(userId);
+    }
+
+    @PutMapping("/{userId}/category-overrides")
+    public ResponseEntity<?> setOverride(@PathVariable Long userId, @RequestBody CategoryOverrideRequest request) {
+        try {
+            return ResponseEntity.ok(categories.setOverride(userId, request.getCounterparty(), request.getCategory()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{userId}/category-overrides")
+    public ResponseEntity<String> removeOverride(@PathVariable Long userId, @RequestParam String counterparty) {
+        try {
+            categories.removeOverride(userId, counterparty);
+            return ResponseEntity.ok("Override Removed");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.paythm.paythm_api.controller;
+
+import com.paythm.paythm_api.dto.LedgerBalance;
+import com.paythm.paythm_api.service.LedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/ledger")
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private final LedgerService ledger;
+
+    public LedgerController(LedgerService ledger) {
+        this.ledger = ledger;
+    }
+
+    // Current balance, or the balance just before ?at=...
+    @GetMapping("/wallet/{userId}/balance")
+    public ResponseEntity<?> balance(@PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            String account = ledger.walletOf(userId);
+            return ResponseEntity.ok(new LedgerBalance(account,
+                    at == null ? ledger.balance(account) : ledger.balanceAt(account, at), at));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Month-end statement: /wallet/{userId}/statement?month=2026-09
+    @GetMapping("/wallet/{userId}/statement")
+    public ResponseEntity<?> statement(@PathVariable Long userId, @RequestParam YearMonth month) {
+        try {
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            return ResponseEntity.ok(ledger.statement(ledger.walletOf(userId), from, from.plusMonths(1)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/wallet/{userId}/reconcile")
+    public ResponseEntity<?> reconcile(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(ledger.reconcile(userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.paythm.paythm_api.controller;
+
+import com.paythm.paythm_api.service.BalanceCache;
+import com.paythm.paythm_api.service.BankSettlementService;
+import com.paythm.paythm_api.service.HistoryJournal;
+import com.paythm.paythm_api.service.HoldExpirySweeper;
+import com.paythm.paythm_api.service.HotWalletShards;
+import com.paythm.paythm_api.service.InsightsCache;
+import com.paythm.paythm_api.service.InsightsService;
+import com.paythm.paythm_api.service.OutboxDispatcher;
+import com.paythm.paythm_api.service.RiskScorer;
+import com.paythm.paythm_api.service.ScheduledPaymentEngine;
+import com.paythm.paythm_api.service.SimulatedBankConnector;
+import com.paythm.paythm_api.service.SpendRollups;
+import com.paythm.paythm_api.service.SpendingCategories;
+import com.paythm.paythm_api.service.VelocityLimiter;
+import com.paythm.paythm_api.service.WalletStatsService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    private final OutboxDispatcher outboxDispatcher;
+    private final BalanceCache balanceCache;
+    private final HistoryJournal historyJournal;
+    private final HotWalletShards hotWallets;
+    private final VelocityLimiter velocityLimiter;
+    private final RiskScorer riskScorer;
+    private final ScheduledPaymentEngine scheduledPayments;
+    private final BankSettlementService settlement;
+    private final HoldExpirySweeper holdSweeper;
+    private final SimulatedBankConnector bankSimulator;
+    private final WalletStatsService walletStats;
+    private final InsightsService insights;
+    private final InsightsCache insightsCache;
+    private final SpendingCategories categories;
+    private final SpendRollups rollups;
+
+    public MetricsController(OutboxDispatcher outboxDispatcher, BalanceCache balanceCache,
+            HistoryJournal historyJournal, HotWalletShards hotWallets, VelocityLimiter velocityLimiter,
+            RiskScorer riskScorer, ScheduledPaymentEngine scheduledPayments,
+            BankSettlementService settlement, HoldExpirySweeper holdSweeper,
+            SimulatedBankConnector bankSimulator, WalletStatsService walletStats, InsightsService insights,
+            SpendingCategories categories, SpendRollups rollups, InsightsCache insightsCache) {
+        this.outboxDispatcher = outboxDispatcher;
+        this.balanceCache = balanceCache;
+        this.historyJournal = historyJournal;
+        this.hotWallets = hotWallets;
+        this.velocityLimiter = velocityLimiter;
+        this.riskScorer = riskScorer;
+        this.scheduledPayments = scheduledPayments;
+        this.settlement = settlement;
+        this.holdSweeper = holdSweeper;
+        this.bankSimulator = bankSimulator;
+        this.walletStats = walletStats;
+        this.insights = insights;
+        this.categories = categories;
+        this.rollups = rollups;
+        this.insightsCache = insightsCache;
+    }
+
+    @GetMapping("/outbox")
+    public Map<String, Object> outbox() {
+        return outboxDispatcher.metrics();
+    }
+
+    @GetMapping("/balance-cache")
+    public Map<String, Object> balanceCache() {
+        return balanceCache.metrics();
+    }
+
+    @GetMapping("/journal")
+    public Map<String, Object> journal() {
+        return historyJournal.metrics();
+    }
+
+    @GetMapping("/hot-wallets")
+    public Map<String, Object> hotWallets() {
+        return hotWallets.metrics();
+    }
+
+    @GetMapping("/velocity")
+    public Map<String, Object> velocity() {
+        return velocityLimiter.metrics();
+    }
+
+    @GetMapping("/risk")
+    public Map<String, Object> risk() {
+        return riskScorer.metrics();
+    }
+
+    @GetMapping("/schedules")
+    public Map<String, Object> schedules() {
+        return scheduledPayments.metrics();
+    }
+
+    @GetMapping("/settlement")
+    public Map<String, Object> settlement() {
+        return settlement.metrics();
+    }
+
+    @GetMapping("/holds")
+    public Map<String, Object> holds() {
+        return holdSweeper.metrics();
+    }
+
+    @GetMapping("/bank")
+    public Map<String, Object> bank() {
+        return bankSimulator.metrics();
+    }
+
+    @GetMapping("/wallet-stats")
+    public Map<String, Object> walletStats() {
+        return walletStats.metrics();
+    }
+
+    @GetMapping("/insights")
+    public Map<String, Object> insights() {
+        return insights.metrics();
+    }
+
+    @GetMapping("/insights-cache")
+    public Map<String, Object> insightsCache() {
+        return insightsCache.metrics();
+    }
+
+    @GetMapping("/categories")
+    public Map<String, Object> categories() {
+        return categories.metrics();
+    }
+
+    @GetMapping("/rollups")
+    public Map<String, Object> rollups() {
+        return rollups.metrics();
+    }
+}
@@ -1,7 +1,8 @@
 package com.paythm.paythm_api.controller;
 
-import com.paythm.paythm_api.service.EmailService;
+import com.paythm.paythm_api.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -14,7 +15,10 @@ import java.util.Random;
 public class OtpController {
 
     @Autowired
-    private EmailService emailService;
+    private NotificationService notificationService;
+
+    @Value("${spring.mail.password:}")
+    private String mailPassword;
 
     // Temporary storage for OTPs (In production use Redis or Database)
     private static final Map<String, String> otpStorage = new HashMap<>();
@@ -33,17 +37,18 @@ public class OtpController {
         String otp = String.format("%04d", new Random().nextInt(10000));
         otpStorage.put(email, otp);
 
-        try {
-            emailService.sendSimpleMessage(
-                    email,
-                    "Your PayThm Verification Code",
-                    "Welcome to PayThm! Your verification code is: " + otp);
-            response.put("message", "OTP sent successfully to " + email);
-        } catch (Exception e) {
+        // Delivered asynchronously by the outbox dispatcher
+        notificationService.sendEmail(
+                email,
+                "Your PayThm Verification Code",
+                "Welcome to PayThm! Your verification code is: " + otp);
+
+        if (mailPassword == null || mailPassword.isEmpty() || mailPassword.equals("YOUR_GMAIL_APP_PASSWORD")) {
             // Fallback for demo if SMTP isn't configured
-            System.err.println("Failed to send email: " + e.getMessage());
-            response.put("message", "OTP generated (Email Failed): " + otp);
+            response.put("message", "OTP generated (Email not configured): " + otp);
             response.put("dev_otp", otp); // ONLY FOR DEV
+        } else {
+            response.put("message", "OTP sent successfully to " + email);
         }
 
         return response;
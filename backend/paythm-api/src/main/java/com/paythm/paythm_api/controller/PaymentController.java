@@ -2,6 +2,7 @@ package com.paythm.paythm_api.controller;
 
 import com.paythm.paythm_api.dto.CreateOrderRequest;
 import com.paythm.paythm_api.dto.CreateOrderResponse;
+import com.paythm.paythm_api.entity.Money;
 import com.razorpay.Order;
 import com.razorpay.RazorpayClient;
 // imp removed
@@ -123,7 +124,8 @@ public class PaymentController {
                 JSONObject notes = entity.getJSONObject("notes");
                 if (notes.has("userId")) {
                     Long userId = Long.parseLong(notes.getString("userId"));
-                    Double amount = entity.getDouble("amount") / 100.0; // Convert back to INR
+                    // Razorpay reports paise, which is exactly our Money unit
+                    Money amount = Money.ofPaise(entity.getLong("amount"));
 
                     // Use addToWallet (we need to make sure we don't double count if frontend also
                     // calls it)
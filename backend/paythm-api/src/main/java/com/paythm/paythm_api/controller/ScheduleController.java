@@ -0,0 +1,61 @@
+package com.paythm.paythm_api.controller;
+
+import com.paythm.paythm_api.dto.ScheduleRequest;
+import com.paythm.paythm_api.entity.ScheduledPayment;
+import com.paythm.paythm_api.entity.ScheduledPaymentRun;
+import com.paythm.paythm_api.service.ScheduledPaymentService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/schedules")
+@CrossOrigin(origins = "*")
+public class ScheduleController {
+
+    private final ScheduledPaymentService service;
+
+    public ScheduleController(ScheduledPaymentService service) {
+        this.service = service;
+    }
+
+    @PostMapping("/{userId}")
+    public ResponseEntity<?> create(@PathVariable Long userId, @RequestBody ScheduleRequest request) {
+        return respond(() -> service.create(userId, request));
+    }
+
+    @GetMapping("/{userId}")
+    public List<ScheduledPayment> list(@PathVariable Long userId) {
+        return service.list(userId);
+    }
+
+    @GetMapping("/{userId}/{scheduleId}/runs")
+    public ResponseEntity<?> runs(@PathVariable Long userId, @PathVariable Long scheduleId) {
+        return respond(() -> service.runs(userId, scheduleId));
+    }
+
+    @PostMapping("/{userId}/{scheduleId}/pause")
+    public ResponseEntity<?> pause(@PathVariable Long userId, @PathVariable Long scheduleId) {
+        return respond(() -> service.pause(userId, scheduleId));
+    }
+
+    @PostMapping("/{userId}/{scheduleId}/resume")
+    public ResponseEntity<?> resume(@PathVariable Long userId, @PathVariable Long scheduleId) {
+        return respond(() -> service.resume(userId, scheduleId));
+    }
+
+    @DeleteMapping("/{userId}/{scheduleId}")
+    public ResponseEntity<?> cancel(@PathVariable Long userId, @PathVariable Long scheduleId) {
+        return respond(() -> service.cancel(userId, scheduleId));
+    }
+
+    private static ResponseEntity<?> respond(Supplier<?> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.paythm.paythm_api.controller;
 
+import com.paythm.paythm_api.dto.TransactionView;
 import com.paythm.paythm_api.entity.Transaction;
 import com.paythm.paythm_api.service.TransactionService;
 import org.springframework.web.bind.annotation.*;
@@ -22,7 +23,7 @@ public class TransactionController {
     }
 
     @GetMapping("/{userId}")
-    public List<Transaction> getByUser(@PathVariable Long userId) {
+    public List<TransactionView> getByUser(@PathVariable Long userId) {
         return service.getUserTransactions(userId);
     }
 }
@@ -45,6 +45,13 @@ public class UserController {
         return ResponseEntity.ok(userService.getAll());
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.search(q, userId, limit));
+    }
+
     @PutMapping("/kyc/{userId}/{status}")
     public ResponseEntity<?> updateKyc(@PathVariable Long userId, @PathVariable String status) {
         return ResponseEntity.ok(userService.updateKycStatus(userId, status));
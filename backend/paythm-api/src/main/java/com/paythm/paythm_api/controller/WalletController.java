@@ -1,90 +1,271 @@
 package com.paythm.paythm_api.controller;
 
+import com.paythm.paythm_api.service.RiskScorer;
+import com.paythm.paythm_api.service.TransactionExportService;
+import com.paythm.paythm_api.service.VelocityLimiter;
 import com.paythm.paythm_api.service.WalletService;
 import com.paythm.paythm_api.dto.SendUpiRequest;
 import com.paythm.paythm_api.dto.SendBankRequest;
-import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.dto.HoldRequest;
+import com.paythm.paythm_api.dto.PinRequest;
+import com.paythm.paythm_api.dto.AdminTransactionView;
+import com.paythm.paythm_api.dto.TransactionView;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.WalletHold;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/wallet")
 @CrossOrigin(origins = "*")
 public class WalletController {
 
+    // Largest rupee amount a request may carry: far inside what a long of paise holds
+    private static final double MAX_RUPEES = 1e12;
+    private static final String INVALID_AMOUNT = "Amount must be a number up to " + (long) MAX_RUPEES;
+
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    @Value("${paythm.holds.default-ttl-minutes:10080}")
+    private long defaultHoldMinutes;
+
     @GetMapping("/balance/{userId}")
-    public double getBalance(@PathVariable Long userId) {
+    public Money getBalance(@PathVariable Long userId) {
         return walletService.getBalance(userId);
     }
 
+    // Async: the request thread is released while the bank leg is in flight
     @PostMapping("/add/{userId}/{amount}")
-    public ResponseEntity<String> addMoney(@PathVariable Long userId, @PathVariable double amount) {
-        try {
-            walletService.addMoney(userId, amount);
-            return ResponseEntity.ok("Money Added!");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<String>> addMoney(@PathVariable Long userId,
+            @PathVariable double amount) {
+        Money money = money(amount);
+        if (money == null)
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(INVALID_AMOUNT));
+        return addMoney(userId, money, "Money Added!");
     }
 
     @PostMapping("/add")
-    public String addMoneyWithBody(@RequestBody com.paythm.paythm_api.dto.AddMoneyRequest request) {
-        walletService.addMoney(request.getUserId(), request.getAmount());
-        return "Money Added Successfully!";
+    public CompletableFuture<ResponseEntity<String>> addMoneyWithBody(
+            @RequestBody com.paythm.paythm_api.dto.AddMoneyRequest request) {
+        return addMoney(request.getUserId(), request.getAmount(), "Money Added Successfully!");
+    }
+
+    private CompletableFuture<ResponseEntity<String>> addMoney(Long userId, Money money, String success) {
+        long wait = velocityLimiter.tryAcquire(userId, VelocityLimiter.Endpoint.ADD, money);
+        if (wait > 0)
+            return CompletableFuture.completedFuture(VelocityLimiter.tooManyRequests(wait));
+        return walletService.addMoneyAsync(userId, money).handle((wallet, error) -> {
+            if (error == null)
+                return ResponseEntity.ok(success);
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        });
     }
 
     @PostMapping("/send/{sender}/{receiver}/{amount}")
     public ResponseEntity<String> sendMoney(@PathVariable Long sender,
             @PathVariable String receiver,
-            @PathVariable double amount) {
-        String result = walletService.sendMoney(sender, receiver, amount);
-        if ("Money Sent Successfully!".equals(result)) {
-            return ResponseEntity.ok(result);
-        }
-        return ResponseEntity.badRequest().body(result);
+            @PathVariable double amount,
+            @RequestBody(required = false) PinRequest body) {
+        Money money = money(amount);
+        if (money == null)
+            return ResponseEntity.badRequest().body(INVALID_AMOUNT);
+        String pin = body == null ? null : body.getPin();
+        long wait = velocityLimiter.tryAcquire(sender, VelocityLimiter.Endpoint.SEND, money);
+        if (wait > 0)
+            return VelocityLimiter.tooManyRequests(wait);
+        String result = walletService.sendMoney(sender, receiver, money, pin);
+        return paymentResponse(result, "Money Sent Successfully!");
     }
 
     @PostMapping("/send-upi")
     public ResponseEntity<String> sendUpi(@RequestBody SendUpiRequest request) {
-        String result = walletService.sendMoneyViaUpi(request.getSenderId(), request.getUpiId(), request.getAmount());
-        if ("UPI Transfer Successful".equals(result)) {
-            return ResponseEntity.ok(result);
-        }
-        return ResponseEntity.badRequest().body(result);
+        Money money = money(request.getAmount());
+        if (money == null)
+            return ResponseEntity.badRequest().body(INVALID_AMOUNT);
+        long wait = velocityLimiter.tryAcquire(request.getSenderId(), VelocityLimiter.Endpoint.SEND_UPI, money);
+        if (wait > 0)
+            return VelocityLimiter.tooManyRequests(wait);
+        String result = walletService.sendMoneyViaUpi(request.getSenderId(), request.getUpiId(), money,
+                request.getPin());
+        return paymentResponse(result, "UPI Transfer Successful");
     }
 
     @PostMapping("/send-bank")
     public ResponseEntity<String> sendBank(@RequestBody SendBankRequest request) {
+        Money money = money(request.getAmount());
+        if (money == null)
+            return ResponseEntity.badRequest().body(INVALID_AMOUNT);
+        long wait = velocityLimiter.tryAcquire(request.getSenderId(), VelocityLimiter.Endpoint.SEND_BANK, money);
+        if (wait > 0)
+            return VelocityLimiter.tooManyRequests(wait);
         String result = walletService.sendMoneyViaBank(
                 request.getSenderId(),
                 request.getAccountNumber(),
                 request.getIfsc(),
                 request.getRecipientName(),
-                request.getAmount());
-        if ("Bank Transfer Successful".equals(result)) {
-            return ResponseEntity.ok(result);
+                money,
+                request.getPin());
+        return paymentResponse(result, "Bank Transfer Initiated");
+    }
+
+    // -------------------------------
+    // HOLDS (authorize / capture / release)
+    // -------------------------------
+    @GetMapping("/available/{userId}")
+    public Money getAvailableBalance(@PathVariable Long userId) {
+        return walletService.getAvailableBalance(userId);
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<?> authorizeHold(@RequestBody HoldRequest request) {
+        Money money = money(request.getAmount());
+        if (money == null)
+            return ResponseEntity.badRequest().body(INVALID_AMOUNT);
+        boolean bank = "BANK".equalsIgnoreCase(request.getType());
+        long wait = velocityLimiter.tryAcquire(request.getUserId(),
+                bank ? VelocityLimiter.Endpoint.SEND_BANK : VelocityLimiter.Endpoint.SEND_UPI, money);
+        if (wait > 0)
+            return VelocityLimiter.tooManyRequests(wait);
+        try {
+            return ResponseEntity.ok(walletService.authorizeHold(request.getUserId(), bank ? "BANK" : "UPI",
+                    bank ? request.getAccountNumber() : request.getUpiId(), request.getIfsc(),
+                    request.getRecipientName(), money, request.getPin(),
+                    request.getTtlMinutes() == null ? defaultHoldMinutes : request.getTtlMinutes()));
+        } catch (RuntimeException e) {
+            return paymentFailure(e.getMessage());
         }
+    }
+
+    // Without 'amount' the whole hold is captured
+    @PostMapping("/holds/{userId}/{holdId}/capture")
+    public ResponseEntity<String> captureHold(@PathVariable Long userId, @PathVariable Long holdId,
+            @RequestParam(required = false) Double amount) {
+        Money money = amount == null ? null : money(amount);
+        if (amount != null && money == null)
+            return ResponseEntity.badRequest().body(INVALID_AMOUNT);
+        String result = walletService.captureHold(userId, holdId, money);
+        if ("UPI Transfer Successful".equals(result) || "Bank Transfer Initiated".equals(result))
+            return ResponseEntity.ok(result);
         return ResponseEntity.badRequest().body(result);
     }
 
+    @PostMapping("/holds/{userId}/{holdId}/release")
+    public ResponseEntity<String> releaseHold(@PathVariable Long userId, @PathVariable Long holdId) {
+        String result = walletService.releaseHold(userId, holdId);
+        return "Hold Released".equals(result) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    @GetMapping("/holds/{userId}")
+    public List<WalletHold> holds(@PathVariable Long userId) {
+        return walletService.holds(userId);
+    }
+
+    // Null for a missing, NaN, infinite or out-of-range amount, which Money.ofRupees would throw on.
+    // Sign is left to the services, which answer "Amount must be positive"
+    private static Money money(Double rupees) {
+        if (rupees == null || !Double.isFinite(rupees) || Math.abs(rupees) > MAX_RUPEES)
+            return null;
+        return Money.ofRupees(rupees);
+    }
+
+    private static ResponseEntity<String> paymentResponse(String result, String success) {
+        if (success.equals(result))
+            return ResponseEntity.ok(result);
+        return paymentFailure(result);
+    }
+
+    // 428 asks the client to resend with the user's PIN; 403 is a risk block
+    private static ResponseEntity<String> paymentFailure(String result) {
+        if (RiskScorer.PIN_REQUIRED.equals(result))
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(result);
+        if (RiskScorer.BLOCKED.equals(result))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(result);
+        return ResponseEntity.badRequest().body(result);
+    }
+
+    // Opt-in hot-wallet mode for merchants; slots=0 turns it off
+    @PostMapping("/shards/{userId}")
+    public ResponseEntity<String> setShards(@PathVariable Long userId, @RequestParam int slots) {
+        try {
+            walletService.setWalletShards(userId, slots);
+            return ResponseEntity.ok(slots > 0 ? "Wallet sharded into " + slots + " slots" : "Wallet unsharded");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/payouts/{senderId}")
+    public ResponseEntity<?> bulkPayout(@PathVariable Long senderId,
+            @RequestBody com.paythm.paythm_api.dto.PayoutRequest request) {
+        try {
+            return ResponseEntity.ok(walletService.bulkPayout(senderId, request.getItems(), request.getPin()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/history/{userId}")
-    public List<Transaction> history(@PathVariable Long userId) {
+    public List<TransactionView> history(@PathVariable Long userId) {
         return walletService.history(userId);
     }
 
+    @GetMapping("/history/{userId}/page")
+    public ResponseEntity<?> historyPage(@PathVariable Long userId,
+            com.paythm.paythm_api.dto.HistoryQuery query) {
+        try {
+            return ResponseEntity.ok(walletService.historyPage(userId, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/bank-details/{userId}")
     public com.paythm.paythm_api.entity.BankAccount getBankDetails(@PathVariable Long userId) {
         return walletService.getBankDetails(userId);
     }
 
     @GetMapping("/all-transactions")
-    public List<Transaction> getAllTransactions() {
+    public List<AdminTransactionView> getAllTransactions() {
         return walletService.getAllTransactions();
     }
+
+    // Streaming admin export: /all-transactions/export?format=ndjson|csv&gzip=true&from=...&to=...
+    @GetMapping("/all-transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String fileName = "transactions." + (csv ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> exportService.export(out, csv, gzip, from, to);
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
 }
@@ -1,9 +1,10 @@
 package com.paythm.paythm_api.dto;
 
+import com.paythm.paythm_api.entity.Money;
 import lombok.Data;
 
 @Data
 public class AddMoneyRequest {
     private Long userId;
-    private double amount;
+    private Money amount;
 }
@@ -0,0 +1,18 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDateTime;
+
+// TransactionView plus the wallet owner, for the admin transaction list
+public record AdminTransactionView(
+        Long id,
+        Money amount,
+        String type,
+        String message,
+        String status,
+        LocalDateTime timestamp,
+        String counterparty,
+        Long userId,
+        String userName) {
+}
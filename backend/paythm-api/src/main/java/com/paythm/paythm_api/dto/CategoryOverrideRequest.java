@@ -0,0 +1,9 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+
+@Data
+public class CategoryOverrideRequest {
+    private String counterparty; // name, UPI ID or bank beneficiary as shown in history
+    private String category;
+}
@@ -0,0 +1,18 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class HistoryPage {
+    private List<TransactionView> items;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+
+    public HistoryPage(List<TransactionView> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+}
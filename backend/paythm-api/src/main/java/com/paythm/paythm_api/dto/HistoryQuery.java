@@ -0,0 +1,23 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query-string filters for /api/wallet/history/{userId}/page
+@Data
+public class HistoryQuery {
+    private String cursor; // nextCursor from the previous page
+    private int limit = 20;
+    private String type; // "CREDIT" | "DEBIT"
+    private String status;
+    private Double minAmount;
+    private Double maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to; // exclusive
+}
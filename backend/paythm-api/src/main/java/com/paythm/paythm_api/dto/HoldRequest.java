@@ -0,0 +1,16 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+
+@Data
+public class HoldRequest {
+    private Long userId;
+    private String type; // UPI | BANK
+    private String upiId; // UPI
+    private String accountNumber; // BANK
+    private String ifsc; // BANK
+    private String recipientName; // BANK
+    private Double amount;
+    private String pin; // only needed when the risk check holds the payment
+    private Long ttlMinutes; // defaults to paythm.holds.default-ttl-minutes
+}
@@ -1,12 +1,21 @@
 package com.paythm.paythm_api.dto;
 
+import com.paythm.paythm_api.entity.Money;
 import lombok.Data;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class InsightsResponse {
-    private double totalSpent;
-    private double totalReceived;
-    private String topSpendingCategory; // Inferred from message for now if category missing
+    private Money totalSpent;
+    private Money totalReceived;
+    private LocalDateTime firstTransactionAt;
+    private LocalDateTime lastTransactionAt;
+    private String topSpendingCategory; // This month's largest DEBIT category, "General" if none
+    private Map<String, Money> categorySpend; // This month, largest first
     private List<String> aiSuggestions; // The "AI" generated text
+    private List<String> unavailable; // Sections whose load was late or failed; their fields are null
+    private boolean partial; // Any section unavailable: cached only briefly (see InsightsCache)
 }
@@ -0,0 +1,9 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDateTime;
+
+// Ledger-derived balance; at == null means "now"
+public record LedgerBalance(String account, Money balance, LocalDateTime at) {
+}
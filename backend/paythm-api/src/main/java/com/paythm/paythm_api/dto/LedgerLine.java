@@ -0,0 +1,15 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDateTime;
+
+// One statement line: a ledger leg joined with its posting header
+public record LedgerLine(
+        Long entryId,
+        Long postingId,
+        String kind,
+        String memo,
+        Money amount,
+        LocalDateTime postedAt) {
+}
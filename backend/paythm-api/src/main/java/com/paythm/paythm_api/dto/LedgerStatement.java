@@ -0,0 +1,16 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Entries in [from, to) with the balances on either side
+public record LedgerStatement(
+        String account,
+        LocalDateTime from,
+        LocalDateTime to,
+        Money openingBalance,
+        Money closingBalance,
+        List<LedgerLine> lines) {
+}
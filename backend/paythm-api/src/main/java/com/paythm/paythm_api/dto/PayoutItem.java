@@ -0,0 +1,11 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+import lombok.Data;
+
+@Data
+public class PayoutItem {
+    private String receiver; // PayThm ID / Phone / Email / User ID
+    private Money amount;
+    private String note; // optional, shown in both histories
+}
@@ -0,0 +1,13 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PayoutRequest {
+    private List<PayoutItem> items;
+
+    // Checked once for the whole batch, when the risk check holds any item
+    private String pin;
+}
@@ -0,0 +1,19 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+import lombok.Data;
+
+@Data
+public class PayoutResult {
+    private String receiver;
+    private Money amount;
+    private String status; // "PAID" | "FAILED"
+    private String message;
+
+    public PayoutResult(String receiver, Money amount, String status, String message) {
+        this.receiver = receiver;
+        this.amount = amount;
+        this.status = status;
+        this.message = message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.paythm.paythm_api.dto;
+
+// Optional body of POST /api/wallet/send/...; keeps the PIN out of the URL and access logs
+public class PinRequest {
+
+    // Only needed when the risk check holds the payment
+    private String pin;
+
+    public String getPin() {
+        return pin;
+    }
+
+    public void setPin(String pin) {
+        this.pin = pin;
+    }
+}
@@ -0,0 +1,17 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduleRequest {
+    private String receiver;
+    private Money amount;
+    private String note;
+    private String frequency; // ONCE | DAILY | WEEKLY | MONTHLY
+    private LocalDateTime startAt; // defaults to now
+    private Integer maxRuns; // number of occurrences; null = until cancelled
+    private String pin; // authorizes every future run
+}
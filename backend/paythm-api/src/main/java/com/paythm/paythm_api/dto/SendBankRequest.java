@@ -20,6 +20,9 @@ public class SendBankRequest {
     @Positive
     private Double amount;
 
+    // Only needed when the risk check holds the payment
+    private String pin;
+
     // Getters and Setters
     public Long getSenderId() {
         return senderId;
@@ -60,4 +63,12 @@ public class SendBankRequest {
     public void setAmount(Double amount) {
         this.amount = amount;
     }
+
+    public String getPin() {
+        return pin;
+    }
+
+    public void setPin(String pin) {
+        this.pin = pin;
+    }
 }
@@ -14,6 +14,9 @@ public class SendUpiRequest {
     @Positive
     private Double amount;
 
+    // Only needed when the risk check holds the payment
+    private String pin;
+
     // Getters and Setters
     public Long getSenderId() {
         return senderId;
@@ -38,4 +41,12 @@ public class SendUpiRequest {
     public void setAmount(Double amount) {
         this.amount = amount;
     }
+
+    public String getPin() {
+        return pin;
+    }
+
+    public void setPin(String pin) {
+        this.pin = pin;
+    }
 }
@@ -0,0 +1,14 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDate;
+
+// One bar of a spend chart: totals of one type and category in the bucket starting at 'bucket'
+public record SeriesPoint(
+        LocalDate bucket,
+        String type,
+        String category,
+        Money total,
+        long count) {
+}
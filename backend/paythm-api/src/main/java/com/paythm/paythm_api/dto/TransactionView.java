@@ -0,0 +1,16 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.time.LocalDateTime;
+
+// Read model for history endpoints; built directly by JPQL constructor queries
+public record TransactionView(
+        Long id,
+        Money amount,
+        String type,
+        String message,
+        String status,
+        LocalDateTime timestamp,
+        String counterparty) {
+}
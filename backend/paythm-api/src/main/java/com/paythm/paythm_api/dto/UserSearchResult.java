@@ -0,0 +1,18 @@
+package com.paythm.paythm_api.dto;
+
+import lombok.Data;
+
+@Data
+public class UserSearchResult {
+    private Long id;
+    private String fullName;
+    private String paythmId;
+    private String phone; // masked, e.g. ******2345
+
+    public UserSearchResult(Long id, String fullName, String paythmId, String phone) {
+        this.id = id;
+        this.fullName = fullName;
+        this.paythmId = paythmId;
+        this.phone = phone;
+    }
+}
@@ -0,0 +1,8 @@
+package com.paythm.paythm_api.dto;
+
+import com.paythm.paythm_api.entity.Money;
+
+// Balance snapshot for the balance cache; version increases on every balance change.
+// For a sharded wallet (shards > 0) balance is the wallet row only, slots excluded.
+public record WalletBalance(Long walletId, Long userId, Money balance, long version, int shards) {
+}
@@ -22,7 +22,7 @@ public class BankAccount {
     private String accountNumber; // e.g., "**** 4532"
 
     @Column(name = "balance")
-    private double balance;
+    private Money balance = Money.ZERO;
 
     @Column(name = "is_primary")
     private boolean isPrimary;
@@ -0,0 +1,48 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Outgoing bank transfer awaiting (or done with) settlement; see BankSettlementService
+@Entity
+@Getter
+@Setter
+@Table(name = "bank_transfers", indexes = {
+        @Index(name = "idx_bank_transfer_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_bank_transfer_batch", columnList = "batch_id") })
+public class BankTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "account_number")
+    private String accountNumber;
+
+    private String ifsc;
+
+    @Column(name = "beneficiary_name")
+    private String beneficiaryName;
+
+    private Money amount = Money.ZERO;
+
+    private String status = "PENDING"; // PENDING | BATCHED | SETTLED | RETURNED
+
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
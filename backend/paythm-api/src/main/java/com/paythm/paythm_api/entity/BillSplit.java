@@ -12,11 +12,11 @@ public class BillSplit {
     private Long id;
 
     private String description;
-    private double totalAmount;
+    private Money totalAmount = Money.ZERO;
     private String date;
     private String status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @com.fasterxml.jackson.annotation.JsonIgnore
     private User user;
@@ -28,13 +28,13 @@ public class BillSplit {
     @Embeddable
     public static class Participant {
         private String name;
-        private double amount;
+        private Money amount = Money.ZERO;
         private String status;
 
         public Participant() {
         }
 
-        public Participant(String name, double amount, String status) {
+        public Participant(String name, Money amount, String status) {
             this.name = name;
             this.amount = amount;
             this.status = status;
@@ -48,11 +48,11 @@ public class BillSplit {
             this.name = name;
         }
 
-        public double getAmount() {
+        public Money getAmount() {
             return amount;
         }
 
-        public void setAmount(double amount) {
+        public void setAmount(Money amount) {
             this.amount = amount;
         }
 
@@ -68,7 +68,7 @@ public class BillSplit {
     public BillSplit() {
     }
 
-    public BillSplit(String description, double totalAmount, String date, String status, List<Participant> participants,
+    public BillSplit(String description, Money totalAmount, String date, String status, List<Participant> participants,
             User user) {
         this.description = description;
         this.totalAmount = totalAmount;
@@ -94,11 +94,11 @@ public class BillSplit {
         this.description = description;
     }
 
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
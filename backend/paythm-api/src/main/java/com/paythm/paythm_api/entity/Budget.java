@@ -10,10 +10,10 @@ public class Budget {
     private Long id;
 
     private String category;
-    private double limitAmount;
-    private double spentAmount;
+    private Money limitAmount = Money.ZERO;
+    private Money spentAmount = Money.ZERO;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @com.fasterxml.jackson.annotation.JsonIgnore
     private User user;
@@ -21,7 +21,7 @@ public class Budget {
     public Budget() {
     }
 
-    public Budget(String category, double limitAmount, double spentAmount, User user) {
+    public Budget(String category, Money limitAmount, Money spentAmount, User user) {
         this.category = category;
         this.limitAmount = limitAmount;
         this.spentAmount = spentAmount;
@@ -44,19 +44,19 @@ public class Budget {
         this.category = category;
     }
 
-    public double getLimitAmount() {
+    public Money getLimitAmount() {
         return limitAmount;
     }
 
-    public void setLimitAmount(double limitAmount) {
+    public void setLimitAmount(Money limitAmount) {
         this.limitAmount = limitAmount;
     }
 
-    public double getSpentAmount() {
+    public Money getSpentAmount() {
         return spentAmount;
     }
 
-    public void setSpentAmount(double spentAmount) {
+    public void setSpentAmount(Money spentAmount) {
         this.spentAmount = spentAmount;
     }
 
@@ -0,0 +1,33 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// A user's own category for everything paid to one counterparty; wins over keyword matching
+@Entity
+@Getter
+@Setter
+@Table(name = "category_overrides", uniqueConstraints = @UniqueConstraint(name = "uk_category_override", columnNames = {
+        "wallet_id", "counterparty_key" }))
+public class CategoryOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // Trimmed, lower-case counterparty (see SpendingCategories.key)
+    @Column(name = "counterparty_key", nullable = false, length = 191)
+    private String counterpartyKey;
+
+    @Column(nullable = false, length = 32)
+    private String category;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,34 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// DEBIT total of one wallet in one category and calendar month (see SpendingCategories)
+@Entity
+@Getter
+@Setter
+@Table(name = "category_spend", uniqueConstraints = @UniqueConstraint(name = "uk_category_spend", columnNames = {
+        "wallet_id", "spend_month", "category" }))
+public class CategorySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // yyyyMM, e.g. 202610
+    @Column(name = "spend_month", nullable = false)
+    private int spendMonth;
+
+    @Column(nullable = false, length = 32)
+    private String category;
+
+    // Paise (BIGINT) via MoneyConverter
+    private Money total = Money.ZERO;
+
+    @Column(name = "tx_count")
+    private long txCount;
+}
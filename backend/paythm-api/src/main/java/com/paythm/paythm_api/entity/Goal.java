@@ -10,11 +10,11 @@ public class Goal {
     private Long id;
 
     private String name;
-    private double targetAmount;
-    private double currentAmount;
+    private Money targetAmount = Money.ZERO;
+    private Money currentAmount = Money.ZERO;
     private String deadline;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @com.fasterxml.jackson.annotation.JsonIgnore
     private User user;
@@ -22,7 +22,7 @@ public class Goal {
     public Goal() {
     }
 
-    public Goal(String name, double targetAmount, double currentAmount, String deadline, User user) {
+    public Goal(String name, Money targetAmount, Money currentAmount, String deadline, User user) {
         this.name = name;
         this.targetAmount = targetAmount;
         this.currentAmount = currentAmount;
@@ -46,19 +46,19 @@ public class Goal {
         this.name = name;
     }
 
-    public double getTargetAmount() {
+    public Money getTargetAmount() {
         return targetAmount;
     }
 
-    public void setTargetAmount(double targetAmount) {
+    public void setTargetAmount(Money targetAmount) {
         this.targetAmount = targetAmount;
     }
 
-    public double getCurrentAmount() {
+    public Money getCurrentAmount() {
         return currentAmount;
     }
 
-    public void setCurrentAmount(double currentAmount) {
+    public void setCurrentAmount(Money currentAmount) {
         this.currentAmount = currentAmount;
     }
 
@@ -0,0 +1,33 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One leg of a posting: a signed amount on an account ("wallet:12", "goal:3", ...). Insert-only.
+@Entity
+@Getter
+@Setter
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_account_id", columnList = "account, id"),
+        @Index(name = "idx_ledger_account_ts", columnList = "account, posted_at"),
+        @Index(name = "idx_ledger_posting", columnList = "posting_id") })
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "posting_id", nullable = false)
+    private Long postingId;
+
+    @Column(nullable = false, length = 64)
+    private String account;
+
+    private Money amount = Money.ZERO; // credit > 0, debit < 0
+
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt;
+}
@@ -0,0 +1,29 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Header of one balanced money movement; its legs are LedgerEntry rows. Never updated.
+@Entity
+@Getter
+@Setter
+@Table(name = "ledger_postings", indexes = @Index(name = "idx_posting_reference", columnList = "reference", unique = true))
+public class LedgerPosting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String kind; // e.g. "TOPUP" | "P2P" | "UPI" | "BANK_TRANSFER" | "PAYOUT" | "REWARD" | "GOAL"
+
+    private String memo;
+
+    @Column(length = 64)
+    private String reference; // set for postings that must happen at most once, e.g. "reward:<walletId>@<paymentCount>"
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
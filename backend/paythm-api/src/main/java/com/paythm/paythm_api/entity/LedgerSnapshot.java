@@ -0,0 +1,32 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Balance of an account including every entry with id <= lastEntryId
+@Entity
+@Getter
+@Setter
+@Table(name = "ledger_snapshots", indexes = {
+        @Index(name = "idx_snapshot_account_entry", columnList = "account, last_entry_id"),
+        @Index(name = "idx_snapshot_account_asof", columnList = "account, as_of") })
+public class LedgerSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String account;
+
+    @Column(name = "last_entry_id")
+    private long lastEntryId;
+
+    private Money balance = Money.ZERO;
+
+    @Column(name = "as_of")
+    private LocalDateTime asOf;
+}
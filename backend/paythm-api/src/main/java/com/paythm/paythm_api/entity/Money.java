@@ -0,0 +1,102 @@
+package com.paythm.paythm_api.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An INR amount held as a whole number of paise.
+ *
+ * Stored as BIGINT via {@link MoneyConverter} and exchanged over JSON as a
+ * rupee number with two decimals (e.g. 250.50), so clients keep working in
+ * rupees while every sum and comparison in the backend is exact. Arithmetic
+ * throws {@link ArithmeticException} on overflow instead of wrapping.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long paise;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        return paise == 0 ? ZERO : new Money(paise);
+    }
+
+    // Rupee inputs (path variables, legacy DTOs) are rounded to the nearest paisa
+    public static Money ofRupees(double rupees) {
+        return ofRupees(BigDecimal.valueOf(rupees));
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money ofRupees(BigDecimal rupees) {
+        return ofPaise(rupees.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    public long paise() {
+        return paise;
+    }
+
+    @JsonValue
+    public BigDecimal toRupees() {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    public Money plus(Money other) {
+        return ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(long factor) {
+        return ofPaise(Math.multiplyExact(paise, factor));
+    }
+
+    public Money negate() {
+        return ofPaise(Math.negateExact(paise));
+    }
+
+    public boolean isPositive() {
+        return paise > 0;
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return paise < other.paise;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return paise > other.paise;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money m && m.paise == paise;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(paise);
+    }
+
+    // Plain rupee form ("1250.00"), used in messages and exports
+    @Override
+    public String toString() {
+        return toRupees().toPlainString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Maps every Money attribute to a BIGINT column of paise
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.paise();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long paise) {
+        return paise == null ? null : Money.ofPaise(paise);
+    }
+}
@@ -0,0 +1,26 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Single row: how far daily rollups have been folded into weekly/monthly ones (see SpendRollups)
+@Entity
+@Getter
+@Setter
+@Table(name = "rollup_watermark")
+public class RollupWatermark {
+
+    @Id
+    private Integer id;
+
+    // Every day before this one is folded
+    @Column(name = "folded_day", nullable = false)
+    private LocalDate foldedDay;
+
+    // ...and so is folded_day itself for wallets below this id
+    @Column(name = "next_wallet_id", nullable = false)
+    private long nextWalletId;
+}
@@ -0,0 +1,63 @@
+package com.paythm.paythm_api.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Standing instruction: pay 'receiver' from the user's wallet once or on a fixed cadence
+@Entity
+@Getter
+@Setter
+@Table(name = "scheduled_payments", indexes = {
+        @Index(name = "idx_schedule_status_next", columnList = "status, next_run_at"),
+        @Index(name = "idx_schedule_user", columnList = "user_id") })
+public class ScheduledPayment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String receiver; // any identifier sendMoney accepts (phone, PayThm ID, email, ...)
+
+    private Money amount = Money.ZERO;
+
+    private String note;
+
+    private String frequency; // ONCE | DAILY | WEEKLY | MONTHLY
+
+    // Occurrence n is due at startAt + n periods, so monthly dates never drift
+    @Column(name = "start_at")
+    private LocalDateTime startAt;
+
+    private int occurrence; // occurrences consumed (paid, failed or skipped)
+
+    @Column(name = "max_runs")
+    private Integer maxRuns; // null = until cancelled
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt; // null once finished
+
+    private String status = "ACTIVE"; // ACTIVE | PAUSED | COMPLETED | CANCELLED
+
+    @Column(name = "run_count")
+    private int runCount; // successful payments
+
+    @JsonIgnore
+    @Column(name = "consecutive_failures")
+    private int consecutiveFailures;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "last_result")
+    private String lastResult;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,37 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One executed occurrence of a schedule; execution_key makes each occurrence run at most once
+@Entity
+@Getter
+@Setter
+@Table(name = "scheduled_payment_runs", indexes = {
+        @Index(name = "idx_schedule_run_key", columnList = "execution_key", unique = true),
+        @Index(name = "idx_schedule_run_schedule", columnList = "schedule_id, due_at") })
+public class ScheduledPaymentRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+
+    @Column(name = "execution_key", nullable = false, length = 64)
+    private String executionKey; // "<scheduleId>@<occurrence>"
+
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    @Column(name = "executed_at")
+    private LocalDateTime executedAt = LocalDateTime.now();
+
+    private String status; // PAID | FAILED | SKIPPED
+
+    private String result;
+}
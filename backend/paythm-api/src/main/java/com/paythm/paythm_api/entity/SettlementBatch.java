@@ -0,0 +1,50 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One NEFT batch file handed to the bank connector
+@Entity
+@Getter
+@Setter
+@Table(name = "settlement_batches", indexes = @Index(name = "idx_settlement_batch_status", columnList = "status"))
+public class SettlementBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String status = "CREATED"; // CREATED | SUBMITTING | SUBMITTED | COMPLETED
+
+    @Column(name = "item_count")
+    private int itemCount;
+
+    @Column(name = "total_amount")
+    private Money totalAmount = Money.ZERO;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "connector_ref")
+    private String connectorRef; // acknowledgement from the bank side
+
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt; // when an instance took the batch for submission
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
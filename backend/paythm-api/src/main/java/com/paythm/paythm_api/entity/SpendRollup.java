@@ -0,0 +1,47 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// History totals of one wallet per time bucket, type and category (see SpendRollups)
+@Entity
+@Getter
+@Setter
+@Table(name = "spend_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_spend_rollup", columnNames = {
+        "wallet_id", "granularity", "bucket_start", "type", "category", "slot" }),
+        // Compaction reads one day's daily rows across wallets
+        indexes = @Index(name = "idx_spend_rollup_day", columnList = "granularity, bucket_start, wallet_id"))
+public class SpendRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    // D = day, W = ISO week (starts Monday), M = calendar month
+    @Column(nullable = false, length = 1)
+    private String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(nullable = false, length = 8)
+    private String type;
+
+    @Column(nullable = false, length = 32)
+    private String category;
+
+    // Credits to a sharded wallet spread over slots, like its balance; readers sum them
+    private int slot;
+
+    // Paise (BIGINT) via MoneyConverter
+    private Money total = Money.ZERO;
+
+    @Column(name = "tx_count")
+    private long txCount;
+}
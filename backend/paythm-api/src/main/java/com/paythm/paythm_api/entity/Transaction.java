@@ -1,5 +1,6 @@
 package com.paythm.paythm_api.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,20 +8,43 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+// Serves keyset-paginated history: newest first within a wallet
+@Table(indexes = {
+        @Index(name = "idx_tx_wallet_ts_id", columnList = "wallet_id, timestamp, id"),
+        @Index(name = "idx_tx_journal_key", columnList = "journal_key", unique = true),
+        @Index(name = "idx_tx_bank_transfer", columnList = "bank_transfer_id") })
 public class Transaction {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private double amount;
+    private Money amount = Money.ZERO;
 
     private String type; // "CREDIT" | "DEBIT"
     private String message; // must exist for setMessage calls
     private String status = "Completed"; // Default to Completed
     private java.time.LocalDateTime timestamp = java.time.LocalDateTime.now();
 
-    @ManyToOne
+    private String counterparty; // other side of the movement (name / UPI ID / bank)
+
+    // Spending category assigned at write time (see SpendingCategories)
+    @Column(length = 32)
+    private String category;
+
+    // "<journal id>:<position>" when the row was written through a local history journal (see HistoryJournal)
+    @Column(name = "journal_key", length = 64)
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private String journalKey;
+
+    // bank_transfers.id behind a bank transfer debit; settlement finds the Pending row by it
+    @Column(name = "bank_transfer_id")
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private Long bankTransferId;
+
+    // Accepted on input, never serialized: reads go through TransactionView
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Wallet wallet;
 }
@@ -1,11 +1,15 @@
 
 package com.paythm.paythm_api.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Data
+// Exact-identifier lookups (RecipientDirectory misses) stay index seeks
+@Table(indexes = { @Index(name = "idx_user_email", columnList = "email"),
+        @Index(name = "idx_user_phone", columnList = "phone") })
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,7 +21,9 @@ public class User {
     private String email;
     private String phone;
 
+    // Hashes are accepted on signup but never serialized back out
     @Column(name = "password_hash")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Column(name = "created_at")
@@ -33,6 +39,7 @@ public class User {
     private String paythmId;
 
     @Column(name = "pin")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String pin;
 
     private String role;
@@ -13,10 +13,27 @@ public class Wallet {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    // using double for simplicity — you can switch to BigDecimal later
-    private double balance;
+    // Paise (BIGINT) via MoneyConverter
+    private Money balance = Money.ZERO;
 
-    @OneToOne
+    // Reserved by authorized holds; spendable = balance - held (see WalletHold)
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Money held = Money.ZERO;
+
+    // Bumped by every balance UPDATE; orders cached balances (see BalanceCache)
+    @Column(name = "balance_version")
+    private long balanceVersion;
+
+    // Number of outgoing payments (DEBITs), drives reward milestones
+    @Column(name = "payment_count")
+    private long paymentCount;
+
+    // 0 = plain wallet; N > 0 = credits spread over N wallet_shards slots (see HotWalletShards)
+    @Column(name = "shard_count")
+    private int shardCount;
+
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", unique = true)
+    @com.fasterxml.jackson.annotation.JsonIgnore
     private User user;
 }
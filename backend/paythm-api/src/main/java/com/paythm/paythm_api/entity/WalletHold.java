@@ -0,0 +1,52 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Authorized but not yet captured payment; its amount is part of the wallet's 'held'
+@Entity
+@Getter
+@Setter
+@Table(name = "wallet_holds", indexes = {
+        @Index(name = "idx_hold_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_hold_wallet", columnList = "wallet_id") })
+public class WalletHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String type; // UPI | BANK
+
+    private String payee; // UPI ID, or account number for BANK
+
+    private String ifsc; // BANK only
+
+    @Column(name = "beneficiary_name")
+    private String beneficiaryName; // BANK only
+
+    private Money amount = Money.ZERO; // reserved
+
+    @Column(name = "captured_amount")
+    private Money capturedAmount = Money.ZERO;
+
+    private String status = "AUTHORIZED"; // AUTHORIZED | CAPTURED | RELEASED | EXPIRED
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+// One credit slot of a sharded (hot) wallet; the wallet's balance is its own row plus every slot
+@Entity
+@Getter
+@Setter
+@Table(name = "wallet_shards", uniqueConstraints = @UniqueConstraint(name = "uk_wallet_shard_slot", columnNames = {
+        "wallet_id", "slot" }))
+public class WalletShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    private int slot;
+
+    // Paise (BIGINT) via MoneyConverter
+    private Money balance = Money.ZERO;
+}
@@ -0,0 +1,48 @@
+package com.paythm.paythm_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Running totals over a wallet's history rows; a wallet's stats are the sum of its slots (see WalletStatsService)
+@Entity
+@Getter
+@Setter
+@Table(name = "wallet_stats", uniqueConstraints = @UniqueConstraint(name = "uk_wallet_stats_slot", columnNames = {
+        "wallet_id", "slot" }))
+public class WalletStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    private int slot;
+
+    // Paise (BIGINT) via MoneyConverter
+    @Column(name = "total_spent")
+    private Money totalSpent = Money.ZERO;
+
+    @Column(name = "total_received")
+    private Money totalReceived = Money.ZERO;
+
+    @Column(name = "debit_count")
+    private long debitCount;
+
+    @Column(name = "tx_count")
+    private long txCount;
+
+    // Rows stamped between midnight and 5 AM
+    @Column(name = "late_night_count")
+    private long lateNightCount;
+
+    @Column(name = "first_tx_at")
+    private LocalDateTime firstTxAt;
+
+    @Column(name = "last_tx_at")
+    private LocalDateTime lastTxAt;
+}
@@ -3,11 +3,27 @@ package com.paythm.paythm_api.repository;
 import com.paythm.paythm_api.entity.BankAccount;
 import com.paythm.paythm_api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
-// imp removed
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
     List<BankAccount> findByUser(User user);
 
     List<BankAccount> findByUserAndIsPrimaryTrue(User user);
+
+    // Mock bank side of SimulatedBankConnector: guarded, no read-modify-write
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update bank_accounts set balance = balance - :paise where id = :id and balance >= :paise",
+            nativeQuery = true)
+    int debitIfSufficient(@Param("id") Long id, @Param("paise") long paise);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update bank_accounts set balance = balance + :paise where id = :id", nativeQuery = true)
+    int credit(@Param("id") Long id, @Param("paise") long paise);
+
+    @Query(value = "select balance from bank_accounts where id = :id", nativeQuery = true)
+    Long findBalancePaise(@Param("id") Long id);
 }
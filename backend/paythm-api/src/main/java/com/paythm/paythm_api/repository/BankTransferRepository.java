@@ -0,0 +1,27 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.BankTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface BankTransferRepository extends JpaRepository<BankTransfer, Long> {
+
+    long countByStatus(String status);
+
+    @Query("select min(t.createdAt) from BankTransfer t where t.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    // Id of the limit-th oldest pending transfer (or the newest if there are fewer)
+    @Query(value = "select max(id) from (select id from bank_transfers where status = 'PENDING' "
+            + "order by id limit :limit) t", nativeQuery = true)
+    Long findBatchCutoffId(@Param("limit") int limit);
+
+    @Modifying
+    @Query("update BankTransfer t set t.status = 'BATCHED', t.batchId = :batchId, t.updatedAt = :now "
+            + "where t.status = 'PENDING' and t.id <= :cutoff")
+    int claimPending(@Param("batchId") Long batchId, @Param("cutoff") Long cutoff, @Param("now") LocalDateTime now);
+}
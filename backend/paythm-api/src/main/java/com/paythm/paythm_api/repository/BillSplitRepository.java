@@ -2,8 +2,15 @@ package com.paythm.paythm_api.repository;
 
 import com.paythm.paythm_api.entity.BillSplit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface BillSplitRepository extends JpaRepository<BillSplit, Long> {
     List<BillSplit> findByUserId(Long userId);
+
+    // Splits still waiting on friends (status is free text, compared case-insensitively)
+    @Query("select count(b) from BillSplit b where b.user.id = :userId and upper(b.status) in ('OPEN', 'PENDING')")
+    long countOpenByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,18 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.CategoryOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryOverrideRepository extends JpaRepository<CategoryOverride, Long> {
+
+    List<CategoryOverride> findByWalletIdOrderByCounterpartyKey(Long walletId);
+
+    Optional<CategoryOverride> findByWalletIdAndCounterpartyKey(Long walletId, String counterpartyKey);
+
+    @Query("select distinct o.walletId from CategoryOverride o")
+    List<Long> findWalletIds();
+}
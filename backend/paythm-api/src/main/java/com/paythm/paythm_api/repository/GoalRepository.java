@@ -2,8 +2,18 @@ package com.paythm.paythm_api.repository;
 
 import com.paythm.paythm_api.entity.Goal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     List<Goal> findByUserId(Long userId);
+
+    // Single conditional UPDATE: concurrent contributions add up instead of overwriting each other
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update goals set current_amount = current_amount + :paise "
+            + "where id = :goalId and user_id = :userId", nativeQuery = true)
+    int addToCurrentAmount(@Param("goalId") Long goalId, @Param("userId") Long userId, @Param("paise") long paise);
 }
@@ -0,0 +1,32 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.dto.LedgerLine;
+import com.paythm.paythm_api.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Deltas after a snapshot, in paise; a range scan on (account, id)
+    @Query(value = "select coalesce(sum(amount), 0) from ledger_entries where account = :account and id > :afterId",
+            nativeQuery = true)
+    long sumAfter(@Param("account") String account, @Param("afterId") long afterId);
+
+    @Query(value = "select coalesce(sum(amount), 0) from ledger_entries "
+            + "where account = :account and id > :afterId and posted_at < :before", nativeQuery = true)
+    long sumAfterBefore(@Param("account") String account, @Param("afterId") long afterId,
+            @Param("before") LocalDateTime before);
+
+    @Query("select new com.paythm.paythm_api.dto.LedgerLine(e.id, p.id, p.kind, p.memo, e.amount, e.postedAt) "
+            + "from LedgerEntry e join LedgerPosting p on p.id = e.postingId "
+            + "where e.account = :account and e.postedAt >= :from and e.postedAt < :to order by e.id")
+    List<LedgerLine> findLines(@Param("account") String account, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query(value = "select max(id) from ledger_entries where posted_at < :before", nativeQuery = true)
+    Long findMaxIdBefore(@Param("before") LocalDateTime before);
+}
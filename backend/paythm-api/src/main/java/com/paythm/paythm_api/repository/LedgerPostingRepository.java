@@ -0,0 +1,20 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    boolean existsByKind(String kind);
+
+    boolean existsByReference(String reference);
+
+    // The subset of the given postings that committed
+    @Query("select p.id from LedgerPosting p where p.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+}
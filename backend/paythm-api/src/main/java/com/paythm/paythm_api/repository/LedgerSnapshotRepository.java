@@ -0,0 +1,30 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.LedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+
+    Optional<LedgerSnapshot> findFirstByAccountOrderByLastEntryIdDesc(String account);
+
+    Optional<LedgerSnapshot> findFirstByAccountAndAsOfLessThanEqualOrderByLastEntryIdDesc(String account,
+            LocalDateTime at);
+
+    @Query("select coalesce(max(s.lastEntryId), 0) from LedgerSnapshot s")
+    long findWatermark();
+
+    // One snapshot round: previous balance + entries in (fromId, toId] for every account touched in that range
+    @Modifying
+    @Query(value = "insert into ledger_snapshots (account, last_entry_id, balance, as_of) "
+            + "select d.account, :toId, d.delta + coalesce((select s.balance from ledger_snapshots s "
+            + "where s.account = d.account order by s.last_entry_id desc limit 1), 0), :asOf "
+            + "from (select account, sum(amount) as delta from ledger_entries "
+            + "where id > :fromId and id <= :toId group by account) d", nativeQuery = true)
+    int insertRound(@Param("fromId") long fromId, @Param("toId") long toId, @Param("asOf") LocalDateTime asOf);
+}
@@ -0,0 +1,50 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Row-locks a batch of due events; other dispatchers skip them instead of waiting
+    @Query(value = "select * from outbox_events where status = 'PENDING' and next_attempt_at <= :now "
+            + "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = 'PROCESSING', e.claimedAt = :now where e.id in :ids")
+    int markProcessing(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = 'DONE', e.processedAt = :now, e.attempts = e.attempts + 1 "
+            + "where e.id = :id and e.status = 'PROCESSING' and e.claimedAt = :claimedAt")
+    int markDone(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("now") LocalDateTime now);
+
+    // Both only touch the event while our claim holds; 0 rows means the lease expired and someone else owns it
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :next, "
+            + "e.lastError = :error where e.id = :id and e.status = 'PROCESSING' and e.claimedAt = :claimedAt")
+    int markFailed(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("status") String status,
+            @Param("next") LocalDateTime next, @Param("error") String error);
+
+    // Restarts the lease of a claim we still hold
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedAt = :now "
+            + "where e.id = :id and e.status = 'PROCESSING' and e.claimedAt = :claimedAt")
+    int renewClaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("now") LocalDateTime now);
+
+    // Events left PROCESSING by a crashed dispatcher go back to the queue
+    @Modifying
+    @Query("update OutboxEvent e set e.status = 'PENDING' where e.status = 'PROCESSING' and e.claimedAt < :before")
+    int releaseExpiredClaims(@Param("before") LocalDateTime before);
+
+    long countByStatus(String status);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+}
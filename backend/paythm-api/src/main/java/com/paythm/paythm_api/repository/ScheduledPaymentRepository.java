@@ -0,0 +1,21 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.ScheduledPayment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayment, Long> {
+
+    List<ScheduledPayment> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Serializes executions of one schedule across threads and app instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ScheduledPayment s where s.id = :id")
+    Optional<ScheduledPayment> findByIdForUpdate(@Param("id") Long id);
+}
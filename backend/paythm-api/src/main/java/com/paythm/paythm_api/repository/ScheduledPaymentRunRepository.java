@@ -0,0 +1,13 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.ScheduledPaymentRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ScheduledPaymentRunRepository extends JpaRepository<ScheduledPaymentRun, Long> {
+
+    boolean existsByExecutionKey(String executionKey);
+
+    List<ScheduledPaymentRun> findTop50ByScheduleIdOrderByDueAtDesc(Long scheduleId);
+}
@@ -0,0 +1,45 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.SettlementBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SettlementBatchRepository extends JpaRepository<SettlementBatch, Long> {
+
+    // New batches, and batches whose submitter vanished before recording the outcome
+    @Query("select b from SettlementBatch b where b.status = 'CREATED' "
+            + "or (b.status = 'SUBMITTING' and b.claimedAt < :staleBefore) order by b.id")
+    List<SettlementBatch> findSubmittable(@Param("staleBefore") LocalDateTime staleBefore);
+
+    // Only one instance wins; the others see 0 rows and leave the batch alone
+    @Modifying
+    @Query("update SettlementBatch b set b.status = 'SUBMITTING', b.claimedAt = :now where b.id = :id "
+            + "and (b.status = 'CREATED' or (b.status = 'SUBMITTING' and b.claimedAt < :staleBefore))")
+    int claimForSubmit(@Param("id") Long id, @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("update SettlementBatch b set b.status = 'SUBMITTED', b.connectorRef = :ref, b.submittedAt = :now, "
+            + "b.attempts = b.attempts + 1 where b.id = :id and b.status = 'SUBMITTING' and b.claimedAt = :claimedAt")
+    int markSubmitted(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("ref") String ref,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update SettlementBatch b set b.status = 'CREATED', b.lastError = :error, b.attempts = b.attempts + 1 "
+            + "where b.id = :id and b.status = 'SUBMITTING' and b.claimedAt = :claimedAt")
+    int releaseClaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt,
+            @Param("error") String error);
+
+    // Batches whose every transfer has a final status; answers can beat the submitter's own bookkeeping
+    @Modifying
+    @Query("update SettlementBatch b set b.status = 'COMPLETED', b.completedAt = :now where b.id in :ids "
+            + "and b.status in ('SUBMITTING', 'SUBMITTED') and not exists "
+            + "(select 1 from BankTransfer t where t.batchId = b.id and t.status = 'BATCHED')")
+    int completeFinished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
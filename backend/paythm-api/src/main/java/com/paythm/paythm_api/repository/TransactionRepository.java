@@ -1,11 +1,17 @@
 package com.paythm.paythm_api.repository;
 
+import com.paythm.paythm_api.dto.AdminTransactionView;
+import com.paythm.paythm_api.dto.TransactionView;
+import com.paythm.paythm_api.entity.Money;
 import com.paythm.paythm_api.entity.Transaction;
 import com.paythm.paythm_api.entity.Wallet;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -13,15 +19,46 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // find all transactions for a wallet
     List<Transaction> findByWallet(Wallet wallet);
 
+    // Which of a batch of journal records are already rows (HistoryJournal replays after a restart)
+    @Query("select t.journalKey from Transaction t where t.journalKey in :keys")
+    List<String> findJournalKeysIn(@Param("keys") Collection<String> keys);
+
     // find all transactions for user id (through wallet.user.id)
     @Query("select t from Transaction t where t.wallet.user.id = :userId")
     List<Transaction> findByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.wallet.user.id = :userId AND t.type = 'DEBIT'")
-    Double calculateTotalSpent(@Param("userId") Long userId);
+    // Lean read models: one query, no Wallet/User hydration
+    @Query("select new com.paythm.paythm_api.dto.TransactionView(t.id, t.amount, t.type, t.message, t.status, "
+            + "t.timestamp, t.counterparty) from Transaction t where t.wallet.id = :walletId")
+    List<TransactionView> findViewsByWalletId(@Param("walletId") Long walletId);
+
+    @Query("select new com.paythm.paythm_api.dto.TransactionView(t.id, t.amount, t.type, t.message, t.status, "
+            + "t.timestamp, t.counterparty) from Transaction t where t.wallet.user.id = :userId")
+    List<TransactionView> findViewsByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.wallet.user.id = :userId AND t.type = 'CREDIT'")
-    Double calculateTotalReceived(@Param("userId") Long userId);
+    @Query("select new com.paythm.paythm_api.dto.AdminTransactionView(t.id, t.amount, t.type, t.message, t.status, "
+            + "t.timestamp, t.counterparty, u.id, u.fullName) from Transaction t join t.wallet w join w.user u")
+    List<AdminTransactionView> findAllAdminViews();
 
-    long countByWalletUserIdAndType(Long userId, String type);
+    // Keyset page ordered by (timestamp, id) desc; a null filter/cursor means "not set"
+    @Query("select new com.paythm.paythm_api.dto.TransactionView(t.id, t.amount, t.type, t.message, t.status, "
+            + "t.timestamp, t.counterparty) from Transaction t where t.wallet.id = :walletId "
+            + "and (:type is null or t.type = :type) "
+            + "and (:status is null or t.status = :status) "
+            + "and (:minAmount is null or t.amount >= :minAmount) "
+            + "and (:maxAmount is null or t.amount <= :maxAmount) "
+            + "and (:from is null or t.timestamp >= :from) "
+            + "and (:to is null or t.timestamp < :to) "
+            + "and (:cursorTs is null or t.timestamp < :cursorTs or (t.timestamp = :cursorTs and t.id < :cursorId)) "
+            + "order by t.timestamp desc, t.id desc")
+    List<TransactionView> findHistoryPage(@Param("walletId") Long walletId,
+            @Param("type") String type,
+            @Param("status") String status,
+            @Param("minAmount") Money minAmount,
+            @Param("maxAmount") Money maxAmount,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("cursorTs") LocalDateTime cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 }
@@ -15,4 +15,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     java.util.List<User> findByPhone(String phone);
 
     java.util.Optional<User> findByPaythmId(String paythmId);
+
+    // Keys for RecipientDirectory: [id, paythmId, phone, email]
+    @org.springframework.data.jpa.repository.Query("select u.id, u.paythmId, u.phone, u.email from User u")
+    java.util.List<Object[]> findDirectoryEntries();
+
+    // Directory rows of every user matching any of the exact identifier forms, in one round trip. A union
+    // rather than one OR so every branch stays a seek on its own index
+    @org.springframework.data.jpa.repository.Query("select u.id, u.paythmId, u.phone, u.email from User u where u.paythmId in :paythmIds "
+            + "union select u.id, u.paythmId, u.phone, u.email from User u where u.phone in :phones "
+            + "union select u.id, u.paythmId, u.phone, u.email from User u where u.email = :email "
+            + "union select u.id, u.paythmId, u.phone, u.email from User u where u.id = :id")
+    java.util.List<Object[]> findDirectoryEntriesMatching(
+            @org.springframework.data.repository.query.Param("paythmIds") java.util.Collection<String> paythmIds,
+            @org.springframework.data.repository.query.Param("phones") java.util.Collection<String> phones,
+            @org.springframework.data.repository.query.Param("email") String email,
+            @org.springframework.data.repository.query.Param("id") Long id);
+
+    // Keys for UserSearchIndex: [id, fullName, phone, paythmId]
+    @org.springframework.data.jpa.repository.Query("select u.id, u.fullName, u.phone, u.paythmId from User u")
+    java.util.List<Object[]> findSearchEntries();
 }
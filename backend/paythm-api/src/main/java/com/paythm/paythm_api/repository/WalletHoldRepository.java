@@ -0,0 +1,21 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.WalletHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletHoldRepository extends JpaRepository<WalletHold, Long> {
+
+    List<WalletHold> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Capture, release and expiry of one hold never interleave
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from WalletHold h where h.id = :id")
+    Optional<WalletHold> findByIdForUpdate(@Param("id") Long id);
+}
@@ -1,11 +1,83 @@
 package com.paythm.paythm_api.repository;
 
+import com.paythm.paythm_api.dto.WalletBalance;
 import com.paythm.paythm_api.entity.User;
 import com.paythm.paythm_api.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
     Wallet findByUser(User user);
 
     java.util.Optional<Wallet> findByUserId(Long userId);
+
+    @Query("select w.id from Wallet w where w.user.id = :userId")
+    java.util.Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Query("select w.user.id from Wallet w where w.id = :walletId")
+    java.util.Optional<Long> findUserIdById(@Param("walletId") Long walletId);
+
+    @Query("select w.user.id from Wallet w where w.id in :walletIds")
+    java.util.List<Long> findUserIdsByIdIn(@Param("walletIds") java.util.Collection<Long> walletIds);
+
+    // [userId, walletId] pairs for a batch of users
+    @Query("select w.user.id, w.id from Wallet w where w.user.id in :userIds")
+    java.util.List<Object[]> findIdsByUserIdIn(@Param("userIds") java.util.Collection<Long> userIds);
+
+    // Atomic balance updates used by TransferEngine (no read-modify-write).
+    // Native so the arithmetic runs on the raw paise column behind MoneyConverter.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set balance = balance - :paise, balance_version = balance_version + 1 "
+            + "where id = :walletId and balance - held >= :paise", nativeQuery = true)
+    int debitIfSufficient(@Param("walletId") Long walletId, @Param("paise") long paise);
+
+    // Holds: reserve, capture (debit + unreserve) and release, each one conditional UPDATE
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set held = held + :paise where id = :walletId and balance - held >= :paise",
+            nativeQuery = true)
+    int holdIfAvailable(@Param("walletId") Long walletId, @Param("paise") long paise);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set balance = balance - :capture, held = held - :held, "
+            + "balance_version = balance_version + 1 where id = :walletId and held >= :held", nativeQuery = true)
+    int captureHeld(@Param("walletId") Long walletId, @Param("capture") long capture, @Param("held") long held);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set held = held - :paise where id = :walletId and held >= :paise",
+            nativeQuery = true)
+    int releaseHeld(@Param("walletId") Long walletId, @Param("paise") long paise);
+
+    @Query(value = "select held from wallet where id = :walletId", nativeQuery = true)
+    long findHeldPaise(@Param("walletId") Long walletId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set balance = balance + :paise, balance_version = balance_version + 1 "
+            + "where id = :walletId", nativeQuery = true)
+    int credit(@Param("walletId") Long walletId, @Param("paise") long paise);
+
+    // Balance snapshots for BalanceCache (single projection query, no entity hydration)
+    @Query("select new com.paythm.paythm_api.dto.WalletBalance(w.id, w.user.id, w.balance, w.balanceVersion, "
+            + "w.shardCount) from Wallet w where w.user.id = :userId")
+    java.util.Optional<WalletBalance> findBalanceByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.paythm.paythm_api.dto.WalletBalance(w.id, w.user.id, w.balance, w.balanceVersion, "
+            + "w.shardCount) from Wallet w where w.id in :walletIds")
+    java.util.List<WalletBalance> findBalancesByIdIn(@Param("walletIds") java.util.Collection<Long> walletIds);
+
+    // [walletId, shardCount] of every sharded wallet
+    @Query("select w.id, w.shardCount from Wallet w where w.shardCount > 0")
+    java.util.List<Object[]> findShardCounts();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet set shard_count = :shards where id = :walletId", nativeQuery = true)
+    int updateShardCount(@Param("walletId") Long walletId, @Param("shards") int shards);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Wallet w set w.paymentCount = w.paymentCount + :count where w.id = :walletId")
+    int incrementPaymentCount(@Param("walletId") Long walletId, @Param("count") long count);
+
+    @Query("select w.paymentCount from Wallet w where w.id = :walletId")
+    long findPaymentCount(@Param("walletId") Long walletId);
 }
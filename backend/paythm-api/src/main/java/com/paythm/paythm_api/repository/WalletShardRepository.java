@@ -0,0 +1,36 @@
+package com.paythm.paythm_api.repository;
+
+import com.paythm.paythm_api.entity.WalletShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface WalletShardRepository extends JpaRepository<WalletShard, Long> {
+
+    // Row lock on a single slot only; 0 if the wallet is no longer sharded
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet_shards set balance = balance + :paise "
+            + "where wallet_id = :walletId and slot = :slot", nativeQuery = true)
+    int credit(@Param("walletId") Long walletId, @Param("slot") int slot, @Param("paise") long paise);
+
+    // Locks every slot of the wallet (slot order) until the transaction ends
+    @Query(value = "select balance from wallet_shards where wallet_id = :walletId order by slot for update",
+            nativeQuery = true)
+    List<Long> lockBalances(@Param("walletId") Long walletId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update wallet_shards set balance = 0 where wallet_id = :walletId", nativeQuery = true)
+    int clear(@Param("walletId") Long walletId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "delete from wallet_shards where wallet_id = :walletId", nativeQuery = true)
+    int deleteByWallet(@Param("walletId") Long walletId);
+
+    // Wallet row + slots in one statement, so the read is a single consistent snapshot
+    @Query(value = "select w.balance + coalesce((select sum(s.balance) from wallet_shards s "
+            + "where s.wallet_id = w.id), 0) from wallet w where w.id = :walletId", nativeQuery = true)
+    long aggregateBalance(@Param("walletId") Long walletId);
+}
@@ -0,0 +1,140 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.WalletBalance;
+import com.paythm.paythm_api.entity.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of wallet balances keyed by user id.
+ *
+ * Writers publish the post-update balance and wallet balance_version after
+ * commit; an entry is only replaced by a strictly newer version, so a slow
+ * reader that loaded an old row can never overwrite a fresher value.
+ * Sharded wallets are never cached: their slot credits do not bump the
+ * wallet's version.
+ *
+ * Other app instances move money without telling this one, so an entry is
+ * only served for ttl-ms after it was last confirmed against the row; after
+ * that the next read goes to the database. When full, the oldest entries
+ * are evicted first.
+ */
+@Service
+public class BalanceCache {
+
+    // storedAt: System.nanoTime() when the value was last read from or written to the row
+    private record Entry(long paise, long version, long storedAt) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BalanceCache(@Value("${paythm.balance-cache.max-entries:100000}") int maxEntries,
+            @Value("${paythm.balance-cache.ttl-ms:5000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    // Cached balance, or null on a miss
+    public Money get(Long userId) {
+        Entry e = entries.get(userId);
+        if (e != null && expired(e, System.nanoTime())) {
+            entries.remove(userId, e);
+            expirations.increment();
+            e = null;
+        }
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return Money.ofPaise(e.paise());
+    }
+
+    public void put(WalletBalance b) {
+        if (b == null || b.userId() == null)
+            return;
+        if (b.shards() > 0) {
+            entries.remove(b.userId());
+            return;
+        }
+        long now = System.nanoTime();
+        entries.compute(b.userId(), (k, old) -> {
+            if (old != null && old.version() > b.version())
+                return old;
+            // Same version: the row still agrees, so the entry is fresh again
+            if (old == null || old.version() < b.version())
+                updates.increment();
+            return new Entry(b.balance().paise(), b.version(), now);
+        });
+        if (entries.size() > maxEntries)
+            evict();
+    }
+
+    // Publish a balance read inside a transaction once it has committed
+    public void putAfterCommit(WalletBalance b) {
+        AfterCommit.run(() -> put(b));
+    }
+
+    public void invalidateAfterCommit(Long userId) {
+        AfterCommit.run(() -> entries.remove(userId));
+    }
+
+    private boolean expired(Entry e, long now) {
+        return now - e.storedAt() > ttlNanos;
+    }
+
+    // Expired entries go first; if that is not enough, the ~1% confirmed longest ago
+    private synchronized void evict() {
+        if (entries.size() <= maxEntries)
+            return;
+        long now = System.nanoTime();
+        int toRemove = Math.max(1, maxEntries / 100);
+        // Keeps the toRemove oldest seen so far; its head is the youngest of them
+        PriorityQueue<Map.Entry<Long, Entry>> oldest = new PriorityQueue<>(toRemove + 1,
+                (a, b) -> Long.compare(b.getValue().storedAt(), a.getValue().storedAt()));
+        for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+            if (expired(e.getValue(), now)) {
+                if (entries.remove(e.getKey(), e.getValue()))
+                    expirations.increment();
+                continue;
+            }
+            oldest.add(Map.entry(e.getKey(), e.getValue()));
+            if (oldest.size() > toRemove)
+                oldest.poll();
+        }
+        for (Map.Entry<Long, Entry> e : oldest) {
+            if (entries.remove(e.getKey(), e.getValue()))
+                evictions.increment();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("size", entries.size());
+        out.put("maxEntries", maxEntries);
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        out.put("updates", updates.sum());
+        out.put("evictions", evictions.sum());
+        out.put("expirations", expirations.sum());
+        out.put("ttlMs", ttlNanos / 1_000_000L);
+        return out;
+    }
+}
@@ -0,0 +1,29 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pulls money from a user's linked bank account for add-money. Calls are
+ * asynchronous: the future completes when the bank answers, and no thread
+ * or database connection is held while it is outstanding.
+ */
+public interface BankConnector {
+
+    // 'key' identifies the request at the bank; reusing it never debits twice
+    record Debit(String key, Long bankAccountId, Money amount) {
+    }
+
+    // Declines (e.g. insufficient funds) complete normally with approved = false
+    record Result(boolean approved, String reference, String message) {
+    }
+
+    String name();
+
+    // Completes exceptionally on transport errors; callers apply their own timeout
+    CompletableFuture<Result> debit(Debit debit);
+
+    // Undoes 'key' if the bank applied it (after a timeout or a failed wallet credit)
+    CompletableFuture<Void> reverse(String key);
+}
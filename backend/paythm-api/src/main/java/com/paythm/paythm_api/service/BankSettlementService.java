@@ -0,0 +1,504 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.BankTransfer;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.SettlementBatch;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.repository.BankTransferRepository;
+import com.paythm.paythm_api.repository.SettlementBatchRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settles bank transfers in batches instead of one call per payment.
+ *
+ * sendMoneyViaBank debits the wallet into the settlement clearing account
+ * and leaves a PENDING bank_transfers row; the API returns right away. A
+ * background loop cuts a batch once max-batch-size transfers are waiting
+ * or the oldest has waited batch-window-ms, writes it as a fixed-width NEFT
+ * file ({@link NeftBatchFile}) and hands it to the
+ * {@link SettlementConnector}. The bank's answers are polled
+ * asynchronously: settled transfers move from clearing to the bank-transfer
+ * account with one posting per response chunk, returned ones are refunded
+ * to their wallets the way bulk payouts credit: one batched UPDATE in
+ * wallet-id order and one posting per chunk, without taking TransferEngine
+ * stripes for the length of the chunk. The history row goes from Pending
+ * to Completed or Failed, found by its bank_transfer_id.
+ *
+ * With the history journal on, that row may not be in MySQL yet when the
+ * bank answers. Transfers whose row matched nothing are retried every
+ * round until history-reconcile-ms has passed; after that, and after a
+ * restart, a periodic sweep joins recently resolved transfers to rows
+ * still Pending and sets them from the transfer's status.
+ *
+ * Claiming, file writing and submission are separate steps. An instance
+ * submits a batch only after moving it CREATED -> SUBMITTING with a
+ * conditional UPDATE, so two instances never submit the same batch at
+ * once. A batch left SUBMITTING longer than submit-lease-ms (its submitter
+ * crashed) is claimed and submitted again; connectors are idempotent on
+ * the batch file name, so a batch the bank already has is not paid twice.
+ * Responses only move BATCHED transfers, so a redelivered return file
+ * changes nothing.
+ */
+@Service
+public class BankSettlementService {
+
+    private static final String BATCH_ROWS_SQL = "select id, ifsc, account_number, beneficiary_name, amount "
+            + "from bank_transfers where batch_id = ? order by id";
+    private static final String BATCH_TOTALS_SQL = "select count(*), coalesce(sum(amount), 0) "
+            + "from bank_transfers where batch_id = ?";
+    private static final String RESOLVE_SQL = "update bank_transfers set status = ?, failure_reason = ?, "
+            + "updated_at = ? where id = ? and status = 'BATCHED'";
+    private static final String CREDIT_WALLET_SQL = "update wallet set balance = balance + ?, "
+            + "balance_version = balance_version + 1 where id = ?";
+    private static final String HISTORY_STATUS_SQL = "update transaction set status = ? "
+            + "where bank_transfer_id = ? and status = 'Pending'";
+    private static final String STALE_HISTORY_SQL = "select b.id, b.status from bank_transfers b "
+            + "join transaction t on t.bank_transfer_id = b.id "
+            + "where b.status in ('SETTLED', 'RETURNED') and b.created_at >= ? and t.status = 'Pending'";
+    // How far back the sweep looks; transfers settle within days, not weeks
+    private static final long HISTORY_RECONCILE_DAYS = 7;
+
+    // A resolved transfer whose Pending history row was not found yet
+    private record UnmatchedHistory(String status, long sinceMillis) {
+    }
+
+    private final BankTransferRepository transferRepo;
+    private final SettlementBatchRepository batchRepo;
+    private final WalletRepository walletRepo;
+    private final SettlementConnector connector;
+    private final TransferEngine transferEngine;
+    private final HotWalletShards hotWallets;
+    private final LedgerService ledger;
+    private final HistoryJournal historyJournal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+
+    private final int maxBatchSize;
+    private final long batchWindowMs;
+    private final long pollIntervalMs;
+    private final int responseChunkSize;
+    private final long submitLeaseMs;
+    private final long historyReconcileMs;
+    private final Path workDir;
+
+    private final Semaphore wake = new Semaphore(0);
+    private final AtomicLong pendingHint = new AtomicLong();
+    private volatile boolean running;
+    private final Map<Long, UnmatchedHistory> unmatchedHistory = new ConcurrentHashMap<>();
+    private volatile long lastHistorySweep;
+
+    private final LongAdder batchesSubmitted = new LongAdder();
+    private final LongAdder transfersBatched = new LongAdder();
+    private final LongAdder settled = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder submitFailures = new LongAdder();
+    private final LongAdder historyReconciled = new LongAdder();
+    private volatile int lastBatchSize;
+    private volatile long lastFileBytes;
+    private volatile long lastWriteMillis;
+
+    public BankSettlementService(BankTransferRepository transferRepo, SettlementBatchRepository batchRepo,
+            WalletRepository walletRepo, SettlementConnector connector, TransferEngine transferEngine,
+            HotWalletShards hotWallets, LedgerService ledger, HistoryJournal historyJournal, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager txManager, ApplicationEventPublisher events,
+            @Value("${paythm.settlement.max-batch-size:20000}") int maxBatchSize,
+            @Value("${paythm.settlement.batch-window-ms:30000}") long batchWindowMs,
+            @Value("${paythm.settlement.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${paythm.settlement.response-chunk-size:1000}") int responseChunkSize,
+            @Value("${paythm.settlement.submit-lease-ms:300000}") long submitLeaseMs,
+            @Value("${paythm.settlement.history-reconcile-ms:60000}") long historyReconcileMs,
+            @Value("${paythm.settlement.work-dir:./data/settlement/work}") String workDir) {
+        this.transferRepo = transferRepo;
+        this.batchRepo = batchRepo;
+        this.walletRepo = walletRepo;
+        this.connector = connector;
+        this.transferEngine = transferEngine;
+        this.hotWallets = hotWallets;
+        this.ledger = ledger;
+        this.historyJournal = historyJournal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.events = events;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMs = batchWindowMs;
+        this.pollIntervalMs = pollIntervalMs;
+        this.responseChunkSize = responseChunkSize;
+        this.submitLeaseMs = submitLeaseMs;
+        this.historyReconcileMs = historyReconcileMs;
+        this.workDir = Path.of(workDir);
+    }
+
+    // -------------------------------
+    // ENQUEUE (payment path)
+    // -------------------------------
+    // Call inside the debit's transaction; the transfer is only batched once that commits
+    public BankTransfer enqueue(Long walletId, String accountNumber, String ifsc, String beneficiaryName,
+            Money amount) {
+        BankTransfer t = new BankTransfer();
+        t.setWalletId(walletId);
+        t.setAccountNumber(accountNumber);
+        t.setIfsc(ifsc == null ? null : ifsc.trim().toUpperCase(Locale.ROOT));
+        t.setBeneficiaryName(beneficiaryName);
+        t.setAmount(amount);
+        BankTransfer saved = transferRepo.save(t);
+        AfterCommit.run(() -> {
+            if (pendingHint.incrementAndGet() >= maxBatchSize)
+                wake.release();
+        });
+        return saved;
+    }
+
+    public static String reference(Long transferId) {
+        return String.format("PTB%013d", transferId);
+    }
+
+    private static Long transferId(String reference) {
+        return reference.startsWith("PTB") ? Long.valueOf(reference.substring(3)) : null;
+    }
+
+    // History message of the debit
+    public static String memo(BankTransfer t) {
+        return "Bank transfer to " + t.getBeneficiaryName() + " (Acc: " + t.getAccountNumber() + ", Ref: "
+                + reference(t.getId()) + ")";
+    }
+
+    // -------------------------------
+    // BACKGROUND LOOP
+    // -------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws Exception {
+        Files.createDirectories(workDir);
+        pendingHint.set(transferRepo.countByStatus("PENDING"));
+        running = true;
+        Thread.ofVirtual().name("bank-settlement").start(this::loop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        wake.release();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                wake.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wake.drainPermits();
+                runOnce();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Bank settlement round failed: " + e.getMessage());
+            }
+        }
+    }
+
+    void runOnce() throws Exception {
+        while (batchDue()) {
+            if (cutBatch() == null)
+                break;
+        }
+        for (SettlementBatch batch : batchRepo.findSubmittable(staleClaimsBefore()))
+            submit(batch);
+        connector.poll(this::applyResponses);
+        reconcileHistory();
+    }
+
+    private boolean batchDue() {
+        if (pendingHint.get() >= maxBatchSize)
+            return true;
+        LocalDateTime oldest = transferRepo.findOldestPendingCreatedAt();
+        return oldest != null && oldest.isBefore(LocalDateTime.now().minusNanos(batchWindowMs * 1_000_000));
+    }
+
+    // -------------------------------
+    // BATCHING
+    // -------------------------------
+    // Claims up to max-batch-size of the oldest pending transfers into a new CREATED batch
+    SettlementBatch cutBatch() {
+        SettlementBatch batch = tx.execute(status -> {
+            Long cutoff = transferRepo.findBatchCutoffId(maxBatchSize);
+            if (cutoff == null)
+                return null;
+            SettlementBatch b = batchRepo.save(new SettlementBatch());
+            int claimed = transferRepo.claimPending(b.getId(), cutoff, LocalDateTime.now());
+            if (claimed == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            long[] totals = jdbcTemplate.queryForObject(BATCH_TOTALS_SQL,
+                    (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) }, b.getId());
+            b.setItemCount((int) totals[0]);
+            b.setTotalAmount(Money.ofPaise(totals[1]));
+            b.setFileName("NEFT_" + String.format("%012d", b.getId()) + ".txt");
+            return batchRepo.save(b);
+        });
+        pendingHint.set(transferRepo.countByStatus("PENDING"));
+        if (batch != null) {
+            transfersBatched.add(batch.getItemCount());
+            lastBatchSize = batch.getItemCount();
+        }
+        return batch;
+    }
+
+    private LocalDateTime staleClaimsBefore() {
+        return LocalDateTime.now().minusNanos(submitLeaseMs * 1_000_000);
+    }
+
+    private void submit(SettlementBatch batch) {
+        // Whole seconds so the stamp compares equal whatever precision the column keeps
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Integer claimed = tx.execute(status -> batchRepo.claimForSubmit(batch.getId(), claimedAt,
+                staleClaimsBefore()));
+        if (claimed == null || claimed == 0)
+            return; // another instance has it
+        try {
+            Path file = workDir.resolve(batch.getFileName());
+            long start = System.currentTimeMillis();
+            writeFile(batch, file);
+            lastWriteMillis = System.currentTimeMillis() - start;
+            String ack = connector.submit(batch, file);
+            tx.executeWithoutResult(status -> batchRepo.markSubmitted(batch.getId(), claimedAt, ack,
+                    LocalDateTime.now()));
+            batchesSubmitted.increment();
+            System.out.println("✔ Submitted settlement batch " + batch.getId() + " (" + batch.getItemCount()
+                    + " transfers, " + batch.getTotalAmount() + ") via " + connector.name());
+        } catch (Exception e) {
+            submitFailures.increment();
+            String error = e.getMessage() == null ? e.toString() : e.getMessage();
+            // Back to CREATED: retried next round, by whichever instance claims it first
+            tx.executeWithoutResult(status -> batchRepo.releaseClaim(batch.getId(), claimedAt,
+                    error.length() > 1000 ? error.substring(0, 1000) : error));
+        }
+    }
+
+    private void writeFile(SettlementBatch batch, Path file) throws Exception {
+        try (NeftBatchFile out = NeftBatchFile.create(file)) {
+            out.header(batch.getId(), batch.getCreatedAt(), batch.getItemCount(), batch.getTotalAmount().paise());
+            Exception[] failure = new Exception[1];
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(BATCH_ROWS_SQL);
+                ps.setFetchSize(1000);
+                ps.setLong(1, batch.getId());
+                return ps;
+            }, rs -> {
+                if (failure[0] != null)
+                    return;
+                try {
+                    out.detail(new NeftBatchFile.Detail(reference(rs.getLong(1)), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getLong(5)));
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null)
+                throw failure[0];
+            out.trailer();
+            lastFileBytes = out.bytesWritten();
+        }
+    }
+
+    // -------------------------------
+    // RESPONSES
+    // -------------------------------
+    void applyResponses(List<NeftBatchFile.Response> responses) {
+        for (int from = 0; from < responses.size(); from += responseChunkSize)
+            applyChunk(responses.subList(from, Math.min(responses.size(), from + responseChunkSize)));
+    }
+
+    private void applyChunk(List<NeftBatchFile.Response> chunk) {
+        tx.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NeftBatchFile.Response> known = new ArrayList<>(chunk.size());
+            List<Object[]> args = new ArrayList<>(chunk.size());
+            for (NeftBatchFile.Response r : chunk) {
+                Long id = transferId(r.reference());
+                if (id == null)
+                    continue;
+                known.add(r);
+                args.add(new Object[] { r.settled() ? "SETTLED" : "RETURNED",
+                        r.settled() ? null : r.reason(), now, id });
+            }
+            int[] updated = jdbcTemplate.batchUpdate(RESOLVE_SQL, args);
+
+            // Only transfers this chunk actually moved out of BATCHED
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] > 0)
+                    ids.add((Long) args.get(i)[3]);
+            }
+            if (ids.isEmpty())
+                return;
+
+            Money settledTotal = Money.ZERO;
+            int settledCount = 0;
+            Set<Long> batchIds = new HashSet<>();
+            List<BankTransfer> returns = new ArrayList<>();
+            List<Object[]> history = new ArrayList<>(ids.size());
+            for (BankTransfer t : transferRepo.findAllById(ids)) {
+                batchIds.add(t.getBatchId());
+                if ("SETTLED".equals(t.getStatus())) {
+                    settledTotal = settledTotal.plus(t.getAmount());
+                    settledCount++;
+                    history.add(new Object[] { "Completed", t.getId() });
+                } else {
+                    returns.add(t);
+                    history.add(new Object[] { "Failed", t.getId() });
+                }
+            }
+            if (settledTotal.isPositive())
+                ledger.transfer("BANK_SETTLEMENT", "Settled " + settledCount + " bank transfers",
+                        LedgerService.BANK_SETTLEMENT, LedgerService.BANK_TRANSFER, settledTotal);
+            if (!returns.isEmpty())
+                refundAll(returns);
+            int[] matched = jdbcTemplate.batchUpdate(HISTORY_STATUS_SQL, history);
+            batchRepo.completeFinished(batchIds, now);
+
+            // Rows still in the history journal: retried by reconcileHistory
+            Map<Long, UnmatchedHistory> unmatched = new HashMap<>();
+            for (int i = 0; i < matched.length; i++) {
+                if (matched[i] == 0)
+                    unmatched.put((Long) history.get(i)[1],
+                            new UnmatchedHistory((String) history.get(i)[0], System.currentTimeMillis()));
+            }
+            int settledNow = settledCount;
+            int returnedNow = ids.size() - settledCount;
+            AfterCommit.run(() -> {
+                settled.add(settledNow);
+                returned.add(returnedNow);
+                unmatchedHistory.putAll(unmatched);
+            });
+        });
+    }
+
+    // -------------------------------
+    // HISTORY RECONCILIATION
+    // -------------------------------
+    // Retries rows that matched nothing; the sweep covers what was dropped from the retry set or lost in a restart
+    void reconcileHistory() {
+        long now = System.currentTimeMillis();
+        if (!unmatchedHistory.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(unmatchedHistory.size());
+            for (Map.Entry<Long, UnmatchedHistory> e : unmatchedHistory.entrySet()) {
+                if (now - e.getValue().sinceMillis() > historyReconcileMs)
+                    unmatchedHistory.remove(e.getKey()); // left to the sweep
+                else
+                    args.add(new Object[] { e.getValue().status(), e.getKey() });
+            }
+            setHistoryStatus(args, true);
+        }
+        if (now - lastHistorySweep < historyReconcileMs)
+            return;
+        lastHistorySweep = now;
+        List<Object[]> stale = jdbcTemplate.query(STALE_HISTORY_SQL,
+                (rs, i) -> new Object[] { "SETTLED".equals(rs.getString(2)) ? "Completed" : "Failed", rs.getLong(1) },
+                LocalDateTime.now().minusDays(HISTORY_RECONCILE_DAYS));
+        setHistoryStatus(stale, false);
+    }
+
+    private void setHistoryStatus(List<Object[]> args, boolean retry) {
+        if (args.isEmpty())
+            return;
+        int[] matched = tx.execute(status -> jdbcTemplate.batchUpdate(HISTORY_STATUS_SQL, args));
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i] == 0)
+                continue;
+            historyReconciled.increment();
+            if (retry)
+                unmatchedHistory.remove((Long) args.get(i)[1]);
+        }
+    }
+
+    // Returned transfers go back to their wallets, sorted by wallet id like bulk payout credits
+    private void refundAll(List<BankTransfer> returns) {
+        returns.sort(Comparator.comparing(BankTransfer::getWalletId));
+        List<BankTransfer> rowCredits = new ArrayList<>(returns.size());
+        for (BankTransfer t : returns) {
+            if (!hotWallets.credit(t.getWalletId(), null, t.getAmount().paise()))
+                rowCredits.add(t);
+        }
+        jdbcTemplate.batchUpdate(CREDIT_WALLET_SQL, rowCredits, responseChunkSize, (ps, t) -> {
+            ps.setLong(1, t.getAmount().paise());
+            ps.setLong(2, t.getWalletId());
+        });
+        Set<Long> creditedWallets = new HashSet<>();
+        for (BankTransfer t : rowCredits)
+            creditedWallets.add(t.getWalletId());
+        transferEngine.publishBalances(creditedWallets);
+
+        Money total = Money.ZERO;
+        List<LedgerService.Leg> legs = new ArrayList<>(returns.size() + 1);
+        for (BankTransfer t : returns) {
+            total = total.plus(t.getAmount());
+            legs.add(new LedgerService.Leg(LedgerService.wallet(t.getWalletId()), t.getAmount()));
+        }
+        legs.add(new LedgerService.Leg(LedgerService.BANK_SETTLEMENT, total.negate()));
+        Long postingId = ledger.post("BANK_RETURN", "Returned " + returns.size() + " bank transfers", legs);
+
+        for (BankTransfer t : returns) {
+            Transaction refund = new Transaction();
+            refund.setAmount(t.getAmount());
+            refund.setType("CREDIT");
+            refund.setMessage("Refund: bank transfer to " + t.getBeneficiaryName() + " returned ("
+                    + t.getFailureReason() + ")");
+            refund.setCounterparty(t.getBeneficiaryName());
+            refund.setWallet(walletRepo.getReferenceById(t.getWalletId()));
+            historyJournal.record(refund, postingId);
+        }
+        // The refunded users' cards show a balance and totals that just changed
+        Set<Long> walletIds = new HashSet<>();
+        for (BankTransfer t : returns)
+            walletIds.add(t.getWalletId());
+        for (Long userId : walletRepo.findUserIdsByIdIn(walletIds))
+            events.publishEvent(new InsightsCache.Changed(userId));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("connector", connector.name());
+        out.put("pending", pendingHint.get());
+        out.put("maxBatchSize", maxBatchSize);
+        out.put("batchWindowMs", batchWindowMs);
+        out.put("batchesSubmitted", batchesSubmitted.sum());
+        out.put("transfersBatched", transfersBatched.sum());
+        out.put("settled", settled.sum());
+        out.put("returned", returned.sum());
+        out.put("submitFailures", submitFailures.sum());
+        out.put("historyUnmatched", unmatchedHistory.size());
+        out.put("historyReconciled", historyReconciled.sum());
+        out.put("lastBatchSize", lastBatchSize);
+        out.put("lastFileBytes", lastFileBytes);
+        out.put("lastWriteMillis", lastWriteMillis);
+        return out;
+    }
+}
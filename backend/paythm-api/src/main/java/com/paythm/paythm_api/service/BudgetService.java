@@ -1,6 +1,7 @@
 package com.paythm.paythm_api.service;
 
 import com.paythm.paythm_api.entity.Budget;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -11,18 +12,22 @@ public class BudgetService {
 
     private final com.paythm.paythm_api.repository.BudgetRepository repo;
     private final com.paythm.paythm_api.repository.UserRepository userRepo;
+    private final ApplicationEventPublisher events;
 
     public BudgetService(com.paythm.paythm_api.repository.BudgetRepository repo,
-            com.paythm.paythm_api.repository.UserRepository userRepo) {
+            com.paythm.paythm_api.repository.UserRepository userRepo, ApplicationEventPublisher events) {
         this.repo = repo;
         this.userRepo = userRepo;
+        this.events = events;
     }
 
     public Budget addBudget(Budget budget, Long userId) {
         com.paythm.paythm_api.entity.User user = userRepo.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         budget.setUser(user);
-        return repo.save(budget);
+        Budget saved = repo.save(budget);
+        events.publishEvent(new InsightsCache.Changed(userId));
+        return saved;
     }
 
     public List<Budget> getBudgets(Long userId) {
@@ -0,0 +1,109 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.SettlementBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the bank's file gateway. Batch files are dropped into
+ * <drop-dir>/outgoing and return files are picked up from
+ * <drop-dir>/incoming (*.ret), then archived to incoming/processed.
+ *
+ * With auto-respond on it also plays the bank: after the response delay it
+ * writes a return file that settles every transfer except those with an
+ * IFSC that isn't well-formed, which are returned.
+ */
+@Service
+@ConditionalOnProperty(name = "paythm.settlement.connector", havingValue = "file-drop", matchIfMissing = true)
+public class FileDropSettlementConnector implements SettlementConnector {
+
+    private static final Pattern IFSC = Pattern.compile("[A-Z]{4}0[A-Z0-9]{6}");
+
+    private final Path outgoing;
+    private final Path incoming;
+    private final Path processed;
+    private final boolean autoRespond;
+    private final long responseDelayMs;
+
+    public FileDropSettlementConnector(
+            @Value("${paythm.settlement.drop-dir:./data/settlement/drop}") String dropDir,
+            @Value("${paythm.settlement.stub.auto-respond:true}") boolean autoRespond,
+            @Value("${paythm.settlement.stub.response-delay-ms:5000}") long responseDelayMs) throws IOException {
+        Path root = Path.of(dropDir);
+        this.outgoing = Files.createDirectories(root.resolve("outgoing"));
+        this.incoming = Files.createDirectories(root.resolve("incoming"));
+        this.processed = Files.createDirectories(incoming.resolve("processed"));
+        this.autoRespond = autoRespond;
+        this.responseDelayMs = responseDelayMs;
+    }
+
+    @Override
+    public String name() {
+        return "file-drop";
+    }
+
+    @Override
+    public String submit(SettlementBatch batch, Path file) throws IOException {
+        Path dropped = outgoing.resolve(file.getFileName());
+        // The file name identifies the batch: a resubmission is acknowledged again, not dropped again
+        if (Files.exists(dropped))
+            return "FD-" + batch.getId();
+        // Dropped under a temporary name so the bank side never picks up half a file
+        Path tmp = outgoing.resolve(file.getFileName() + ".tmp");
+        Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tmp, dropped, StandardCopyOption.ATOMIC_MOVE);
+        if (autoRespond)
+            Thread.ofVirtual().name("settlement-stub-bank").start(() -> respond(dropped));
+        return "FD-" + batch.getId();
+    }
+
+    private void respond(Path batchFile) {
+        try {
+            Thread.sleep(responseDelayMs);
+            List<NeftBatchFile.Response> responses = new ArrayList<>();
+            for (NeftBatchFile.Detail d : NeftBatchFile.readDetails(batchFile)) {
+                boolean ok = IFSC.matcher(d.ifsc()).matches();
+                responses.add(new NeftBatchFile.Response(d.reference(), ok, ok ? "" : "Invalid IFSC"));
+            }
+            // Written under a temporary name so poll() never sees half a file
+            String name = batchFile.getFileName().toString().replaceFirst("\\.txt$", "");
+            Path tmp = incoming.resolve(name + ".ret.tmp");
+            try (NeftBatchFile out = NeftBatchFile.create(tmp)) {
+                out.header(0, LocalDateTime.now(), responses.size(), 0);
+                for (NeftBatchFile.Response r : responses)
+                    out.response(r);
+                out.trailer();
+            }
+            Files.move(tmp, incoming.resolve(name + ".ret"), StandardCopyOption.ATOMIC_MOVE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Settlement stub could not answer " + batchFile + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int poll(ResponseHandler handler) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(incoming, "*.ret")) {
+            dir.forEach(files::add);
+        }
+        files.sort(null);
+        for (Path file : files) {
+            handler.accept(NeftBatchFile.readResponses(file));
+            Files.move(file, processed.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return files.size();
+    }
+}
@@ -1,6 +1,8 @@
 package com.paythm.paythm_api.service;
 
 import com.paythm.paythm_api.entity.Goal;
+import com.paythm.paythm_api.entity.Money;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,20 +13,32 @@ public class GoalService {
     private final com.paythm.paythm_api.repository.GoalRepository repo;
     private final com.paythm.paythm_api.repository.UserRepository userRepo;
     private final com.paythm.paythm_api.repository.WalletRepository walletRepo;
+    private final TransferEngine transferEngine;
+    private final LedgerService ledger;
+    private final HistoryJournal historyJournal;
+    private final ApplicationEventPublisher events;
 
     public GoalService(com.paythm.paythm_api.repository.GoalRepository repo,
             com.paythm.paythm_api.repository.UserRepository userRepo,
-            com.paythm.paythm_api.repository.WalletRepository walletRepo) {
+            com.paythm.paythm_api.repository.WalletRepository walletRepo,
+            TransferEngine transferEngine, LedgerService ledger, HistoryJournal historyJournal,
+            ApplicationEventPublisher events) {
         this.repo = repo;
         this.userRepo = userRepo;
         this.walletRepo = walletRepo;
+        this.transferEngine = transferEngine;
+        this.ledger = ledger;
+        this.historyJournal = historyJournal;
+        this.events = events;
     }
 
     public Goal addGoal(Goal goal, Long userId) {
         com.paythm.paythm_api.entity.User user = userRepo.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         goal.setUser(user);
-        return repo.save(goal);
+        Goal saved = repo.save(goal);
+        events.publishEvent(new InsightsCache.Changed(userId));
+        return saved;
     }
 
     public List<Goal> getGoals(Long userId) {
@@ -32,24 +46,34 @@ public class GoalService {
     }
 
     @org.springframework.transaction.annotation.Transactional
-    public Goal addMoneyToGoal(Long goalId, double amount) {
+    public Goal addMoneyToGoal(Long goalId, Money amount) {
         Goal goal = repo.findById(goalId)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
         com.paythm.paythm_api.entity.User user = goal.getUser();
-        com.paythm.paythm_api.entity.Wallet wallet = walletRepo.findByUserId(user.getId())
+        Long walletId = walletRepo.findIdByUserId(user.getId())
                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
 
-        if (wallet.getBalance() < amount) {
+        // Deduct from Wallet
+        if (!transferEngine.debit(walletId, amount)) {
             throw new RuntimeException("Insufficient wallet balance");
         }
 
-        // Deduct from Wallet
-        wallet.setBalance(wallet.getBalance() - amount);
-        walletRepo.save(wallet);
+        // Add to Goal (recorded in history and the ledger like any other movement)
+        if (repo.addToCurrentAmount(goal.getId(), user.getId(), amount.paise()) == 0)
+            throw new RuntimeException("Goal not found");
+        Long postingId = ledger.transfer("GOAL", "Saved to goal: " + goal.getName(), LedgerService.wallet(walletId),
+                LedgerService.goal(goal.getId()), amount);
 
-        // Add to Goal
-        goal.setCurrentAmount(goal.getCurrentAmount() + amount);
-        return repo.save(goal);
+        com.paythm.paythm_api.entity.Transaction tx = new com.paythm.paythm_api.entity.Transaction();
+        tx.setAmount(amount);
+        tx.setType("DEBIT");
+        tx.setMessage("Saved to goal: " + goal.getName());
+        tx.setCounterparty(goal.getName());
+        tx.setWallet(walletRepo.getReferenceById(walletId));
+        historyJournal.record(tx, postingId);
+        events.publishEvent(new InsightsCache.Changed(user.getId()));
+        // Re-read: the UPDATE cleared the persistence context and the amount includes concurrent contributions
+        return repo.findById(goalId).orElseThrow(() -> new RuntimeException("Goal not found"));
     }
 }
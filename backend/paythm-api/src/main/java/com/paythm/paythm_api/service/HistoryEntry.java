@@ -0,0 +1,7 @@
+package com.paythm.paythm_api.service;
+
+import java.time.LocalDateTime;
+
+// One history row as the bulk payout path writes it, for the aggregates kept next to the rows
+public record HistoryEntry(Long walletId, String type, String category, long paise, LocalDateTime at) {
+}
@@ -0,0 +1,373 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.repository.LedgerPostingRepository;
+import com.paythm.paythm_api.repository.TransactionRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes Transaction history rows, optionally through a local
+ * {@link TransactionJournal} instead of one INSERT per row.
+ *
+ * With paythm.journal.enabled=true a row is appended to the journal during
+ * the payment transaction and the commit waits (beforeCommit) until the
+ * journal is durable, sharing one fsync with every concurrent payment. A
+ * background applier then inserts rows into MySQL in batches, in journal
+ * order, and checkpoints the journal. Each row carries its ledger posting
+ * id: rows are only inserted if that posting committed, so a rolled-back or
+ * crashed payment never shows up in history.
+ *
+ * The aggregates kept next to the rows (monthly category spend, the
+ * wallet's running totals and its spend rollups) are written by the applier
+ * too, in the transaction that inserts the rows and folded into one upsert
+ * per wallet and bucket, so a payment's own transaction only appends to the
+ * journal. The row's category is still decided at payment time. Without
+ * the journal every write happens in the payment transaction.
+ *
+ * After a restart the applier simply resumes from the checkpoint. Records
+ * whose row already exists are skipped together with their aggregates; a
+ * row is keyed by journal_key, the journal's own id plus the record
+ * position, which stays unique across instances and across a wiped journal
+ * directory. History, stats and insights lag the commit by one applier
+ * round; the applier tells InsightsCache once the rows are in.
+ */
+@Service
+public class HistoryJournal {
+
+    private record Row(String key, long postingId, long walletId, long amountPaise, String type, String message,
+            String counterparty, String status, LocalDateTime timestamp, String category, Long bankTransferId) {
+    }
+
+    private static final String APPLY_SQL = "insert into transaction "
+            + "(amount, type, message, counterparty, status, timestamp, wallet_id, journal_key, category, "
+            + "bank_transfer_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final TransactionRepository txRepo;
+    private final LedgerPostingRepository postingRepo;
+    private final WalletRepository walletRepo;
+    private final ApplicationEventPublisher events;
+    private final WalletStatsService stats;
+    private final SpendingCategories categories;
+    private final SpendRollups rollups;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final TransactionJournal journal; // null when disabled
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    // Outcome of the payment transaction that wrote each record, keyed by record end position
+    private final Map<Long, Boolean> outcomes = new ConcurrentHashMap<>();
+    private final Semaphore wake = new Semaphore(0);
+    private final long recoveredUpTo;
+    private volatile boolean running;
+    private volatile Thread applier;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public HistoryJournal(TransactionRepository txRepo, LedgerPostingRepository postingRepo,
+            WalletRepository walletRepo, WalletStatsService stats, SpendingCategories categories,
+            SpendRollups rollups, JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+            ApplicationEventPublisher events,
+            @Value("${paythm.journal.enabled:false}") boolean enabled,
+            @Value("${paythm.journal.dir:./data/journal}") String dir,
+            @Value("${paythm.journal.segment-bytes:67108864}") int segmentBytes,
+            @Value("${paythm.journal.apply-batch-size:500}") int batchSize,
+            @Value("${paythm.journal.poll-interval-ms:200}") long pollIntervalMs) throws IOException {
+        this.txRepo = txRepo;
+        this.postingRepo = postingRepo;
+        this.walletRepo = walletRepo;
+        this.events = events;
+        this.stats = stats;
+        this.categories = categories;
+        this.rollups = rollups;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.journal = enabled ? new TransactionJournal(Path.of(dir), segmentBytes) : null;
+        // Records below this were written before the restart; their posting decides
+        this.recoveredUpTo = enabled ? journal.writtenPosition() : 0;
+    }
+
+    // -------------------------------
+    // WRITE PATH
+    // -------------------------------
+    // Call inside the payment transaction, after the ledger posting
+    public void record(Transaction t, Long postingId) {
+        if (journal == null) {
+            // Same transaction as the posting
+            categories.record(t);
+            stats.record(t);
+            rollups.record(t);
+            txRepo.save(t);
+            return;
+        }
+        // Only the category is decided now; the applier writes the aggregates with the row
+        if (t.getCategory() == null)
+            t.setCategory(categories.categorize(t.getWallet().getId(), t.getCounterparty(), t.getMessage()));
+        long end = journal.append(encode(t, postingId));
+        appended.increment();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            awaitDurable(end);
+            resolve(end, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                awaitDurable(end); // group commit: shared with every concurrent payment
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                resolve(end, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void awaitDurable(long end) {
+        try {
+            journal.awaitDurable(end);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write failed", e);
+        }
+    }
+
+    private void resolve(long end, boolean committed) {
+        outcomes.put(end, committed);
+        wake.release();
+    }
+
+    // -------------------------------
+    // APPLIER
+    // -------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (journal == null)
+            return;
+        running = true;
+        applier = Thread.ofVirtual().name("journal-applier").start(this::loop);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (journal == null)
+            return;
+        running = false;
+        wake.release();
+        if (applier != null)
+            applier.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                if (applyOnce() == 0) {
+                    wake.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wake.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Journal applier error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Applies the longest prefix of records whose transactions have finished
+    int applyOnce() throws IOException {
+        long from = journal.checkpoint();
+        List<TransactionJournal.Entry> entries = journal.read(from, batchSize);
+        List<Row> rows = new ArrayList<>(entries.size());
+        List<Long> resolved = new ArrayList<>(entries.size());
+        long upTo = from;
+        for (TransactionJournal.Entry e : entries) {
+            Boolean committed = e.next() <= recoveredUpTo ? Boolean.TRUE : outcomes.get(e.next());
+            if (committed == null)
+                break; // still in flight; keep journal order
+            if (committed)
+                rows.add(decode(journal.id() + ":" + e.position(), e.payload()));
+            else
+                discarded.increment();
+            resolved.add(e.next());
+            upTo = e.next();
+        }
+        if (upTo == from)
+            return 0;
+
+        if (!rows.isEmpty())
+            tx.executeWithoutResult(status -> apply(rows));
+        journal.checkpoint(upTo);
+        for (Long end : resolved)
+            outcomes.remove(end);
+        return resolved.size();
+    }
+
+    // Rows, aggregates and the insights notice in one transaction, so a replay finds all of them or none
+    private void apply(List<Row> rows) {
+        List<String> keys = new ArrayList<>(rows.size());
+        Set<Long> postingIds = new HashSet<>();
+        for (Row r : rows) {
+            keys.add(r.key());
+            postingIds.add(r.postingId());
+        }
+        Set<String> present = new HashSet<>(txRepo.findJournalKeysIn(keys));
+        Set<Long> posted = new HashSet<>(postingRepo.findIdsByIdIn(postingIds));
+
+        List<Row> fresh = new ArrayList<>(rows.size());
+        List<HistoryEntry> entries = new ArrayList<>(rows.size());
+        Set<Long> walletIds = new HashSet<>();
+        for (Row r : rows) {
+            if (!posted.contains(r.postingId())) {
+                discarded.increment(); // recovered record of a payment that never committed
+                continue;
+            }
+            applied.increment();
+            if (present.contains(r.key()))
+                continue;
+            fresh.add(r);
+            entries.add(new HistoryEntry(r.walletId(), r.type(), r.category(), r.amountPaise(), r.timestamp()));
+            walletIds.add(r.walletId());
+        }
+        if (fresh.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(APPLY_SQL, fresh, batchSize, (ps, r) -> {
+            ps.setLong(1, r.amountPaise());
+            ps.setString(2, r.type());
+            ps.setString(3, r.message());
+            ps.setString(4, r.counterparty());
+            ps.setString(5, r.status());
+            ps.setTimestamp(6, Timestamp.valueOf(r.timestamp()));
+            ps.setLong(7, r.walletId());
+            ps.setString(8, r.key());
+            ps.setString(9, r.category());
+            ps.setObject(10, r.bankTransferId(), Types.BIGINT);
+        });
+        categories.recordAll(entries, batchSize);
+        stats.recordAll(entries, batchSize);
+        rollups.recordAll(entries, batchSize);
+        for (Long userId : walletRepo.findUserIdsByIdIn(walletIds))
+            events.publishEvent(new InsightsCache.Changed(userId));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", journal != null);
+        if (journal == null)
+            return out;
+        out.put("appended", appended.sum());
+        out.put("applied", applied.sum());
+        out.put("discarded", discarded.sum());
+        out.put("fsyncs", journal.forceCount());
+        out.put("writtenPosition", journal.writtenPosition());
+        out.put("durablePosition", journal.durablePosition());
+        out.put("checkpoint", journal.checkpoint());
+        out.put("pendingOutcomes", outcomes.size());
+        return out;
+    }
+
+    // -------------------------------
+    // RECORD FORMAT
+    // -------------------------------
+    private static byte[] encode(Transaction t, Long postingId) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            LocalDateTime ts = t.getTimestamp() != null ? t.getTimestamp() : LocalDateTime.now();
+            out.writeLong(postingId);
+            out.writeLong(t.getWallet().getId());
+            out.writeLong(t.getAmount().paise());
+            writeNullable(out, t.getType());
+            writeNullable(out, t.getMessage());
+            writeNullable(out, t.getCounterparty());
+            writeNullable(out, t.getStatus());
+            out.writeLong(ts.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(ts.getNano());
+            writeNullable(out, t.getCategory());
+            out.writeBoolean(t.getBankTransferId() != null);
+            if (t.getBankTransferId() != null)
+                out.writeLong(t.getBankTransferId());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Row decode(String key, byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            long postingId = in.readLong();
+            long walletId = in.readLong();
+            long amount = in.readLong();
+            String type = readNullable(in);
+            String message = readNullable(in);
+            String counterparty = readNullable(in);
+            String status = readNullable(in);
+            LocalDateTime ts = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            String category = in.available() > 0 ? readNullable(in) : null; // absent in older records
+            Long bankTransferId = in.available() > 0 && in.readBoolean() ? in.readLong() : null; // likewise
+            return new Row(key, postingId, walletId, amount, type, message, counterparty, status, ts, category,
+                    bankTransferId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null)
+            out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.paythm.paythm_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expires wallet holds that were neither captured nor released in time.
+ *
+ * Each chunk walks the (status, expires_at) index from the oldest expired
+ * hold, skips rows another instance (or a capture) has locked, marks the
+ * chunk EXPIRED with one batched UPDATE and gives the reservations back
+ * with one UPDATE per wallet, in wallet-id order. A capture racing the
+ * sweeper either sees the hold still AUTHORIZED and wins the row lock, or
+ * sees it EXPIRED.
+ */
+@Service
+public class HoldExpirySweeper {
+
+    private static final String EXPIRED_SQL = "select id, wallet_id, amount from wallet_holds "
+            + "where status = 'AUTHORIZED' and expires_at <= ? order by expires_at limit ? for update skip locked";
+    private static final String MARK_SQL = "update wallet_holds set status = 'EXPIRED', updated_at = ? "
+            + "where id = ? and status = 'AUTHORIZED'";
+    private static final String RELEASE_SQL = "update wallet set held = held - ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder sweeps = new LongAdder();
+    private volatile long lastSweepMillis;
+
+    public HoldExpirySweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+            @Value("${paythm.holds.sweep-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${paythm.holds.sweep-interval-ms:30000}")
+    public void sweep() {
+        long start = System.currentTimeMillis();
+        int n;
+        do {
+            n = sweepChunk(LocalDateTime.now());
+        } while (n == chunkSize);
+        sweeps.increment();
+        lastSweepMillis = System.currentTimeMillis() - start;
+    }
+
+    // Number of holds expired
+    int sweepChunk(LocalDateTime now) {
+        Integer n = tx.execute(status -> {
+            Timestamp ts = Timestamp.valueOf(now);
+            List<Object[]> marks = new ArrayList<>();
+            Map<Long, Long> heldByWallet = new TreeMap<>();
+            jdbcTemplate.query(EXPIRED_SQL, rs -> {
+                marks.add(new Object[] { ts, rs.getLong(1) });
+                heldByWallet.merge(rs.getLong(2), rs.getLong(3), Long::sum);
+            }, ts, chunkSize);
+            if (marks.isEmpty())
+                return 0;
+            jdbcTemplate.batchUpdate(MARK_SQL, marks);
+            List<Object[]> releases = new ArrayList<>(heldByWallet.size());
+            heldByWallet.forEach((walletId, paise) -> releases.add(new Object[] { paise, walletId }));
+            jdbcTemplate.batchUpdate(RELEASE_SQL, releases);
+            return marks.size();
+        });
+        if (n != null && n > 0)
+            expired.add(n);
+        return n == null ? 0 : n;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("expired", expired.sum());
+        out.put("sweeps", sweeps.sum());
+        out.put("lastSweepMillis", lastSweepMillis);
+        return out;
+    }
+}
@@ -0,0 +1,181 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.WalletBalance;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.WalletShard;
+import com.paythm.paythm_api.repository.WalletRepository;
+import com.paythm.paythm_api.repository.WalletShardRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Credit slots for hot receiver wallets (merchants paid by thousands of
+ * users).
+ *
+ * A sharded wallet has N extra wallet_shards rows. Credits land on one slot,
+ * picked round-robin or by hashing the payer's wallet, so concurrent payers
+ * lock different rows instead of all queueing on the wallet row. The balance
+ * is the wallet row plus every slot; debits keep using the guarded wallet
+ * row and first drain the slots into it when the row alone is short.
+ *
+ * The in-memory registry of sharded wallets is only a routing hint: a credit
+ * routed to a slot that no longer exists updates nothing and falls back to
+ * the wallet row, and a wallet missing from the registry is simply credited
+ * on its row. Reads always go by the shard_count stored on the wallet.
+ */
+@Service
+public class HotWalletShards {
+
+    private final WalletRepository walletRepo;
+    private final WalletShardRepository shardRepo;
+    private final boolean hashByPayer;
+    private final int maxSlots;
+
+    private volatile Map<Long, Integer> slotsByWallet = Map.of();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final LongAdder slotCredits = new LongAdder();
+    private final LongAdder fallbackCredits = new LongAdder();
+    private final LongAdder consolidations = new LongAdder();
+
+    public HotWalletShards(WalletRepository walletRepo, WalletShardRepository shardRepo,
+            @Value("${paythm.sharding.strategy:round-robin}") String strategy,
+            @Value("${paythm.sharding.max-slots:64}") int maxSlots) {
+        this.walletRepo = walletRepo;
+        this.shardRepo = shardRepo;
+        this.hashByPayer = "hash".equalsIgnoreCase(strategy);
+        this.maxSlots = maxSlots;
+    }
+
+    // -------------------------------
+    // REGISTRY
+    // -------------------------------
+    // Picks up wallets (re)sharded by other app instances
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${paythm.sharding.refresh-ms:30000}",
+            initialDelayString = "${paythm.sharding.refresh-ms:30000}")
+    public void refresh() {
+        Map<Long, Integer> next = new HashMap<>();
+        for (Object[] row : walletRepo.findShardCounts())
+            next.put((Long) row[0], ((Number) row[1]).intValue());
+        slotsByWallet = Map.copyOf(next);
+    }
+
+    public int slotsOf(Long walletId) {
+        return slotsByWallet.getOrDefault(walletId, 0);
+    }
+
+    public int maxSlots() {
+        return maxSlots;
+    }
+
+    // Called by TransferEngine once a reshard has committed
+    void registered(Long walletId, int slots) {
+        Map<Long, Integer> next = new HashMap<>(slotsByWallet);
+        if (slots > 0)
+            next.put(walletId, slots);
+        else
+            next.remove(walletId);
+        slotsByWallet = Map.copyOf(next);
+    }
+
+    // -------------------------------
+    // CREDIT / CONSOLIDATE
+    // -------------------------------
+    // Credits one slot; false if the wallet is not sharded (caller credits the wallet row)
+    public boolean credit(Long walletId, Long payerWalletId, long paise) {
+        return creditSlot(walletId, payerWalletId, paise) >= 0;
+    }
+
+    // Same as credit, but returns the slot credited (for uncredit), or -1 if the wallet is not sharded
+    int creditSlot(Long walletId, Long payerWalletId, long paise) {
+        int slots = slotsOf(walletId);
+        if (slots == 0)
+            return -1;
+        int slot = slotFor(payerWalletId, slots);
+        if (shardRepo.credit(walletId, slot, paise) == 0) {
+            fallbackCredits.increment();
+            return -1;
+        }
+        slotCredits.increment();
+        return slot;
+    }
+
+    // Takes back a slot credit made earlier in the same transaction
+    void uncredit(Long walletId, int slot, long paise) {
+        if (shardRepo.credit(walletId, slot, -paise) == 0)
+            throw new IllegalStateException("Slot " + slot + " of wallet " + walletId + " disappeared");
+        slotCredits.decrement();
+    }
+
+    private int slotFor(Long payerWalletId, int slots) {
+        if (!hashByPayer)
+            return Math.floorMod(roundRobin.getAndIncrement(), slots);
+        if (payerWalletId == null)
+            return ThreadLocalRandom.current().nextInt(slots);
+        int h = Long.hashCode(payerWalletId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, slots);
+    }
+
+    /**
+     * Moves every slot balance onto the wallet row. The slots stay locked
+     * until the transaction ends; the caller must hold the wallet's stripe.
+     * Returns the paise moved.
+     */
+    long consolidate(Long walletId) {
+        long total = 0;
+        for (Long paise : shardRepo.lockBalances(walletId))
+            total = Math.addExact(total, paise);
+        if (total == 0)
+            return 0;
+        shardRepo.clear(walletId);
+        walletRepo.credit(walletId, total);
+        consolidations.increment();
+        return total;
+    }
+
+    // Drops the wallet's slots and creates 'slots' empty ones (after consolidate)
+    void replaceSlots(Long walletId, int slots) {
+        shardRepo.deleteByWallet(walletId);
+        List<WalletShard> rows = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            WalletShard shard = new WalletShard();
+            shard.setWalletId(walletId);
+            shard.setSlot(i);
+            rows.add(shard);
+        }
+        shardRepo.saveAll(rows);
+    }
+
+    // -------------------------------
+    // READS
+    // -------------------------------
+    // Wallet row + slots; plain wallets are returned as they are
+    public Money totalBalance(WalletBalance b) {
+        if (b.shards() == 0)
+            return b.balance();
+        return Money.ofPaise(shardRepo.aggregateBalance(b.walletId()));
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("strategy", hashByPayer ? "hash" : "round-robin");
+        out.put("shardedWallets", slotsByWallet);
+        out.put("slotCredits", slotCredits.sum());
+        out.put("fallbackCredits", fallbackCredits.sum());
+        out.put("consolidations", consolidations.sum());
+        return out;
+    }
+}
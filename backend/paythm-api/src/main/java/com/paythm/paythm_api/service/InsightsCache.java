@@ -0,0 +1,196 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.InsightsResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of insights cards keyed by user id.
+ *
+ * Services that change what a card shows (payments, rewards, bank refunds,
+ * goals, budgets, splits) publish {@link Changed}; after their commit the
+ * user's version is bumped. Every entry carries the version the card was
+ * computed at: an entry older than its user's version, or older than
+ * paythm.insights.cache.max-age-ms (changes nobody publishes, such as a new
+ * month), is stale. A partial card (some load was late or failed, see
+ * {@link InsightsService}) only stays fresh for
+ * paythm.insights.cache.partial-max-age-ms, so a moment of database
+ * pressure is not shown for the full max-age. A stale card is returned at
+ * once while one background recomputation per user runs; concurrent loads
+ * join that recomputation instead of starting their own, so a burst of
+ * dashboard loads never turns into a burst of insights queries. Only a
+ * user without any card waits.
+ */
+@Service
+public class InsightsCache {
+
+    // Published inside the changing transaction; handled after it commits
+    public record Changed(Long userId) {
+    }
+
+    private record Entry(InsightsResponse response, long version, long computedAt, boolean partial) {
+    }
+
+    private final InsightsService insights;
+    private final int maxEntries;
+    private final long maxAgeMs;
+    private final long partialMaxAgeMs;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Latest change per cached (or loading) user; stamps come from one clock
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CompletableFuture<InsightsResponse>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final ExecutorService recomputes = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleServes = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder recomputeCount = new LongAdder();
+    private final LongAdder recomputeFailures = new LongAdder();
+    private final LongAdder partialRecomputes = new LongAdder();
+    private final LongAdder recomputeNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long lastRecomputeMillis;
+
+    public InsightsCache(InsightsService insights,
+            @Value("${paythm.insights.cache.max-entries:50000}") int maxEntries,
+            @Value("${paythm.insights.cache.max-age-ms:600000}") long maxAgeMs,
+            @Value("${paythm.insights.cache.partial-max-age-ms:5000}") long partialMaxAgeMs) {
+        this.insights = insights;
+        this.maxEntries = maxEntries;
+        this.maxAgeMs = maxAgeMs;
+        this.partialMaxAgeMs = partialMaxAgeMs;
+    }
+
+    @PreDestroy
+    public void stop() {
+        recomputes.shutdown();
+    }
+
+    public InsightsResponse get(Long userId) {
+        Entry e = entries.get(userId);
+        if (e == null) {
+            misses.increment();
+            try {
+                return load(userId, null).join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException r ? r : ex;
+            }
+        }
+        if (fresh(userId, e)) {
+            hits.increment();
+            return e.response();
+        }
+        staleServes.increment();
+        load(userId, e);
+        return e.response();
+    }
+
+    private boolean fresh(Long userId, Entry e) {
+        return e.version() >= versions.getOrDefault(userId, 0L)
+                && System.currentTimeMillis() - e.computedAt() < (e.partial() ? partialMaxAgeMs : maxAgeMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(Changed event) {
+        Long userId = event.userId();
+        // A user with neither card nor load in progress has nothing to invalidate: the next load reads the commit
+        if (userId == null || (!entries.containsKey(userId) && !loading.containsKey(userId)))
+            return;
+        versions.put(userId, clock.incrementAndGet());
+        invalidations.increment();
+    }
+
+    // The user's recomputation in progress, or a new one unless a fresh card replaced 'seen' meanwhile
+    private CompletableFuture<InsightsResponse> load(Long userId, Entry seen) {
+        CompletableFuture<InsightsResponse> created = new CompletableFuture<>();
+        CompletableFuture<InsightsResponse> running = loading.putIfAbsent(userId, created);
+        if (running != null)
+            return running;
+        Entry current = entries.get(userId);
+        if (current != null && current != seen && fresh(userId, current)) {
+            loading.remove(userId, created);
+            created.complete(current.response());
+            return created;
+        }
+        // Taken before reading: a change committed from now on is newer than the card
+        long version = clock.get();
+        recomputes.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                InsightsResponse response = insights.generateInsights(userId);
+                if (response.isPartial())
+                    partialRecomputes.increment();
+                entries.merge(userId, new Entry(response, version, System.currentTimeMillis(), response.isPartial()),
+                        (old, next) -> old.version() > next.version() ? old : next);
+                if (entries.size() > maxEntries)
+                    evict();
+                loading.remove(userId, created);
+                created.complete(response);
+            } catch (Throwable t) {
+                recomputeFailures.increment();
+                loading.remove(userId, created);
+                created.completeExceptionally(t);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                recomputeCount.increment();
+                recomputeNanos.add(nanos);
+                lastRecomputeMillis = nanos / 1_000_000;
+            }
+        });
+        return created;
+    }
+
+    private void evict() {
+        // Drop ~1% of entries; hash order is effectively random
+        int toRemove = Math.max(1, maxEntries / 100);
+        Iterator<Long> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            Long userId = it.next();
+            it.remove();
+            if (!loading.containsKey(userId))
+                versions.remove(userId);
+            evictions.increment();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long h = hits.sum();
+        long s = staleServes.sum();
+        long m = misses.sum();
+        long n = recomputeCount.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("size", entries.size());
+        out.put("maxEntries", maxEntries);
+        out.put("maxAgeMs", maxAgeMs);
+        out.put("partialMaxAgeMs", partialMaxAgeMs);
+        out.put("hits", h);
+        out.put("staleServes", s);
+        out.put("misses", m);
+        out.put("hitRatio", h + s + m == 0 ? 0.0 : (double) (h + s) / (h + s + m));
+        out.put("invalidations", invalidations.sum());
+        out.put("recomputes", n);
+        out.put("recomputeFailures", recomputeFailures.sum());
+        out.put("partialRecomputes", partialRecomputes.sum());
+        out.put("recomputesInFlight", loading.size());
+        out.put("avgRecomputeMillis", n == 0 ? 0.0 : recomputeNanos.sum() / 1e6 / n);
+        out.put("lastRecomputeMillis", lastRecomputeMillis);
+        out.put("evictions", evictions.sum());
+        return out;
+    }
+}
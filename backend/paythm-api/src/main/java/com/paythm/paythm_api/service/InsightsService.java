@@ -1,129 +1,291 @@
 package com.paythm.paythm_api.service;
 
 import com.paythm.paythm_api.dto.InsightsResponse;
-import com.paythm.paythm_api.entity.BillSplit;
 import com.paythm.paythm_api.entity.Budget;
 import com.paythm.paythm_api.entity.Goal;
-import com.paythm.paythm_api.entity.Transaction;
-import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.entity.Money;
 import com.paythm.paythm_api.repository.*;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+/**
+ * Builds the insights card. The loads behind it (balance, history totals,
+ * this month's category spend, goals, budgets, open splits) are
+ * independent, so they start together on virtual threads and the response
+ * waits for the slowest one rather than their sum. Each load has its own
+ * timeout: a load that is late or fails leaves its section out of the
+ * suggestions instead of failing the card. Its fields stay null and the
+ * section is named in the response's unavailable list, so the dashboard
+ * never shows a missing total as zero.
+ *
+ * Every load holds a pooled connection and a timeout does not stop it, so
+ * at most paythm.insights.max-concurrent-cards cards load at once, each
+ * with all of its LOADS_PER_CARD loads; together they stay well below the
+ * Hikari pool size. A card takes its permit before any load starts and
+ * gives it back once every load has finished, late ones included. A card
+ * that cannot get a permit within the timeout loads nothing.
+ */
 @Service
 public class InsightsService {
 
-    private final TransactionRepository transactionRepository;
+    private final WalletService walletService;
+    private final WalletStatsService walletStats;
+    private final SpendingCategories categories;
     private final GoalRepository goalRepository;
     private final BudgetRepository budgetRepository;
     private final BillSplitRepository billSplitRepository;
-    private final WalletRepository walletRepository;
+    // Loads started by generateInsights; a card permit covers this many connections
+    private static final int LOADS_PER_CARD = 6;
 
-    public InsightsService(TransactionRepository transactionRepository,
+    private final long callTimeoutMs;
+    private final int maxConcurrentCards;
+    private final Semaphore cardPermits;
+
+    private final ExecutorService loads = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder cardsRefused = new LongAdder();
+
+    public InsightsService(WalletService walletService,
+            WalletStatsService walletStats,
+            SpendingCategories categories,
             GoalRepository goalRepository,
             BudgetRepository budgetRepository,
             BillSplitRepository billSplitRepository,
-            WalletRepository walletRepository) {
-        this.transactionRepository = transactionRepository;
+            @Value("${paythm.insights.call-timeout-ms:2000}") long callTimeoutMs,
+            @Value("${paythm.insights.max-concurrent-cards:2}") int maxConcurrentCards) {
+        this.walletService = walletService;
+        this.walletStats = walletStats;
+        this.categories = categories;
         this.goalRepository = goalRepository;
         this.budgetRepository = budgetRepository;
         this.billSplitRepository = billSplitRepository;
-        this.walletRepository = walletRepository;
+        this.callTimeoutMs = callTimeoutMs;
+        this.maxConcurrentCards = maxConcurrentCards;
+        this.cardPermits = new Semaphore(maxConcurrentCards);
     }
 
-    public InsightsResponse generateInsights(Long userId) {
-        InsightsResponse response = new InsightsResponse();
-
-        // 1. Basic Stats (Wallet / Transactions)
-        Double totalSpent = transactionRepository.calculateTotalSpent(userId);
-        Double totalReceived = transactionRepository.calculateTotalReceived(userId);
+    @PreDestroy
+    public void stop() {
+        loads.shutdown();
+    }
 
-        response.setTotalSpent(totalSpent != null ? totalSpent : 0.0);
-        response.setTotalReceived(totalReceived != null ? totalReceived : 0.0);
+    private static final Money LOW_BALANCE = Money.ofPaise(50_000); // ₹500
+    private static final Money HEALTHY_BALANCE = Money.ofPaise(5_000_000); // ₹50,000
 
-        List<String> suggestions = new ArrayList<>();
-        Optional<Wallet> walletOpt = walletRepository.findByUserId(userId);
-        double balance = walletOpt.map(Wallet::getBalance).orElse(0.0);
+    public InsightsResponse generateInsights(Long userId) {
+        requests.increment();
 
-        // --- WALLET INSIGHTS ---
-        if (balance < 500) {
-            suggestions.add("Your wallet balance is low (₹" + balance + "). Consider adding funds for emergencies.");
-        } else if (balance > 50000) {
-            suggestions.add("Healthy balance! Consider investing or adding to a Savings Goal.");
+        // Fan out: every load runs at once, each bounded by its own timeout
+        List<CompletableFuture<?>> started = new ArrayList<>(LOADS_PER_CARD);
+        boolean admitted = acquireCard();
+        CompletableFuture<Money> balanceLoad = load(admitted, started, "balance",
+                () -> walletService.getBalance(userId));
+        CompletableFuture<WalletStatsService.Stats> statsLoad = load(admitted, started, "stats",
+                () -> walletStats.statsOfUser(userId));
+        CompletableFuture<List<Goal>> goalsLoad = load(admitted, started, "goals",
+                () -> goalRepository.findByUserId(userId));
+        CompletableFuture<List<Budget>> budgetsLoad = load(admitted, started, "budgets",
+                () -> budgetRepository.findByUserId(userId));
+        CompletableFuture<Long> splitsLoad = load(admitted, started, "splits",
+                () -> billSplitRepository.countOpenByUserId(userId));
+        CompletableFuture<Map<String, Money>> categoryLoad = load(admitted, started, "categories",
+                () -> categories.monthlySpend(userId, YearMonth.now()));
+        if (admitted) {
+            // The permit outlives the timeouts: it comes back once the last connection does
+            CompletableFuture.allOf(started.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, e) -> cardPermits.release());
         }
 
-        // --- SPENDING INSIGHTS ---
-        List<Transaction> recentTransactions = transactionRepository.findByUserId(userId);
-        if (recentTransactions.isEmpty()) {
-            suggestions.add("Start using your wallet to unlock AI Spending Insights!");
+        InsightsResponse response = new InsightsResponse();
+        List<String> suggestions = new ArrayList<>();
+        List<String> unavailable = new ArrayList<>();
+
+        // 1. Basic Stats: running totals kept with every history row, no history scan
+        // (left null if the load was late: an unknown total is not a zero)
+        WalletStatsService.Stats stats = statsLoad.join();
+        if (stats != null) {
+            response.setTotalSpent(stats.totalSpent());
+            response.setTotalReceived(stats.totalReceived());
+            response.setFirstTransactionAt(stats.firstAt());
+            response.setLastTransactionAt(stats.lastAt());
         } else {
-            long debitCount = recentTransactions.stream().filter(t -> "DEBIT".equals(t.getType())).count();
-            if (debitCount > 10) {
-                suggestions.add("High Activity: You've made " + debitCount + " transactions recently.");
-            }
+            unavailable.add("stats");
+        }
 
-            // Late night check
-            boolean lateNight = recentTransactions.stream()
-                    .anyMatch(t -> t.getTimestamp() != null
-                            && (t.getTimestamp().getHour() > 23 || t.getTimestamp().getHour() < 5));
-            if (lateNight) {
-                suggestions
-                        .add("Late Night Owl: We noticed late-night transactions. Keep an eye on impulsive spending!");
+        // --- WALLET INSIGHTS ---
+        Money balance = balanceLoad.join();
+        if (balance == null)
+            unavailable.add("balance");
+        if (balance != null) {
+            if (balance.isLessThan(LOW_BALANCE)) {
+                suggestions.add("Your wallet balance is low (₹" + balance + "). Consider adding funds for emergencies.");
+            } else if (balance.isGreaterThan(HEALTHY_BALANCE)) {
+                suggestions.add("Healthy balance! Consider investing or adding to a Savings Goal.");
             }
         }
 
+        // --- SPENDING INSIGHTS ---
+        if (stats != null)
+            spendingInsights(stats, suggestions);
+
         // --- GOAL INSIGHTS ---
-        List<Goal> goals = goalRepository.findByUserId(userId);
-        if (goals.isEmpty()) {
-            suggestions.add("You have no active Savings Goals. Create one to save for your dreams!");
-        } else {
-            for (Goal goal : goals) {
-                double percentage = (goal.getCurrentAmount() / goal.getTargetAmount()) * 100;
-                if (percentage >= 100) {
-                    suggestions.add("Congratulations! You've achieved your goal: " + goal.getName() + " 🎉");
-                } else if (percentage > 80) {
-                    suggestions.add("Almost there! You are " + (int) percentage + "% towards " + goal.getName() + ".");
-                } else if (goal.getCurrentAmount() == 0) {
-                    suggestions.add("Start saving for " + goal.getName() + ". Even small amounts help!");
-                }
-            }
-            // Generic savings advice if multiple goals exist
-            if (goals.size() > 2) {
-                suggestions.add("You are juggling multiple financial goals. Great discipline!");
-            }
-        }
+        List<Goal> goals = goalsLoad.join();
+        if (goals != null)
+            goalInsights(goals, suggestions);
+        else
+            unavailable.add("goals");
 
         // --- BUDGET INSIGHTS ---
-        List<Budget> budgets = budgetRepository.findByUserId(userId);
-        if (budgets.isEmpty()) {
-            suggestions.add("No budgets set. Use the Budget Planner to track expenses better.");
-        } else {
-            for (Budget budget : budgets) {
-                if (budget.getSpentAmount() > budget.getLimitAmount()) {
-                    suggestions.add("🚨 Alert: You have exceeded your budget for " + budget.getCategory() + "!");
-                } else if (budget.getSpentAmount() > 0.85 * budget.getLimitAmount()) {
-                    suggestions.add("⚠️ Warning: You used over 85% of your " + budget.getCategory() + " budget.");
-                }
-            }
-        }
+        Map<String, Money> monthSpend = categoryLoad.join();
+        List<Budget> budgets = budgetsLoad.join();
+        if (budgets != null)
+            budgetInsights(budgets, monthSpend != null ? monthSpend : Map.of(), suggestions);
+        else
+            unavailable.add("budgets");
 
         // --- SPLIT BILL INSIGHTS ---
-        List<BillSplit> bills = billSplitRepository.findByUserId(userId);
-        long pendingBills = bills.stream()
-                .filter(b -> "OPEN".equalsIgnoreCase(b.getStatus()) || "PENDING".equalsIgnoreCase(b.getStatus()))
-                .count();
-        if (pendingBills > 0) {
+        Long pendingBills = splitsLoad.join();
+        if (pendingBills == null) {
+            unavailable.add("splits");
+        } else if (pendingBills > 0) {
             suggestions
                     .add("You have " + pendingBills + " active split bills. Check if friends have settled their dues.");
         }
 
         // Finalize Response
-        response.setTopSpendingCategory("General"); // Placeholder
+        if (monthSpend != null) {
+            response.setTopSpendingCategory(categories.topCategory(monthSpend));
+            response.setCategorySpend(monthSpend);
+        } else {
+            unavailable.add("categories");
+        }
         response.setAiSuggestions(suggestions);
+        response.setUnavailable(unavailable);
+        response.setPartial(!unavailable.isEmpty());
 
         return response;
     }
+
+    // Waits at most one call timeout; a refused card reports every section unavailable
+    private boolean acquireCard() {
+        try {
+            if (cardPermits.tryAcquire(callTimeoutMs, TimeUnit.MILLISECONDS))
+                return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cardsRefused.increment();
+        return false;
+    }
+
+    // Completes with null once the timeout passes or the load fails; 'started' gets the load itself
+    private <T> CompletableFuture<T> load(boolean admitted, List<CompletableFuture<?>> started, String name,
+            Supplier<T> supplier) {
+        if (!admitted)
+            return CompletableFuture.completedFuture(null);
+        CompletableFuture<T> running = CompletableFuture.supplyAsync(supplier, loads);
+        started.add(running);
+        // A copy times out, so the permit still waits for the load below
+        return running.copy()
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        timeouts.increment();
+                    } else {
+                        failures.increment();
+                        System.err.println("Insights " + name + " load failed: " + cause.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    private static void spendingInsights(WalletStatsService.Stats stats, List<String> suggestions) {
+        if (stats.transactionCount() == 0) {
+            suggestions.add("Start using your wallet to unlock AI Spending Insights!");
+            return;
+        }
+        if (stats.debitCount() > 10) {
+            suggestions.add("High Activity: You've made " + stats.debitCount() + " transactions recently.");
+        }
+
+        // Late night check
+        if (stats.lateNightCount() > 0) {
+            suggestions.add("Late Night Owl: We noticed late-night transactions. Keep an eye on impulsive spending!");
+        }
+    }
+
+    private static void goalInsights(List<Goal> goals, List<String> suggestions) {
+        if (goals.isEmpty()) {
+            suggestions.add("You have no active Savings Goals. Create one to save for your dreams!");
+            return;
+        }
+        for (Goal goal : goals) {
+            long target = goal.getTargetAmount().paise();
+            double percentage = target > 0 ? (goal.getCurrentAmount().paise() * 100.0) / target : 0;
+            if (percentage >= 100) {
+                suggestions.add("Congratulations! You've achieved your goal: " + goal.getName() + " 🎉");
+            } else if (percentage > 80) {
+                suggestions.add("Almost there! You are " + (int) percentage + "% towards " + goal.getName() + ".");
+            } else if (goal.getCurrentAmount().isZero()) {
+                suggestions.add("Start saving for " + goal.getName() + ". Even small amounts help!");
+            }
+        }
+        // Generic savings advice if multiple goals exist
+        if (goals.size() > 2) {
+            suggestions.add("You are juggling multiple financial goals. Great discipline!");
+        }
+    }
+
+    // A budget whose category is one we classify payments into is measured against this month's payments
+    private static void budgetInsights(List<Budget> budgets, Map<String, Money> monthSpend,
+            List<String> suggestions) {
+        if (budgets.isEmpty()) {
+            suggestions.add("No budgets set. Use the Budget Planner to track expenses better.");
+            return;
+        }
+        Map<String, Money> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byCategory.putAll(monthSpend);
+        for (Budget budget : budgets) {
+            Money classified = budget.getCategory() == null ? null : byCategory.get(budget.getCategory().trim());
+            long spent = (classified != null ? classified : budget.getSpentAmount()).paise();
+            long limit = budget.getLimitAmount().paise();
+            if (spent > limit) {
+                suggestions.add("🚨 Alert: You have exceeded your budget for " + budget.getCategory() + "!");
+            } else if (spent * 100 > limit * 85) {
+                suggestions.add("⚠️ Warning: You used over 85% of your " + budget.getCategory() + " budget.");
+            }
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("requests", requests.sum());
+        out.put("loadTimeouts", timeouts.sum());
+        out.put("loadFailures", failures.sum());
+        out.put("callTimeoutMs", callTimeoutMs);
+        out.put("cardsRefused", cardsRefused.sum());
+        out.put("maxConcurrentCards", maxConcurrentCards);
+        out.put("loadsPerCard", LOADS_PER_CARD);
+        out.put("cardsInFlight", maxConcurrentCards - cardPermits.availablePermits());
+        return out;
+    }
 }
@@ -0,0 +1,108 @@
+package com.paythm.paythm_api.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword set. Built once, then
+ * immutable and safe to share between threads.
+ *
+ * Matching is case-insensitive and takes one pass over the text, however
+ * many keywords there are. A keyword only counts as a whole word: the
+ * characters around it must not be letters or digits, so "ola" matches
+ * "Ola Cabs" and "ola@upi" but not "Motorola". When several keywords
+ * match, the longest wins ("uber eats" over "uber"), then the earliest.
+ */
+public class KeywordMatcher<V> {
+
+    private static final class Node {
+        final Map<Character, Node> next = new HashMap<>(4);
+        Node fail;
+        Node dict; // nearest node on the fail chain that ends a keyword
+        int keyword = -1;
+    }
+
+    private final Node root = new Node();
+    private final List<String> keywords = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+
+    public KeywordMatcher(Map<String, V> keywordValues) {
+        keywordValues.forEach((keyword, value) -> add(keyword.trim().toLowerCase(Locale.ROOT), value));
+        link();
+    }
+
+    private void add(String keyword, V value) {
+        if (keyword.isEmpty())
+            throw new IllegalArgumentException("Empty keyword");
+        Node n = root;
+        for (int i = 0; i < keyword.length(); i++)
+            n = n.next.computeIfAbsent(keyword.charAt(i), c -> new Node());
+        if (n.keyword < 0) {
+            n.keyword = keywords.size();
+            keywords.add(keyword);
+            values.add(value);
+        }
+    }
+
+    // Breadth-first, so every node's fail target is already linked
+    private void link() {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node n = queue.poll();
+            for (Map.Entry<Character, Node> e : n.next.entrySet()) {
+                Node child = e.getValue();
+                Node f = n.fail;
+                while (f != root && !f.next.containsKey(e.getKey()))
+                    f = f.fail;
+                Node target = f.next.get(e.getKey());
+                child.fail = target != null && target != child ? target : root;
+                child.dict = child.fail.keyword >= 0 ? child.fail : child.fail.dict;
+                queue.add(child);
+            }
+        }
+    }
+
+    // Value of the best whole-word keyword in 'text', or null
+    public V match(String text) {
+        if (text == null || text.isEmpty())
+            return null;
+        String s = text.toLowerCase(Locale.ROOT);
+        int best = -1;
+        int bestStart = 0;
+        Node n = root;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            while (n != root && !n.next.containsKey(c))
+                n = n.fail;
+            n = n.next.getOrDefault(c, root);
+            for (Node o = n.keyword >= 0 ? n : n.dict; o != null; o = o.dict) {
+                int len = keywords.get(o.keyword).length();
+                int start = i - len + 1;
+                if (!boundary(s, start - 1) || !boundary(s, i + 1))
+                    continue;
+                int bestLen = best < 0 ? 0 : keywords.get(best).length();
+                if (len > bestLen || (len == bestLen && start < bestStart)) {
+                    best = o.keyword;
+                    bestStart = start;
+                }
+            }
+        }
+        return best < 0 ? null : values.get(best);
+    }
+
+    private static boolean boundary(String s, int i) {
+        return i < 0 || i >= s.length() || !Character.isLetterOrDigit(s.charAt(i));
+    }
+
+    public int size() {
+        return keywords.size();
+    }
+}
@@ -0,0 +1,211 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.LedgerLine;
+import com.paythm.paythm_api.dto.LedgerStatement;
+import com.paythm.paythm_api.entity.LedgerPosting;
+import com.paythm.paythm_api.entity.LedgerSnapshot;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.repository.LedgerEntryRepository;
+import com.paythm.paythm_api.repository.LedgerPostingRepository;
+import com.paythm.paythm_api.repository.LedgerSnapshotRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only double-entry journal.
+ *
+ * Every money movement is one posting whose legs sum to zero; rows are only
+ * ever inserted, so posting never contends on a shared row. An account's
+ * balance is its latest snapshot plus the legs written after it, which makes
+ * current and point-in-time balances and statements range scans on
+ * (account, id) / (account, posted_at). Snapshots are taken in rounds by
+ * {@link #snapshot()} for entries older than a safety lag, so a slow
+ * transaction can never commit a leg below an existing snapshot.
+ *
+ * The guarded wallet.balance column stays as the overdraft check used by
+ * TransferEngine; the ledger is the record it can be reconciled against.
+ */
+@Service
+public class LedgerService {
+
+    public record Leg(String account, Money amount) {
+    }
+
+    // Contra accounts for money entering or leaving PayThm
+    public static final String UPI = "external:upi";
+    public static final String BANK_TRANSFER = "external:bank-transfer";
+    public static final String BANK_SETTLEMENT = "clearing:bank-settlement"; // sent to the bank, not yet settled
+    public static final String MOCK_BANK = "external:mock-bank";
+    public static final String REWARDS = "expense:rewards";
+    public static final String OPENING = "equity:opening";
+
+    private static final String INSERT_ENTRY_SQL = "insert into ledger_entries "
+            + "(posting_id, account, amount, posted_at) values (?, ?, ?, ?)";
+
+    private final LedgerPostingRepository postingRepo;
+    private final LedgerEntryRepository entryRepo;
+    private final LedgerSnapshotRepository snapshotRepo;
+    private final WalletRepository walletRepo;
+    private final HotWalletShards hotWallets;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long snapshotLagMs;
+
+    public LedgerService(LedgerPostingRepository postingRepo, LedgerEntryRepository entryRepo,
+            LedgerSnapshotRepository snapshotRepo, WalletRepository walletRepo, HotWalletShards hotWallets,
+            JdbcTemplate jdbcTemplate,
+            @Value("${paythm.ledger.jdbc-batch-size:1000}") int batchSize,
+            @Value("${paythm.ledger.snapshot-lag-ms:60000}") long snapshotLagMs) {
+        this.postingRepo = postingRepo;
+        this.entryRepo = entryRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.walletRepo = walletRepo;
+        this.hotWallets = hotWallets;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.snapshotLagMs = snapshotLagMs;
+    }
+
+    public static String wallet(Long walletId) {
+        return "wallet:" + walletId;
+    }
+
+    public String walletOf(Long userId) {
+        return wallet(walletRepo.findIdByUserId(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet not found")));
+    }
+
+    public static String bank(Long bankAccountId) {
+        return "bank:" + bankAccountId;
+    }
+
+    public static String goal(Long goalId) {
+        return "goal:" + goalId;
+    }
+
+    // -------------------------------
+    // POSTING
+    // -------------------------------
+    // Joins the caller's transaction, so the posting commits or rolls back with the balance change
+    @Transactional
+    public Long post(String kind, String memo, List<Leg> legs) {
+        return post(kind, null, memo, legs);
+    }
+
+    // A second posting with the same reference fails on the unique index and rolls the caller back
+    @Transactional
+    public Long post(String kind, String reference, String memo, List<Leg> legs) {
+        if (legs.size() < 2)
+            throw new IllegalArgumentException("A posting needs at least two legs");
+        Money sum = Money.ZERO;
+        for (Leg leg : legs)
+            sum = sum.plus(leg.amount());
+        if (!sum.isZero())
+            throw new IllegalArgumentException("Unbalanced posting (off by " + sum + ")");
+
+        LedgerPosting posting = new LedgerPosting();
+        posting.setKind(kind);
+        posting.setMemo(memo);
+        posting.setReference(reference);
+        posting = postingRepo.save(posting);
+
+        Long postingId = posting.getId();
+        Timestamp postedAt = Timestamp.valueOf(posting.getCreatedAt());
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, legs, batchSize, (ps, leg) -> {
+            ps.setLong(1, postingId);
+            ps.setString(2, leg.account());
+            ps.setLong(3, leg.amount().paise());
+            ps.setTimestamp(4, postedAt);
+        });
+        return postingId;
+    }
+
+    @Transactional
+    public Long transfer(String kind, String memo, String from, String to, Money amount) {
+        return transfer(kind, null, memo, from, to, amount);
+    }
+
+    @Transactional
+    public Long transfer(String kind, String reference, String memo, String from, String to, Money amount) {
+        return post(kind, reference, memo, List.of(new Leg(from, amount.negate()), new Leg(to, amount)));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean posted(String reference) {
+        return postingRepo.existsByReference(reference);
+    }
+
+    // -------------------------------
+    // BALANCES & STATEMENTS
+    // -------------------------------
+    @Transactional(readOnly = true)
+    public Money balance(String account) {
+        LedgerSnapshot snap = snapshotRepo.findFirstByAccountOrderByLastEntryIdDesc(account).orElse(null);
+        long base = snap == null ? 0 : snap.getBalance().paise();
+        long after = snap == null ? 0 : snap.getLastEntryId();
+        return Money.ofPaise(Math.addExact(base, entryRepo.sumAfter(account, after)));
+    }
+
+    // Balance including everything posted strictly before 'at'
+    @Transactional(readOnly = true)
+    public Money balanceAt(String account, LocalDateTime at) {
+        LedgerSnapshot snap = snapshotRepo.findFirstByAccountAndAsOfLessThanEqualOrderByLastEntryIdDesc(account, at)
+                .orElse(null);
+        long base = snap == null ? 0 : snap.getBalance().paise();
+        long after = snap == null ? 0 : snap.getLastEntryId();
+        return Money.ofPaise(Math.addExact(base, entryRepo.sumAfterBefore(account, after, at)));
+    }
+
+    @Transactional(readOnly = true)
+    public LedgerStatement statement(String account, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to))
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        Money opening = balanceAt(account, from);
+        List<LedgerLine> lines = entryRepo.findLines(account, from, to);
+        Money closing = opening;
+        for (LedgerLine line : lines)
+            closing = closing.plus(line.amount());
+        return new LedgerStatement(account, from, to, opening, closing, lines);
+    }
+
+    // Guarded wallet.balance column (plus hot-wallet slots) vs. the ledger-derived balance
+    @Transactional(readOnly = true)
+    public Map<String, Object> reconcile(Long userId) {
+        String account = walletOf(userId);
+        Money stored = walletRepo.findBalanceByUserId(userId).map(hotWallets::totalBalance).orElse(Money.ZERO);
+        Money derived = balance(account);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("account", account);
+        out.put("walletBalance", stored);
+        out.put("ledgerBalance", derived);
+        out.put("inSync", stored.equals(derived));
+        return out;
+    }
+
+    // -------------------------------
+    // SNAPSHOTS
+    // -------------------------------
+    @Scheduled(fixedDelayString = "${paythm.ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${paythm.ledger.snapshot-interval-ms:3600000}")
+    @Transactional
+    public int snapshot() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(snapshotLagMs * 1_000_000);
+        Long toId = entryRepo.findMaxIdBefore(cutoff);
+        long fromId = snapshotRepo.findWatermark();
+        if (toId == null || toId <= fromId)
+            return 0;
+        int accounts = snapshotRepo.insertRound(fromId, toId, cutoff);
+        System.out.println("✔ Ledger snapshot: " + accounts + " accounts up to entry " + toId);
+        return accounts;
+    }
+}
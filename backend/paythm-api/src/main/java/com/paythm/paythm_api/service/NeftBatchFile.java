@@ -0,0 +1,187 @@
+package com.paythm.paythm_api.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * NEFT-style fixed-width batch file: one header record, one detail record
+ * per transfer and a trailer with the count and total, each RECORD_LENGTH
+ * ASCII bytes plus a newline. Numbers are zero-padded on the left, text is
+ * upper-cased, space-padded on the right and cut to its field width.
+ *
+ * Records are encoded straight into a direct buffer that is written to the
+ * file channel whenever it fills, so a file of any size costs one 64 KB
+ * buffer. The bank's return file uses the same layout with one RESPONSE
+ * record per transfer.
+ */
+public final class NeftBatchFile implements Closeable {
+
+    public record Detail(String reference, String ifsc, String accountNumber, String beneficiaryName,
+            long amountPaise) {
+    }
+
+    // settled = credited to the beneficiary; otherwise returned with 'reason'
+    public record Response(String reference, boolean settled, String reason) {
+    }
+
+    public static final int RECORD_LENGTH = 120;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final byte[] record = new byte[RECORD_LENGTH + 1];
+    private int pos;
+    private long count;
+    private long totalPaise;
+    private long bytes;
+
+    private NeftBatchFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    public static NeftBatchFile create(Path file) throws IOException {
+        return new NeftBatchFile(file);
+    }
+
+    // -------------------------------
+    // WRITING
+    // -------------------------------
+    public void header(long batchId, LocalDateTime createdAt, long itemCount, long totalPaise) throws IOException {
+        start('H');
+        number(batchId, 12);
+        text(STAMP.format(createdAt), 14);
+        number(itemCount, 9);
+        number(totalPaise, 18);
+        end();
+    }
+
+    public void detail(Detail d) throws IOException {
+        start('D');
+        text(d.reference(), 16);
+        text(d.ifsc(), 11);
+        text(d.accountNumber(), 20);
+        text(d.beneficiaryName(), 35);
+        number(d.amountPaise(), 15);
+        end();
+        count++;
+        totalPaise += d.amountPaise();
+    }
+
+    public void response(Response r) throws IOException {
+        start('R');
+        text(r.reference(), 16);
+        text(r.settled() ? "S" : "R", 1);
+        text(r.reason(), 40);
+        end();
+        count++;
+    }
+
+    // Count and total of the details actually written, so the bank can check the file
+    public void trailer() throws IOException {
+        start('T');
+        number(count, 9);
+        number(totalPaise, 18);
+        end();
+    }
+
+    public long bytesWritten() {
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void start(char type) {
+        pos = 0;
+        record[pos++] = (byte) type;
+    }
+
+    private void text(String value, int width) {
+        String v = value == null ? "" : value.toUpperCase(Locale.ROOT);
+        for (int i = 0; i < width; i++) {
+            char c = i < v.length() ? v.charAt(i) : ' ';
+            record[pos++] = (byte) (c >= 0x20 && c < 0x7f ? c : '?');
+        }
+    }
+
+    private void number(long value, int width) {
+        if (value < 0)
+            throw new IllegalArgumentException("Negative value in batch file: " + value);
+        for (int i = pos + width - 1; i >= pos; i--) {
+            record[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        if (value != 0)
+            throw new IllegalArgumentException("Value too wide for a " + width + "-digit field");
+        pos += width;
+    }
+
+    private void end() throws IOException {
+        while (pos < RECORD_LENGTH)
+            record[pos++] = ' ';
+        record[pos] = '\n';
+        if (buffer.remaining() < record.length)
+            flush();
+        buffer.put(record);
+        bytes += record.length;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    // -------------------------------
+    // READING
+    // -------------------------------
+    public static List<Detail> readDetails(Path file) throws IOException {
+        List<Detail> out = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("D"))
+                    out.add(new Detail(field(line, 1, 16), field(line, 17, 11), field(line, 28, 20),
+                            field(line, 48, 35), Long.parseLong(line.substring(83, 98))));
+            }
+        }
+        return out;
+    }
+
+    public static List<Response> readResponses(Path file) throws IOException {
+        List<Response> out = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("R"))
+                    out.add(new Response(field(line, 1, 16), line.charAt(17) == 'S', field(line, 18, 40)));
+            }
+        }
+        return out;
+    }
+
+    private static String field(String line, int from, int width) {
+        return line.substring(from, from + width).strip();
+    }
+}
@@ -0,0 +1,43 @@
+package com.paythm.paythm_api.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Outgoing notifications. Callers enqueue; delivery runs on the outbox
+ * dispatcher so a slow or failing SMTP server never blocks a request.
+ */
+@Service
+public class NotificationService implements OutboxHandler {
+
+    public static final String TYPE = "EMAIL";
+
+    private final EmailService emailService;
+    private final OutboxService outbox;
+
+    public NotificationService(EmailService emailService, OutboxService outbox) {
+        this.emailService = emailService;
+        this.outbox = outbox;
+    }
+
+    public void sendEmail(String to, String subject, String text) {
+        outbox.enqueue(TYPE, Map.of("to", to, "subject", subject, "text", text));
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public int concurrency() {
+        return 2; // keep SMTP connections low
+    }
+
+    @Override
+    public void handle(Map<String, Object> payload) {
+        emailService.sendSimpleMessage((String) payload.get("to"), (String) payload.get("subject"),
+                (String) payload.get("text"));
+    }
+}
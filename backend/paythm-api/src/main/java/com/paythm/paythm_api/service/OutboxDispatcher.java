@@ -0,0 +1,297 @@
+package com.paythm.paythm_api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paythm.paythm_api.entity.OutboxEvent;
+import com.paythm.paythm_api.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains the outbox table in batches and runs each event's handler on a
+ * virtual thread. A global in-flight limit bounds how much is claimed at
+ * once and a semaphore per handler type bounds its concurrency. Failures
+ * are retried with exponential backoff until max-attempts, then parked as
+ * FAILED for inspection.
+ *
+ * An event is only marked DONE or FAILED while this dispatcher's claim
+ * (status PROCESSING, same claimed_at) still holds. If the handler outlived
+ * the lease and the event was re-claimed elsewhere, marking it changes no
+ * row and the handler's transaction is rolled back instead of committed.
+ * Time spent queued on the handler's semaphore does not count: the lease
+ * is renewed once the permit is taken, and an event whose claim expired
+ * while it waited is skipped without running the handler.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+
+    // The event's lease expired while its handler ran; its outcome belongs to whoever claimed it next
+    private static final class ClaimLost extends RuntimeException {
+        ClaimLost(Long eventId) {
+            super("Claim on outbox event " + eventId + " expired");
+        }
+    }
+
+    private static final class HandlerStats {
+        final LongAdder processed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicLong lastLagMs = new AtomicLong();
+        final LongAdder claimsLost = new LongAdder();
+    }
+
+    private final OutboxEventRepository repo;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+    private final Map<String, Semaphore> limits = new HashMap<>();
+    private final Map<String, HandlerStats> stats = new HashMap<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore wake = new Semaphore(0);
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    private volatile boolean running;
+    private volatile LocalDateTime lastLeaseCheck = LocalDateTime.MIN;
+
+    public OutboxDispatcher(OutboxEventRepository repo, PlatformTransactionManager txManager,
+            List<OutboxHandler> handlerList,
+            @Value("${paythm.outbox.batch-size:100}") int batchSize,
+            @Value("${paythm.outbox.poll-interval-ms:500}") long pollIntervalMs,
+            @Value("${paythm.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${paythm.outbox.max-in-flight:256}") int maxInFlight,
+            @Value("${paythm.outbox.lease-ms:60000}") long leaseMs) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        for (OutboxHandler h : handlerList) {
+            handlers.put(h.type(), h);
+            limits.put(h.type(), new Semaphore(h.concurrency()));
+            stats.put(h.type(), new HandlerStats());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("outbox-dispatcher").start(this::loop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wake.release();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(OutboxService.Enqueued event) {
+        wake.release();
+    }
+
+    // -------------------------------
+    // POLL LOOP
+    // -------------------------------
+    private void loop() {
+        while (running) {
+            try {
+                if (pollOnce() == 0) {
+                    wake.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wake.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Outbox dispatcher error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int pollOnce() throws InterruptedException {
+        // Claim only as many events as we have free in-flight slots
+        inFlight.acquire();
+        int available = 1 + inFlight.drainPermits();
+        int want = Math.min(batchSize, available);
+        inFlight.release(available - want);
+
+        List<OutboxEvent> batch;
+        try {
+            batch = claim(want);
+        } catch (RuntimeException e) {
+            inFlight.release(want);
+            throw e;
+        }
+        inFlight.release(want - batch.size());
+
+        for (OutboxEvent event : batch) {
+            workers.execute(() -> process(event));
+        }
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claim(int limit) {
+        return tx.execute(status -> {
+            // Whole seconds so the stamp compares equal whatever precision the column keeps
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            if (lastLeaseCheck.isBefore(now.minus(lease))) {
+                repo.releaseExpiredClaims(now.minus(lease));
+                lastLeaseCheck = now;
+            }
+            List<OutboxEvent> due = repo.lockDue(now, limit);
+            if (!due.isEmpty()) {
+                List<Long> ids = new ArrayList<>(due.size());
+                for (OutboxEvent e : due) {
+                    ids.add(e.getId());
+                    e.setClaimedAt(now);
+                }
+                repo.markProcessing(ids, now);
+            }
+            return due;
+        });
+    }
+
+    // -------------------------------
+    // HANDLER EXECUTION
+    // -------------------------------
+    private void process(OutboxEvent event) {
+        OutboxHandler handler = handlers.get(event.getType());
+        try {
+            if (handler == null) {
+                fail(event, "No handler for type " + event.getType(), true);
+                return;
+            }
+            Semaphore limit = limits.get(event.getType());
+            HandlerStats st = stats.get(event.getType());
+            limit.acquire();
+            st.active.incrementAndGet();
+            try {
+                renewClaim(event);
+                Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD);
+                tx.executeWithoutResult(status -> {
+                    try {
+                        handler.handle(payload);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    if (repo.markDone(event.getId(), event.getClaimedAt(), LocalDateTime.now()) == 0)
+                        throw new ClaimLost(event.getId());
+                });
+                st.processed.increment();
+                st.lastLagMs.set(Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis());
+            } finally {
+                st.active.decrementAndGet();
+                limit.release();
+            }
+        } catch (ClaimLost e) {
+            stats.get(event.getType()).claimsLost.increment();
+            System.err.println("Outbox " + e.getMessage() + "; left to its new owner");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(event, "Interrupted", false);
+        } catch (Exception e) {
+            stats.get(event.getType()).failed.increment();
+            fail(event, e.getMessage(), false);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // Waiting for the handler's permit ate into the lease: start it over so the handler gets all of it
+    private void renewClaim(OutboxEvent event) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Integer renewed = tx.execute(status -> repo.renewClaim(event.getId(), event.getClaimedAt(), now));
+        if (renewed == null || renewed == 0)
+            throw new ClaimLost(event.getId());
+        event.setClaimedAt(now);
+    }
+
+    private void fail(OutboxEvent event, String error, boolean permanent) {
+        int attempts = event.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        // 1s, 2s, 4s ... capped at 5 minutes
+        long backoffMs = Math.min(300_000L, 1000L << Math.min(attempts - 1, 20));
+        String message = error == null ? "Unknown error" : error.length() > 1000 ? error.substring(0, 1000) : error;
+        try {
+            int marked = tx.execute(status -> repo.markFailed(event.getId(), event.getClaimedAt(),
+                    giveUp ? "FAILED" : "PENDING", LocalDateTime.now().plus(Duration.ofMillis(backoffMs)), message));
+            if (marked == 0)
+                return; // re-claimed after our lease expired; the new owner decides
+        } catch (RuntimeException e) {
+            // Lease expiry will put it back in the queue
+            System.err.println("Outbox could not record failure of event " + event.getId() + ": " + e.getMessage());
+        }
+        if (giveUp)
+            System.err.println("Outbox event " + event.getId() + " (" + event.getType() + ") failed: " + message);
+    }
+
+    // -------------------------------
+    // METRICS
+    // -------------------------------
+    public Map<String, Object> metrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("pending", repo.countByStatus("PENDING"));
+        m.put("processing", repo.countByStatus("PROCESSING"));
+        m.put("failed", repo.countByStatus("FAILED"));
+        LocalDateTime oldest = repo.findOldestPendingCreatedAt();
+        m.put("oldestPendingAgeMs", oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        m.put("inFlight", maxInFlight - inFlight.availablePermits());
+
+        Map<String, Object> perHandler = new LinkedHashMap<>();
+        stats.forEach((type, st) -> {
+            Map<String, Object> h = new LinkedHashMap<>();
+            h.put("processed", st.processed.sum());
+            h.put("failed", st.failed.sum());
+            h.put("active", st.active.get());
+            h.put("lastLagMs", st.lastLagMs.get());
+            h.put("claimsLost", st.claimsLost.sum());
+            perHandler.put(type, h);
+        });
+        m.put("handlers", perHandler);
+        return m;
+    }
+}
@@ -0,0 +1,21 @@
+package com.paythm.paythm_api.service;
+
+import java.util.Map;
+
+/**
+ * Side effect executed by {@link OutboxDispatcher} for outbox events of one type.
+ * Runs in its own transaction together with marking the event DONE, so
+ * database work in a handler is applied exactly once; external calls
+ * (email etc.) are at-least-once.
+ */
+public interface OutboxHandler {
+
+    String type();
+
+    // Max events of this type handled at the same time
+    default int concurrency() {
+        return 4;
+    }
+
+    void handle(Map<String, Object> payload) throws Exception;
+}
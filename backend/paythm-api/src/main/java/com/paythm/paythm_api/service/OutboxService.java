@@ -0,0 +1,46 @@
+package com.paythm.paythm_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paythm.paythm_api.entity.OutboxEvent;
+import com.paythm.paythm_api.repository.OutboxEventRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Writes side-effect events to the outbox table inside the caller's
+ * transaction. They are only visible to {@link OutboxDispatcher} once the
+ * money movement that produced them has committed.
+ */
+@Service
+public class OutboxService {
+
+    // Published on enqueue; the dispatcher polls right after commit instead of waiting for its next tick
+    public record Enqueued(String type) {
+    }
+
+    private final OutboxEventRepository repo;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public OutboxService(OutboxEventRepository repo, ApplicationEventPublisher events) {
+        this.repo = repo;
+        this.events = events;
+    }
+
+    @Transactional
+    public void enqueue(String type, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid outbox payload for " + type, e);
+        }
+        repo.save(event);
+        events.publishEvent(new Enqueued(type));
+    }
+}
@@ -0,0 +1,246 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory map from every exact identifier a payer can type (PayThm ID,
+ * phone, email, user id) to a user id, so resolving a receiver is a single
+ * hash lookup instead of a cascade of repository queries.
+ *
+ * Keys are normalized: PayThm IDs and emails lower-cased, phones in E.164
+ * (Indian numbers without a country code get +91). Names are not indexed;
+ * callers fall back to the repository for those.
+ *
+ * Users registered or edited on another instance are not in this JVM's
+ * maps until the periodic refresh (paythm.directory.refresh-ms), which
+ * also drops users deleted elsewhere. Until then a miss costs one indexed
+ * query over every identifier form the input could be; users found that
+ * way are added to the directory.
+ */
+@Service
+public class RecipientDirectory {
+
+    private static final String PAYTHM_ID = "p:";
+    private static final String PHONE = "t:";
+    private static final String EMAIL = "e:";
+
+    private final UserRepository userRepo;
+
+    // normalized key -> user id
+    private final ConcurrentHashMap<String, Long> keys = new ConcurrentHashMap<>();
+    // user id -> keys currently registered for that user
+    private final ConcurrentHashMap<Long, String[]> keysByUser = new ConcurrentHashMap<>();
+
+    public RecipientDirectory(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${paythm.directory.refresh-ms:300000}",
+            initialDelayString = "${paythm.directory.refresh-ms:300000}")
+    void load() {
+        // Users deleted on other instances are gone from the table but still in our maps; anyone
+        // indexed after this snapshot was taken is not in it and stays
+        Set<Long> unseen = new HashSet<>(keysByUser.keySet());
+        for (Object[] row : userRepo.findDirectoryEntries()) {
+            put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+            unseen.remove((Long) row[0]);
+        }
+        unseen.forEach(this::evict);
+    }
+
+    // -------------------------------
+    // LOOKUP
+    // -------------------------------
+
+    /**
+     * Resolves an exact identifier to a user id, or null if it is not a known
+     * PayThm ID / phone / user id / VPA / email. Same precedence as the old
+     * repository cascade in WalletService.sendMoney.
+     */
+    public Long resolve(String identifier) {
+        if (identifier == null)
+            return null;
+        String raw = identifier.trim();
+        if (raw.isEmpty())
+            return null;
+        Long id = cached(raw);
+        return id != null ? id : stored(raw);
+    }
+
+    private Long cached(String raw) {
+        String lower = raw.toLowerCase(Locale.ROOT);
+
+        // 1. PayThm ID
+        Long id = keys.get(PAYTHM_ID + lower);
+        if (id != null)
+            return id;
+
+        // 2. Phone
+        if (isPhoneLike(raw)) {
+            String phone = normalizePhone(raw);
+            if (phone != null && (id = keys.get(PHONE + phone)) != null)
+                return id;
+        }
+
+        // 3. User ID (Primary Key)
+        if (isDigits(raw) && raw.length() <= 18) {
+            Long pk = Long.parseLong(raw);
+            if (keysByUser.containsKey(pk))
+                return pk;
+        }
+
+        // 4. VPA (core@anything)
+        int at = lower.indexOf('@');
+        if (at > 0) {
+            String core = lower.substring(0, at);
+            if ((id = keys.get(PAYTHM_ID + core)) != null)
+                return id;
+            if (isDigits(core)) {
+                String phone = normalizePhone(core);
+                if (phone != null && (id = keys.get(PHONE + phone)) != null)
+                    return id;
+            }
+        }
+
+        // 5. Email
+        return keys.get(EMAIL + lower);
+    }
+
+    // Users this instance has not seen yet: one indexed query for every identifier form the input could
+    // be, the matches join the directory and the in-memory precedence picks the winner
+    private Long stored(String raw) {
+        List<String> paythmIds = new ArrayList<>(2);
+        List<String> phones = new ArrayList<>(6);
+        paythmIds.add(raw);
+        phones.add(raw);
+        if (isPhoneLike(raw))
+            addPhoneForms(raw, phones);
+        int at = raw.indexOf('@');
+        if (at > 0) {
+            String core = raw.substring(0, at);
+            paythmIds.add(core);
+            if (isDigits(core))
+                addPhoneForms(core, phones);
+        }
+        // No null or empty parameters (-1 matches no user): those defeat Hibernate's query plan cache
+        Long pk = isDigits(raw) && raw.length() <= 18 ? Long.valueOf(raw) : -1L;
+
+        List<Object[]> rows = userRepo.findDirectoryEntriesMatching(paythmIds, phones, raw, pk);
+        if (rows.isEmpty())
+            return null;
+        for (Object[] row : rows)
+            put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+        return cached(raw);
+    }
+
+    // Phones are stored as typed at registration: national and E.164 forms of the input
+    private static void addPhoneForms(String raw, List<String> phones) {
+        String e164 = normalizePhone(raw);
+        if (e164 == null)
+            return;
+        if (e164.startsWith("+91") && e164.length() == 13)
+            phones.add(e164.substring(3));
+        phones.add(e164);
+    }
+
+    // -------------------------------
+    // MAINTENANCE (applied after commit)
+    // -------------------------------
+    public void index(User user) {
+        Long id = user.getId();
+        String paythmId = user.getPaythmId();
+        String phone = user.getPhone();
+        String email = user.getEmail();
+        AfterCommit.run(() -> put(id, paythmId, phone, email));
+    }
+
+    public void remove(Long userId) {
+        AfterCommit.run(() -> evict(userId));
+    }
+
+    private void put(Long userId, String paythmId, String phone, String email) {
+        if (userId == null)
+            return;
+        evict(userId);
+
+        String p = paythmId != null && !paythmId.isBlank() ? PAYTHM_ID + paythmId.trim().toLowerCase(Locale.ROOT) : null;
+        String n = normalizePhone(phone);
+        String t = n != null ? PHONE + n : null;
+        String e = email != null && !email.isBlank() ? EMAIL + email.trim().toLowerCase(Locale.ROOT) : null;
+
+        String[] userKeys = { p, t, e };
+        for (String key : userKeys) {
+            // First registered user wins on duplicates, like list.get(0) did
+            if (key != null)
+                keys.putIfAbsent(key, userId);
+        }
+        keysByUser.put(userId, userKeys);
+    }
+
+    private void evict(Long userId) {
+        String[] old = keysByUser.remove(userId);
+        if (old == null)
+            return;
+        for (String key : old) {
+            if (key != null)
+                keys.remove(key, userId);
+        }
+    }
+
+    // -------------------------------
+    // NORMALIZATION
+    // -------------------------------
+    static String normalizePhone(String raw) {
+        if (raw == null)
+            return null;
+        String trimmed = raw.trim();
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits.append(c);
+        }
+        if (digits.length() == 0)
+            return null;
+        if (trimmed.startsWith("+"))
+            return "+" + digits;
+        if (digits.length() == 10)
+            return "+91" + digits;
+        if (digits.length() == 11 && digits.charAt(0) == '0')
+            return "+91" + digits.substring(1);
+        // Already carries a country code (e.g. 91XXXXXXXXXX)
+        return "+" + digits;
+    }
+
+    private static boolean isPhoneLike(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && c != '+')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty())
+            return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Cashback rewards. The payment path only bumps the wallet's payment
+ * counter and, on a milestone, queues a REWARD outbox event; the cashback
+ * credit itself happens later in {@link #handle}.
+ */
+@Service
+public class RewardsService implements OutboxHandler {
+
+    public static final String TYPE = "REWARD";
+
+    private final WalletRepository walletRepo;
+    private final TransferEngine transferEngine;
+    private final OutboxService outbox;
+    private final LedgerService ledger;
+    private final HistoryJournal historyJournal;
+    private final ApplicationEventPublisher events;
+
+    public RewardsService(WalletRepository walletRepo, TransferEngine transferEngine, OutboxService outbox,
+            LedgerService ledger, HistoryJournal historyJournal, ApplicationEventPublisher events) {
+        this.walletRepo = walletRepo;
+        this.transferEngine = transferEngine;
+        this.outbox = outbox;
+        this.ledger = ledger;
+        this.historyJournal = historyJournal;
+        this.events = events;
+    }
+
+    // Called inside the payment transaction, after the debit
+    public void recordPayment(Long walletId) {
+        recordPayments(walletId, 1);
+    }
+
+    // Bulk form: every milestone the counter passes on the way gets its reward
+    public void recordPayments(Long walletId, long payments) {
+        // Counter is bumped under the same row lock as the debit, so the
+        // value we read back is exactly the last payment's sequence number.
+        walletRepo.incrementPaymentCount(walletId, payments);
+        long count = walletRepo.findPaymentCount(walletId);
+        for (long n = count - payments + 1; n <= count; n++) {
+            if (n == 5 || (n > 5 && n % 10 == 0))
+                outbox.enqueue(TYPE, Map.of("walletId", walletId, "paymentCount", n));
+            else if (n > 5)
+                n += 9 - n % 10; // skip to the next multiple of 10
+        }
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(Map<String, Object> payload) {
+        Long walletId = ((Number) payload.get("walletId")).longValue();
+        long count = ((Number) payload.get("paymentCount")).longValue();
+
+        Money cashback;
+        String message;
+        if (count == 5) {
+            cashback = Money.ofPaise(5_000); // Fixed ₹50 cashback for now
+            message = "🎉 Cashback Reward! (First 5 Payments)";
+        } else if (count > 5 && count % 10 == 0) {
+            // Milestone Reward every 10 txs
+            cashback = Money.ofPaise(1_000);
+            message = "🎁 Loyalty Bonus (Every 10 Payments)";
+        } else {
+            return;
+        }
+
+        // The milestone is the idempotency key: a redelivered event finds its posting and stops here, and
+        // a concurrent duplicate blocks on the unique reference and rolls back before its credit counts
+        String reference = "reward:" + walletId + "@" + count;
+        if (ledger.posted(reference))
+            return;
+        Long postingId = ledger.transfer("REWARD", reference, message, LedgerService.REWARDS,
+                LedgerService.wallet(walletId), cashback);
+        transferEngine.credit(walletId, cashback);
+
+        Transaction tx = new Transaction();
+        tx.setAmount(cashback);
+        tx.setType("CREDIT");
+        tx.setMessage(message);
+        tx.setCounterparty("PayThm Rewards");
+        tx.setWallet(walletRepo.getReferenceById(walletId));
+        historyJournal.record(tx, postingId);
+        walletRepo.findUserIdById(walletId).ifPresent(userId -> events.publishEvent(new InsightsCache.Changed(userId)));
+    }
+}
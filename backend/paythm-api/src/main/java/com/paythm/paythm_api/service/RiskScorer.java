@@ -0,0 +1,384 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inline risk check for outgoing payments, run by WalletService before the
+ * debit.
+ *
+ * Every wallet has a small in-memory profile of its last N debits (amount,
+ * time, hour of day, recipient). A payment is scored against it on four
+ * features: amount z-score, burst rate (debits within the burst window),
+ * first payment to this recipient, and how unusual the hour of day is for
+ * the user. The points add up to a score that allows the payment, holds it
+ * until the user re-enters their PIN, or blocks it.
+ *
+ * Profiles are updated after commit, so a rolled-back payment never counts.
+ * On startup they are rebuilt from recent DEBIT rows, scanning wallet-id
+ * ranges in parallel; payments scored before the rebuild finishes simply see
+ * less history. Payments committed meanwhile are held back and added once
+ * the rebuild is done, so every profile stays in time order (the burst
+ * check walks it newest first); the rebuild only reads rows from before it
+ * started, so none is counted twice.
+ */
+@Service
+public class RiskScorer {
+
+    public enum Decision {
+        ALLOW, HOLD, BLOCK
+    }
+
+    public record Assessment(Decision decision, int score, List<String> reasons) {
+    }
+
+    public static final String PIN_REQUIRED = "PIN verification required for this payment";
+    public static final String BLOCKED = "Payment blocked by risk checks";
+
+    private static final String REBUILD_SQL = "select wallet_id, amount, counterparty, timestamp from transaction "
+            + "where type = 'DEBIT' and timestamp >= ? and timestamp < ? and wallet_id between ? and ? "
+            + "order by wallet_id, timestamp, id";
+
+    private static final long LARGE_WITHOUT_HISTORY_PAISE = 1_000_000; // ₹10,000
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int window;
+    private final int minHistory;
+    private final long burstWindowMs;
+    private final int burstLimit;
+    private final int holdScore;
+    private final int blockScore;
+    private final int maxProfiles;
+    private final int rebuildDays;
+    private final int rebuildThreads;
+    private final int rebuildChunkSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private record Debit(Long walletId, long paise, String counterparty, LocalDateTime at) {
+    }
+
+    private final ConcurrentHashMap<Long, Profile> profiles = new ConcurrentHashMap<>();
+    // Live debits committed while the rebuild runs, in commit order; guarded by itself
+    private final List<Debit> heldBack = new ArrayList<>();
+    private volatile boolean holdingBack;
+    private volatile LocalDateTime rebuildCutoff;
+    private volatile boolean rebuilt;
+    private volatile long rebuildMillis;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder held = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+
+    public RiskScorer(JdbcTemplate jdbcTemplate,
+            @Value("${paythm.risk.enabled:true}") boolean enabled,
+            @Value("${paythm.risk.window:32}") int window,
+            @Value("${paythm.risk.min-history:5}") int minHistory,
+            @Value("${paythm.risk.burst-window-ms:60000}") long burstWindowMs,
+            @Value("${paythm.risk.burst-limit:5}") int burstLimit,
+            @Value("${paythm.risk.hold-score:50}") int holdScore,
+            @Value("${paythm.risk.block-score:80}") int blockScore,
+            @Value("${paythm.risk.max-profiles:200000}") int maxProfiles,
+            @Value("${paythm.risk.rebuild-days:30}") int rebuildDays,
+            @Value("${paythm.risk.rebuild-threads:4}") int rebuildThreads,
+            @Value("${paythm.risk.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.window = window;
+        this.minHistory = minHistory;
+        this.burstWindowMs = burstWindowMs;
+        this.burstLimit = burstLimit;
+        this.holdScore = holdScore;
+        this.blockScore = blockScore;
+        this.maxProfiles = maxProfiles;
+        this.rebuildDays = rebuildDays;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    // -------------------------------
+    // SCORING
+    // -------------------------------
+    public Assessment score(Long walletId, Money amount, String counterparty) {
+        if (!enabled)
+            return new Assessment(Decision.ALLOW, 0, List.of());
+        Profile p = profiles.get(walletId);
+        LocalDateTime now = LocalDateTime.now();
+        List<String> reasons = new ArrayList<>(4);
+        int score;
+        if (p == null) {
+            score = firstPaymentPoints(amount.paise(), reasons);
+        } else {
+            synchronized (p) {
+                score = p.score(amount.paise(), millis(now), now.getHour(), recipientHash(counterparty), reasons);
+            }
+        }
+
+        Decision decision = score >= blockScore ? Decision.BLOCK : score >= holdScore ? Decision.HOLD : Decision.ALLOW;
+        switch (decision) {
+            case ALLOW -> allowed.increment();
+            case HOLD -> held.increment();
+            case BLOCK -> blocked.increment();
+        }
+        return new Assessment(decision, score, reasons);
+    }
+
+    private static int firstPaymentPoints(long paise, List<String> reasons) {
+        if (paise < LARGE_WITHOUT_HISTORY_PAISE)
+            return 0;
+        reasons.add("large amount without history");
+        return 20;
+    }
+
+    // Feeds a committed debit into the wallet's profile
+    public void recordAfterCommit(Long walletId, Money amount, String counterparty) {
+        if (!enabled)
+            return;
+        LocalDateTime now = LocalDateTime.now();
+        AfterCommit.run(() -> recordLive(new Debit(walletId, amount.paise(), counterparty, now)));
+    }
+
+    private void recordLive(Debit d) {
+        if (holdingBack) {
+            synchronized (heldBack) {
+                if (holdingBack) {
+                    heldBack.add(d);
+                    return;
+                }
+            }
+        }
+        record(d.walletId(), d.paise(), d.counterparty(), d.at());
+    }
+
+    // Ends the rebuild: held-back debits go in after the history they are newer than
+    private void releaseHeldBack() {
+        synchronized (heldBack) {
+            LocalDateTime cutoff = rebuildCutoff;
+            for (Debit d : heldBack) {
+                // Older ones committed before the scan reached their wallet and are in the profile already
+                if (cutoff == null || !d.at().isBefore(cutoff))
+                    record(d.walletId(), d.paise(), d.counterparty(), d.at());
+            }
+            heldBack.clear();
+            holdingBack = false;
+        }
+    }
+
+    private void record(Long walletId, long paise, String counterparty, LocalDateTime at) {
+        Profile p = profiles.get(walletId);
+        if (p == null) {
+            if (profiles.size() >= maxProfiles)
+                evict();
+            p = profiles.computeIfAbsent(walletId, k -> new Profile(window));
+        }
+        synchronized (p) {
+            p.add(paise, millis(at), at.getHour(), recipientHash(counterparty));
+        }
+    }
+
+    private void evict() {
+        // Drop ~1% of profiles; hash order is effectively random
+        int toRemove = Math.max(1, maxProfiles / 100);
+        Iterator<Long> it = profiles.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private long millis(LocalDateTime t) {
+        return t.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static int recipientHash(String counterparty) {
+        return counterparty == null ? 0 : counterparty.trim().toLowerCase(Locale.ROOT).hashCode();
+    }
+
+    /**
+     * Sliding window of a wallet's last N debits in parallel ring arrays, with
+     * running sums for the amount mean/variance and an hour-of-day histogram.
+     * Guarded by its own monitor.
+     */
+    private final class Profile {
+        private final long[] amounts;
+        private final long[] times;
+        private final byte[] hours;
+        private final int[] recipients;
+        private final int[] hourCounts = new int[24];
+        private int head; // next write position
+        private int size;
+        private double sum;
+        private double sumSq;
+
+        Profile(int capacity) {
+            amounts = new long[capacity];
+            times = new long[capacity];
+            hours = new byte[capacity];
+            recipients = new int[capacity];
+        }
+
+        void add(long paise, long time, int hour, int recipient) {
+            if (size == amounts.length) {
+                double old = amounts[head];
+                sum -= old;
+                sumSq -= old * old;
+                hourCounts[hours[head]]--;
+            } else {
+                size++;
+            }
+            amounts[head] = paise;
+            times[head] = time;
+            hours[head] = (byte) hour;
+            recipients[head] = recipient;
+            sum += paise;
+            sumSq += (double) paise * paise;
+            hourCounts[hour]++;
+            head = (head + 1) % amounts.length;
+        }
+
+        int score(long paise, long now, int hour, int recipient, List<String> reasons) {
+            int points = 0;
+
+            // Burst: debits inside the burst window, newest first
+            int recent = 0;
+            for (int i = 1; i <= size; i++) {
+                int idx = Math.floorMod(head - i, amounts.length);
+                if (now - times[idx] >= burstWindowMs)
+                    break;
+                recent++;
+            }
+            if (recent + 1 >= burstLimit) {
+                points += 40;
+                reasons.add("burst: " + (recent + 1) + " payments in " + burstWindowMs / 1000 + "s");
+            } else if (recent + 1 >= Math.max(2, burstLimit - 2)) {
+                points += 15;
+                reasons.add("rapid payments");
+            }
+
+            if (size < minHistory)
+                return points + firstPaymentPoints(paise, reasons);
+
+            // Amount z-score; the deviation floor keeps identical amounts from exploding it
+            double mean = sum / size;
+            double std = Math.sqrt(Math.max(0, sumSq / size - mean * mean));
+            double z = (paise - mean) / Math.max(std, Math.max(mean * 0.25, 100));
+            if (z >= 4) {
+                points += 40;
+            } else if (z >= 3) {
+                points += 30;
+            } else if (z >= 2) {
+                points += 15;
+            }
+            if (z >= 2)
+                reasons.add(String.format(Locale.ROOT, "amount z-score %.1f", z));
+
+            boolean known = false;
+            for (int i = 0; i < size && !known; i++)
+                known = recipients[i] == recipient;
+            if (!known) {
+                points += 15;
+                reasons.add("new recipient");
+            }
+
+            // Share of recent debits within an hour of this one
+            int near = hourCounts[hour] + hourCounts[(hour + 23) % 24] + hourCounts[(hour + 1) % 24];
+            if (near * 20 < size) {
+                boolean lateNight = hour < 5;
+                points += lateNight ? 25 : 15;
+                reasons.add(lateNight ? "unusual late-night payment" : "unusual hour");
+            }
+            return points;
+        }
+    }
+
+    // -------------------------------
+    // STARTUP REBUILD
+    // -------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        if (!enabled)
+            return;
+        rebuildCutoff = LocalDateTime.now();
+        holdingBack = true;
+        Thread.ofVirtual().name("risk-rebuild").start(() -> {
+            try {
+                rebuild();
+            } finally {
+                releaseHeldBack();
+            }
+        });
+    }
+
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        Long minId = jdbcTemplate.queryForObject("select min(id) from wallet", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from wallet", Long.class);
+        if (minId == null || maxId == null) {
+            rebuilt = true;
+            return;
+        }
+        LocalDateTime cutoff = rebuildCutoff != null ? rebuildCutoff : LocalDateTime.now();
+        Timestamp since = Timestamp.valueOf(cutoff.minusDays(rebuildDays));
+        Timestamp until = Timestamp.valueOf(cutoff);
+
+        // Each chunk owns a wallet-id range, so chunks never touch the same profile
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += rebuildChunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + rebuildChunkSize - 1);
+                chunks.add(pool.submit(() -> jdbcTemplate.query(REBUILD_SQL,
+                        rs -> {
+                            Timestamp at = rs.getTimestamp(4);
+                            if (at != null)
+                                record(rs.getLong(1), rs.getLong(2), rs.getString(3), at.toLocalDateTime());
+                        }, since, until, lo, hi)));
+            }
+            for (Future<?> chunk : chunks)
+                chunk.get();
+            rebuildMillis = System.currentTimeMillis() - start;
+            rebuilt = true;
+            System.out.println("✔ Rebuilt risk profiles for " + profiles.size() + " wallets in " + rebuildMillis
+                    + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Risk profile rebuild failed: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        out.put("rebuilt", rebuilt);
+        out.put("holdingBack", holdingBack);
+        out.put("rebuildMillis", rebuildMillis);
+        out.put("profiles", profiles.size());
+        out.put("allowed", allowed.sum());
+        out.put("held", held.sum());
+        out.put("blocked", blocked.sum());
+        return out;
+    }
+}
@@ -0,0 +1,338 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.ScheduledPayment;
+import com.paythm.paythm_api.entity.ScheduledPaymentRun;
+import com.paythm.paythm_api.repository.ScheduledPaymentRepository;
+import com.paythm.paythm_api.repository.ScheduledPaymentRunRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs scheduled and recurring payments.
+ *
+ * Only schedules due within the horizon (default 1h) are held in memory, in
+ * a hierarchical timing wheel keyed by their next run. A loader refreshes
+ * the horizon from the (status, next_run_at) index every load interval, so
+ * neither the loader nor the per-tick advance ever scans all schedules.
+ * Runs left over from downtime are overdue when first loaded and fire on
+ * the first tick; occurrences older than the catch-up window are recorded
+ * as SKIPPED instead of paid.
+ *
+ * Due schedules are cut into batches, each run on a virtual thread. Every
+ * occurrence executes in its own transaction that locks the schedule row,
+ * checks it is still due at that time, writes a run row with the unique
+ * execution key "id@occurrence", pays and moves the schedule on. A second
+ * instance, a stale wheel entry or a reload can therefore never pay an
+ * occurrence twice. A run that throws is rolled back and retried later.
+ */
+@Service
+public class ScheduledPaymentEngine {
+
+    public static final String PAID = "Money Sent Successfully!";
+
+    // Wheel entry: the occurrence's due time, which is also what it is checked against
+    private record Entry(Long scheduleId, long dueMillis) {
+    }
+
+    private final ScheduledPaymentRepository repo;
+    private final ScheduledPaymentRunRepository runRepo;
+    private final WalletService walletService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final boolean enabled;
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+    private final long horizonMs;
+    private final int batchSize;
+    private final Semaphore batches;
+    private final long catchUpMs;
+    private final int maxFailures;
+    private final long retryDelayMs;
+
+    private TimingWheel<Entry> wheel; // guarded by 'this'
+    private final ConcurrentHashMap<Long, Long> inWheel = new ConcurrentHashMap<>(); // schedule id -> due
+    private volatile long horizonEnd;
+    private volatile boolean running;
+
+    private final LongAdder paid = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    private volatile int lastLoaded;
+    private volatile long lastLoadMillis;
+
+    public ScheduledPaymentEngine(ScheduledPaymentRepository repo, ScheduledPaymentRunRepository runRepo,
+            WalletService walletService, JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+            @Value("${paythm.schedules.enabled:true}") boolean enabled,
+            @Value("${paythm.schedules.tick-ms:1000}") long tickMs,
+            @Value("${paythm.schedules.wheel-size:64}") int wheelSize,
+            @Value("${paythm.schedules.wheel-levels:4}") int levels,
+            @Value("${paythm.schedules.horizon-ms:3600000}") long horizonMs,
+            @Value("${paythm.schedules.batch-size:200}") int batchSize,
+            @Value("${paythm.schedules.max-concurrent-batches:16}") int maxConcurrentBatches,
+            @Value("${paythm.schedules.catch-up-ms:259200000}") long catchUpMs,
+            @Value("${paythm.schedules.max-consecutive-failures:3}") int maxFailures,
+            @Value("${paythm.schedules.retry-delay-ms:60000}") long retryDelayMs) {
+        this.repo = repo;
+        this.runRepo = runRepo;
+        this.walletService = walletService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.enabled = enabled;
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.horizonMs = horizonMs;
+        this.batchSize = batchSize;
+        this.batches = new Semaphore(maxConcurrentBatches);
+        this.catchUpMs = catchUpMs;
+        this.maxFailures = maxFailures;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled)
+            return;
+        synchronized (this) {
+            wheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+        }
+        running = true;
+        loadHorizon();
+        Thread.ofVirtual().name("schedule-ticker").start(this::tickLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    // -------------------------------
+    // HORIZON LOADER
+    // -------------------------------
+    @Scheduled(fixedDelayString = "${paythm.schedules.load-interval-ms:300000}")
+    public void loadHorizon() {
+        if (!running)
+            return;
+        long start = System.currentTimeMillis();
+        // Raised first: schedules changed from here on are pushed in by onChanged
+        long end = start + horizonMs;
+        horizonEnd = end;
+        int[] loaded = new int[1];
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement("select id, next_run_at from scheduled_payments "
+                    + "where status = 'ACTIVE' and next_run_at < ?");
+            ps.setFetchSize(1000);
+            ps.setTimestamp(1, Timestamp.from(Instant.ofEpochMilli(end)));
+            return ps;
+        }, rs -> {
+            Timestamp next = rs.getTimestamp(2);
+            if (next != null && enqueue(rs.getLong(1), millis(next.toLocalDateTime())))
+                loaded[0]++;
+        });
+        lastLoaded = loaded[0];
+        lastLoadMillis = System.currentTimeMillis() - start;
+    }
+
+    // Called after a schedule is created, paused, resumed or cancelled
+    public void onChanged(ScheduledPayment s) {
+        if (!running)
+            return;
+        if ("ACTIVE".equals(s.getStatus()) && s.getNextRunAt() != null) {
+            long due = millis(s.getNextRunAt());
+            if (due < horizonEnd)
+                enqueue(s.getId(), due);
+        } else {
+            inWheel.remove(s.getId()); // the wheel entry is dropped when it fires
+        }
+    }
+
+    // False if the schedule is already waiting for this occurrence
+    private boolean enqueue(Long id, long due) {
+        Long previous = inWheel.put(id, due);
+        if (previous != null && previous == due)
+            return false;
+        synchronized (this) {
+            wheel.schedule(new Entry(id, due), due);
+        }
+        return true;
+    }
+
+    // -------------------------------
+    // TICKER
+    // -------------------------------
+    private void tickLoop() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+                tick(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Schedule ticker error: " + e.getMessage());
+            }
+        }
+    }
+
+    void tick(long now) throws InterruptedException {
+        List<Entry> due;
+        synchronized (this) {
+            due = wheel.advance(now);
+        }
+        // Superseded entries (rescheduled, paused, cancelled) just fall out here
+        due = due.stream().filter(e -> inWheel.remove(e.scheduleId(), e.dueMillis())).toList();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Entry> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            batches.acquire();
+            Thread.ofVirtual().name("schedule-batch").start(() -> {
+                try {
+                    batch.forEach(e -> execute(e, now));
+                } finally {
+                    batches.release();
+                }
+            });
+        }
+    }
+
+    // -------------------------------
+    // EXECUTION
+    // -------------------------------
+    private void execute(Entry e, long now) {
+        maxLagMs.accumulateAndGet(now - e.dueMillis(), Math::max);
+        Long nextDue;
+        try {
+            nextDue = tx.execute(status -> runOccurrence(e));
+        } catch (RuntimeException ex) {
+            retried.increment();
+            System.err.println("Scheduled payment " + e.scheduleId() + " failed, retrying: " + ex.getMessage());
+            inWheel.put(e.scheduleId(), e.dueMillis());
+            synchronized (this) {
+                wheel.schedule(e, System.currentTimeMillis() + retryDelayMs);
+            }
+            return;
+        }
+        if (nextDue != null && nextDue < horizonEnd)
+            enqueue(e.scheduleId(), nextDue);
+    }
+
+    // Returns the next due time if the schedule is still active
+    private Long runOccurrence(Entry e) {
+        ScheduledPayment s = repo.findByIdForUpdate(e.scheduleId()).orElse(null);
+        if (s == null || !"ACTIVE".equals(s.getStatus()) || s.getNextRunAt() == null
+                || millis(s.getNextRunAt()) != e.dueMillis()) {
+            stale.increment(); // already run, or changed since it was queued
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String key = s.getId() + "@" + s.getOccurrence();
+        String status;
+        String result;
+        if (runRepo.existsByExecutionKey(key)) {
+            status = null; // recorded by an earlier attempt; only move the schedule on
+            result = s.getLastResult();
+        } else if (millis(now) - e.dueMillis() > catchUpMs) {
+            status = "SKIPPED";
+            result = "Missed by more than the catch-up window";
+        } else {
+            result = walletService.sendMoneyPreAuthorized(s.getUserId(), s.getReceiver(), s.getAmount());
+            status = PAID.equals(result) ? "PAID" : "FAILED";
+        }
+
+        if (status != null) {
+            ScheduledPaymentRun run = new ScheduledPaymentRun();
+            run.setScheduleId(s.getId());
+            run.setExecutionKey(key);
+            run.setDueAt(s.getNextRunAt());
+            run.setStatus(status);
+            run.setResult(result);
+            runRepo.save(run);
+            switch (status) {
+                case "PAID" -> {
+                    paid.increment();
+                    s.setRunCount(s.getRunCount() + 1);
+                    s.setConsecutiveFailures(0);
+                }
+                case "FAILED" -> {
+                    failed.increment();
+                    s.setConsecutiveFailures(s.getConsecutiveFailures() + 1);
+                }
+                default -> skipped.increment();
+            }
+            s.setLastRunAt(now);
+            s.setLastResult(result);
+        }
+
+        s.setOccurrence(s.getOccurrence() + 1);
+        s.setNextRunAt(nextRun(s));
+        if (s.getNextRunAt() == null)
+            s.setStatus("COMPLETED");
+        else if (s.getConsecutiveFailures() >= maxFailures)
+            s.setStatus("PAUSED");
+        repo.save(s);
+        return "ACTIVE".equals(s.getStatus()) ? millis(s.getNextRunAt()) : null;
+    }
+
+    // Occurrence n is always start + n periods, so short months don't shift later dates
+    static LocalDateTime nextRun(ScheduledPayment s) {
+        int n = s.getOccurrence();
+        if (s.getMaxRuns() != null && n >= s.getMaxRuns())
+            return null;
+        LocalDateTime start = s.getStartAt();
+        return switch (s.getFrequency()) {
+            case "DAILY" -> start.plusDays(n);
+            case "WEEKLY" -> start.plusWeeks(n);
+            case "MONTHLY" -> start.plusMonths(n);
+            default -> n == 0 ? start : null; // ONCE
+        };
+    }
+
+    private long millis(LocalDateTime t) {
+        return t.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        synchronized (this) {
+            out.put("wheelEntries", wheel == null ? 0 : wheel.size());
+        }
+        out.put("pending", inWheel.size());
+        out.put("horizonMs", horizonMs);
+        out.put("lastLoaded", lastLoaded);
+        out.put("lastLoadMillis", lastLoadMillis);
+        out.put("paid", paid.sum());
+        out.put("failed", failed.sum());
+        out.put("skipped", skipped.sum());
+        out.put("stale", stale.sum());
+        out.put("retried", retried.sum());
+        out.put("maxLagMs", maxLagMs.get());
+        out.put("batchesAvailable", batches.availablePermits());
+        return out;
+    }
+}
@@ -0,0 +1,125 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.ScheduleRequest;
+import com.paythm.paythm_api.entity.ScheduledPayment;
+import com.paythm.paythm_api.entity.ScheduledPaymentRun;
+import com.paythm.paythm_api.repository.ScheduledPaymentRepository;
+import com.paythm.paythm_api.repository.ScheduledPaymentRunRepository;
+import com.paythm.paythm_api.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+@Transactional
+public class ScheduledPaymentService {
+
+    private static final Set<String> FREQUENCIES = Set.of("ONCE", "DAILY", "WEEKLY", "MONTHLY");
+
+    private final ScheduledPaymentRepository repo;
+    private final ScheduledPaymentRunRepository runRepo;
+    private final UserRepository userRepo;
+    private final UserService userService;
+    private final ScheduledPaymentEngine engine;
+
+    public ScheduledPaymentService(ScheduledPaymentRepository repo, ScheduledPaymentRunRepository runRepo,
+            UserRepository userRepo, UserService userService, ScheduledPaymentEngine engine) {
+        this.repo = repo;
+        this.runRepo = runRepo;
+        this.userRepo = userRepo;
+        this.userService = userService;
+        this.engine = engine;
+    }
+
+    public ScheduledPayment create(Long userId, ScheduleRequest req) {
+        if (!userRepo.existsById(userId))
+            throw new RuntimeException("User not found");
+        if (req.getReceiver() == null || req.getReceiver().isBlank())
+            throw new RuntimeException("Receiver is required");
+        if (req.getAmount() == null || !req.getAmount().isPositive())
+            throw new RuntimeException("Amount must be positive!");
+        String frequency = req.getFrequency() == null ? "ONCE" : req.getFrequency().toUpperCase(Locale.ROOT);
+        if (!FREQUENCIES.contains(frequency))
+            throw new RuntimeException("Frequency must be one of " + FREQUENCIES);
+        if (req.getMaxRuns() != null && req.getMaxRuns() < 1)
+            throw new RuntimeException("maxRuns must be at least 1");
+        // The PIN entered now stands in for the one a risk hold would ask for on each run
+        if (req.getPin() == null || req.getPin().isBlank() || !userService.verifyPin(userId, req.getPin()))
+            throw new RuntimeException("Invalid PIN");
+
+        ScheduledPayment s = new ScheduledPayment();
+        s.setUserId(userId);
+        s.setReceiver(req.getReceiver().trim());
+        s.setAmount(req.getAmount());
+        s.setNote(req.getNote());
+        s.setFrequency(frequency);
+        s.setStartAt(req.getStartAt() == null ? LocalDateTime.now() : req.getStartAt());
+        s.setMaxRuns(req.getMaxRuns());
+        s.setNextRunAt(ScheduledPaymentEngine.nextRun(s));
+        ScheduledPayment saved = repo.save(s);
+        AfterCommit.run(() -> engine.onChanged(saved));
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledPayment> list(Long userId) {
+        return repo.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledPaymentRun> runs(Long userId, Long scheduleId) {
+        owned(userId, scheduleId);
+        return runRepo.findTop50ByScheduleIdOrderByDueAtDesc(scheduleId);
+    }
+
+    public ScheduledPayment pause(Long userId, Long scheduleId) {
+        ScheduledPayment s = owned(userId, scheduleId);
+        if (!"ACTIVE".equals(s.getStatus()))
+            throw new RuntimeException("Only active schedules can be paused");
+        s.setStatus("PAUSED");
+        return changed(s);
+    }
+
+    // Occurrences missed while paused are not paid; the next one from now on is
+    public ScheduledPayment resume(Long userId, Long scheduleId) {
+        ScheduledPayment s = owned(userId, scheduleId);
+        if (!"PAUSED".equals(s.getStatus()))
+            throw new RuntimeException("Only paused schedules can be resumed");
+        LocalDateTime now = LocalDateTime.now();
+        while (s.getNextRunAt() != null && s.getNextRunAt().isBefore(now)) {
+            s.setOccurrence(s.getOccurrence() + 1);
+            s.setNextRunAt(ScheduledPaymentEngine.nextRun(s));
+        }
+        s.setConsecutiveFailures(0);
+        s.setStatus(s.getNextRunAt() == null ? "COMPLETED" : "ACTIVE");
+        return changed(s);
+    }
+
+    public ScheduledPayment cancel(Long userId, Long scheduleId) {
+        ScheduledPayment s = owned(userId, scheduleId);
+        if ("COMPLETED".equals(s.getStatus()) || "CANCELLED".equals(s.getStatus()))
+            throw new RuntimeException("Schedule already finished");
+        s.setStatus("CANCELLED");
+        s.setNextRunAt(null);
+        return changed(s);
+    }
+
+    // Row lock so a change can't interleave with a run of the same schedule
+    private ScheduledPayment owned(Long userId, Long scheduleId) {
+        ScheduledPayment s = repo.findByIdForUpdate(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+        if (!s.getUserId().equals(userId))
+            throw new RuntimeException("Schedule not found");
+        return s;
+    }
+
+    private ScheduledPayment changed(ScheduledPayment s) {
+        ScheduledPayment saved = repo.save(s);
+        AfterCommit.run(() -> engine.onChanged(saved));
+        return saved;
+    }
+}
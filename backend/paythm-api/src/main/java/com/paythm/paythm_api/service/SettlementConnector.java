@@ -0,0 +1,37 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.SettlementBatch;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Link to the sponsor bank used by {@link BankSettlementService}. Submitting
+ * only hands the batch file over; per-transfer outcomes come back later
+ * through {@link #poll}, whenever the bank produces them.
+ */
+public interface SettlementConnector {
+
+    @FunctionalInterface
+    interface ResponseHandler {
+        void accept(List<NeftBatchFile.Response> responses) throws Exception;
+    }
+
+    String name();
+
+    /**
+     * Hands the batch file to the bank; returns the bank's acknowledgement
+     * reference. Must be idempotent on the batch file name: a batch whose
+     * submitter crashed before recording the acknowledgement is submitted
+     * again, and the bank must not pay it out twice.
+     */
+    String submit(SettlementBatch batch, Path file) throws Exception;
+
+    /**
+     * Passes every response that arrived since the last call to 'handler'.
+     * A response set is only acknowledged to the bank side (e.g. its file
+     * archived) once the handler returned, so it is redelivered after a
+     * failure; handlers must be idempotent. Returns the number of sets.
+     */
+    int poll(ResponseHandler handler) throws Exception;
+}
@@ -0,0 +1,195 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.repository.BankAccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local stand-in for a bank's debit API, backed by the mock bank_accounts
+ * rows. Each request waits latency ± jitter on a delayed executor (no
+ * thread sleeps), then debits the account with one conditional UPDATE in a
+ * short transaction of its own.
+ *
+ * Failure injection for load tests: error-rate fails the request without
+ * touching the account; timeout-rate applies the debit but answers only
+ * after timeout-delay-ms, later than any sensible caller timeout, which is
+ * what makes reverse() necessary. Request keys are remembered for
+ * key-retention-ms so retries and reversals are idempotent.
+ */
+@Service
+public class SimulatedBankConnector implements BankConnector {
+
+    // What the bank knows about one request key; the lock orders apply against reverse
+    private static final class KeyState {
+        final ReentrantLock lock = new ReentrantLock();
+        final long createdAt = System.currentTimeMillis();
+        boolean reversed;
+        Long bankAccountId; // set once the debit is applied
+        long paise;
+    }
+
+    private final BankAccountRepository bankRepo;
+    private final TransactionTemplate tx;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutDelayMs;
+    private final long keyRetentionMs;
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<String, KeyState> keys = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder approvals = new LongAdder();
+    private final LongAdder declines = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder reversals = new LongAdder();
+
+    public SimulatedBankConnector(BankAccountRepository bankRepo, PlatformTransactionManager txManager,
+            @Value("${paythm.bank.sim.latency-ms:250}") long latencyMs,
+            @Value("${paythm.bank.sim.jitter-ms:150}") long jitterMs,
+            @Value("${paythm.bank.sim.error-rate:0.0}") double errorRate,
+            @Value("${paythm.bank.sim.timeout-rate:0.0}") double timeoutRate,
+            @Value("${paythm.bank.sim.timeout-delay-ms:30000}") long timeoutDelayMs,
+            @Value("${paythm.bank.sim.key-retention-ms:3600000}") long keyRetentionMs) {
+        this.bankRepo = bankRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutDelayMs = timeoutDelayMs;
+        this.keyRetentionMs = keyRetentionMs;
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdown();
+    }
+
+    @Override
+    public String name() {
+        return "simulator";
+    }
+
+    @Override
+    public CompletableFuture<Result> debit(Debit debit) {
+        requests.increment();
+        inFlight.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        long delay = Math.max(0, latencyMs + (jitterMs > 0 ? random.nextLong(-jitterMs, jitterMs + 1) : 0));
+
+        CompletableFuture<Result> out;
+        if (roll < errorRate) {
+            out = CompletableFuture.supplyAsync(() -> {
+                errors.increment();
+                throw new IllegalStateException("Bank temporarily unavailable");
+            }, after(delay));
+        } else if (roll < errorRate + timeoutRate) {
+            slow.increment();
+            CompletableFuture<Result> applied = CompletableFuture.supplyAsync(() -> apply(debit), after(delay));
+            out = applied.thenApplyAsync(r -> r, after(timeoutDelayMs));
+        } else {
+            out = CompletableFuture.supplyAsync(() -> apply(debit), after(delay));
+        }
+        out.whenComplete((r, e) -> inFlight.decrementAndGet());
+        // A copy, so the caller's timeout can't complete (and cut short) the simulator's own future
+        return out.copy();
+    }
+
+    private Executor after(long delayMs) {
+        return CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, workers);
+    }
+
+    private Result apply(Debit debit) {
+        String reference = "SIM-" + debit.key();
+        KeyState k = keys.computeIfAbsent(debit.key(), key -> new KeyState());
+        k.lock.lock();
+        try {
+            if (k.reversed)
+                return new Result(false, reference, "Request was cancelled");
+            if (k.bankAccountId != null)
+                return new Result(true, reference, "Already processed");
+            long paise = debit.amount().paise();
+            Boolean ok = tx.execute(status -> bankRepo.debitIfSufficient(debit.bankAccountId(), paise) > 0);
+            if (Boolean.TRUE.equals(ok)) {
+                k.bankAccountId = debit.bankAccountId();
+                k.paise = paise;
+                approvals.increment();
+                return new Result(true, reference, "Approved");
+            }
+        } finally {
+            k.lock.unlock();
+        }
+        declines.increment();
+        Long balance = bankRepo.findBalancePaise(debit.bankAccountId());
+        return new Result(false, reference, "Insufficient Bank Balance! (Available: ₹"
+                + Money.ofPaise(balance == null ? 0 : balance) + ")");
+    }
+
+    @Override
+    public CompletableFuture<Void> reverse(String key) {
+        return CompletableFuture.runAsync(() -> {
+            // Marked even if the debit hasn't landed yet, so it is refused when it does
+            KeyState k = keys.computeIfAbsent(key, x -> new KeyState());
+            k.lock.lock();
+            try {
+                if (k.reversed)
+                    return;
+                k.reversed = true;
+                if (k.bankAccountId != null) {
+                    tx.executeWithoutResult(status -> bankRepo.credit(k.bankAccountId, k.paise));
+                    reversals.increment();
+                }
+            } finally {
+                k.lock.unlock();
+            }
+        }, workers);
+    }
+
+    @Scheduled(fixedDelayString = "${paythm.bank.sim.key-retention-ms:3600000}")
+    public void forgetOldKeys() {
+        long cutoff = System.currentTimeMillis() - keyRetentionMs;
+        keys.values().removeIf(k -> k.createdAt < cutoff);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("connector", name());
+        out.put("latencyMs", latencyMs);
+        out.put("jitterMs", jitterMs);
+        out.put("errorRate", errorRate);
+        out.put("timeoutRate", timeoutRate);
+        out.put("inFlight", inFlight.get());
+        out.put("requests", requests.sum());
+        out.put("approvals", approvals.sum());
+        out.put("declines", declines.sum());
+        out.put("errors", errors.sum());
+        out.put("slowResponses", slow.sum());
+        out.put("reversals", reversals.sum());
+        out.put("rememberedKeys", keys.size());
+        return out;
+    }
+}
@@ -0,0 +1,478 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.SeriesPoint;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * History totals per wallet, time bucket, type and category, so spend
+ * charts read a few hundred rollup rows instead of scanning the history.
+ *
+ * Every history row is added to its day's row (granularity D) in the
+ * payment transaction, like the wallet stats; credits to a sharded (hot)
+ * wallet land on a random slot and readers sum the slots. Weekly (W, weeks
+ * start on Monday) and monthly (M) rows are not written by payments: the
+ * compaction job folds finished days into them, one day and one wallet-id
+ * chunk per transaction, and drops daily rows once they are older than
+ * paythm.rollups.daily-retention-days. The single rollup_watermark row
+ * records how far it got and is locked by every chunk, so instances take
+ * turns.
+ *
+ * A weekly or monthly series is the stored W/M rows plus the daily rows the
+ * job has not folded yet, read in one snapshot together with the
+ * watermark, so a bucket is never missed or counted twice while the job
+ * runs. A day is only folded once it ended paythm.rollups.fold-grace-minutes
+ * ago; a row for an already folded day (a backdated posting) is added to
+ * its week and month as well, under the watermark lock.
+ *
+ * On first start with history but no rollups, daily rows are built from
+ * the transaction table in parallel wallet-id ranges; rows written before
+ * categories existed count as General.
+ */
+@Service
+public class SpendRollups {
+
+    public enum Granularity {
+        DAY("D"), WEEK("W"), MONTH("M");
+
+        final String code;
+
+        Granularity(String code) {
+            this.code = code;
+        }
+
+        public LocalDate start(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+
+        // Last day of the bucket holding 'day'
+        public LocalDate end(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> start(day).plusDays(6);
+                case MONTH -> day.with(TemporalAdjusters.lastDayOfMonth());
+            };
+        }
+
+        long buckets(LocalDate from, LocalDate to) {
+            ChronoUnit unit = switch (this) {
+                case DAY -> ChronoUnit.DAYS;
+                case WEEK -> ChronoUnit.WEEKS;
+                case MONTH -> ChronoUnit.MONTHS;
+            };
+            return unit.between(start(from), start(to)) + 1;
+        }
+
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new RuntimeException("Granularity must be day, week or month");
+            }
+        }
+    }
+
+    private static final int MAX_BUCKETS = 400;
+
+    private static final String UPSERT_SQL = "insert into spend_rollups (wallet_id, slot, granularity, bucket_start, "
+            + "type, category, total, tx_count) values (?, ?, ?, ?, ?, ?, ?, ?) on duplicate key update "
+            + "total = total + values(total), tx_count = tx_count + values(tx_count)";
+
+    // Derived table with its own column names: the update clause only sees the target's columns
+    private static final String FOLD_SQL = "insert into spend_rollups (wallet_id, slot, granularity, bucket_start, "
+            + "type, category, total, tx_count) select f.w, 0, ?, ?, f.t, f.c, f.s, f.n from ("
+            + "select wallet_id w, type t, category c, sum(total) s, sum(tx_count) n from spend_rollups "
+            + "where granularity = 'D' and bucket_start = ? and wallet_id between ? and ? "
+            + "group by wallet_id, type, category) f "
+            + "on duplicate key update total = total + values(total), tx_count = tx_count + values(tx_count)";
+
+    private static final String EXPIRE_SQL = "delete from spend_rollups "
+            + "where granularity = 'D' and bucket_start = ? and wallet_id between ? and ?";
+
+    private static final String NEXT_WALLET_SQL = "select min(wallet_id) from spend_rollups "
+            + "where granularity = 'D' and bucket_start = ? and wallet_id >= ?";
+
+    private static final String WATERMARK_SQL = "select folded_day, next_wallet_id from rollup_watermark "
+            + "where id = 1";
+
+    private static final String SERIES_SQL = "select bucket_start, type, category, sum(total), sum(tx_count) "
+            + "from spend_rollups where wallet_id = ? and granularity = ? and bucket_start between ? and ? "
+            + "group by bucket_start, type, category";
+
+    private static final String CLEAR_RANGE_SQL = "delete from spend_rollups where wallet_id between ? and ?";
+
+    private static final String BACKFILL_RANGE_SQL = "insert into spend_rollups (wallet_id, slot, granularity, "
+            + "bucket_start, type, category, total, tx_count) "
+            + "select wallet_id, 0, 'D', cast(timestamp as date), type, coalesce(category, '"
+            + SpendingCategories.GENERAL + "'), sum(amount), count(*) from transaction "
+            + "where wallet_id between ? and ? and timestamp is not null "
+            + "group by wallet_id, cast(timestamp as date), type, coalesce(category, '"
+            + SpendingCategories.GENERAL + "')";
+
+    private record Watermark(LocalDate foldedDay, long nextWalletId) {
+
+        // Days before this one are in the weekly and monthly rows for the wallet
+        LocalDate boundary(long walletId) {
+            return walletId < nextWalletId ? foldedDay.plusDays(1) : foldedDay;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final HotWalletShards hotWallets;
+    private final WalletRepository walletRepo;
+    private final int dailyRetentionDays;
+    private final long foldGraceMinutes;
+    private final int compactChunkSize;
+    private final int backfillThreads;
+
+    private final LongAdder upserts = new LongAdder();
+    private final LongAdder lateBuckets = new LongAdder();
+    private final LongAdder foldedChunks = new LongAdder();
+    private final LongAdder foldedDays = new LongAdder();
+    private final LongAdder seriesReads = new LongAdder();
+    private volatile long lastCompactMillis;
+    private volatile long backfillMillis = -1;
+    private volatile boolean backfilling;
+
+    public SpendRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+            HotWalletShards hotWallets, WalletRepository walletRepo,
+            @Value("${paythm.rollups.daily-retention-days:400}") int dailyRetentionDays,
+            @Value("${paythm.rollups.fold-grace-minutes:30}") long foldGraceMinutes,
+            @Value("${paythm.rollups.compact-chunk-size:1000}") int compactChunkSize,
+            @Value("${paythm.rollups.backfill-threads:4}") int backfillThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.hotWallets = hotWallets;
+        this.walletRepo = walletRepo;
+        this.dailyRetentionDays = dailyRetentionDays;
+        this.foldGraceMinutes = foldGraceMinutes;
+        this.compactChunkSize = compactChunkSize;
+        this.backfillThreads = backfillThreads;
+    }
+
+    // -------------------------------
+    // WRITE PATH
+    // -------------------------------
+    // Call inside the payment transaction, after the row's category is set
+    public void record(Transaction t) {
+        LocalDateTime at = t.getTimestamp() != null ? t.getTimestamp() : LocalDateTime.now();
+        Bucket b = new Bucket(t.getWallet().getId(), at.toLocalDate(), t.getType(), category(t.getCategory()));
+        b.add(t.getAmount().paise());
+        write(List.of(b), 1);
+    }
+
+    // Bulk path: one upsert per (wallet, day, type, category), in wallet-id order
+    public void recordAll(List<HistoryEntry> entries, int batchSize) {
+        Map<String, Bucket> byBucket = new TreeMap<>();
+        for (HistoryEntry e : entries) {
+            LocalDate day = e.at().toLocalDate();
+            String category = category(e.category());
+            byBucket.computeIfAbsent(String.format("%019d|%s|%s|%s", e.walletId(), day, e.type(), category),
+                    k -> new Bucket(e.walletId(), day, e.type(), category)).add(e.paise());
+        }
+        write(new ArrayList<>(byBucket.values()), batchSize);
+    }
+
+    private static final class Bucket {
+        final Long walletId;
+        final LocalDate day;
+        final String type;
+        final String category;
+        long paise;
+        long count;
+
+        Bucket(Long walletId, LocalDate day, String type, String category) {
+            this.walletId = walletId;
+            this.day = day;
+            this.type = type;
+            this.category = category;
+        }
+
+        void add(long amount) {
+            paise = Math.addExact(paise, amount);
+            count++;
+        }
+
+        Object[] row(Granularity g, int slot) {
+            return new Object[] { walletId, slot, g.code, Date.valueOf(g.start(day)), type, category, paise, count };
+        }
+    }
+
+    private void write(List<Bucket> buckets, int batchSize) {
+        List<Object[]> rows = new ArrayList<>(buckets.size());
+        List<Bucket> late = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Bucket b : buckets) {
+            rows.add(b.row(Granularity.DAY, slotFor(b.walletId, b.type)));
+            if (foldable(b.day, now))
+                late.add(b);
+        }
+        if (!late.isEmpty())
+            rows.addAll(lateRows(late));
+        if (rows.size() == 1)
+            jdbcTemplate.update(UPSERT_SQL, rows.get(0));
+        else
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++)
+                    ps.setObject(i + 1, row[i]);
+            });
+        upserts.add(rows.size());
+    }
+
+    /**
+     * Weekly and monthly rows for buckets whose day the job may have folded
+     * already. The watermark lock orders this against a compaction chunk:
+     * either the chunk folded the day for the wallet and the row goes to its
+     * week and month here, or it has not and will fold the daily row.
+     */
+    private List<Object[]> lateRows(List<Bucket> late) {
+        List<Object[]> rows = new ArrayList<>();
+        List<Watermark> locked = jdbcTemplate.query(WATERMARK_SQL + " for update", this::watermark);
+        if (locked.isEmpty())
+            return rows;
+        for (Bucket b : late) {
+            if (!b.day.isBefore(locked.get(0).boundary(b.walletId)))
+                continue;
+            rows.add(b.row(Granularity.WEEK, 0));
+            rows.add(b.row(Granularity.MONTH, 0));
+            lateBuckets.increment();
+        }
+        return rows;
+    }
+
+    private Watermark watermark(ResultSet rs, int rowNum) throws SQLException {
+        return new Watermark(rs.getDate(1).toLocalDate(), rs.getLong(2));
+    }
+
+    private static String category(String category) {
+        return category == null ? SpendingCategories.GENERAL : category;
+    }
+
+    // Only credits are spread; a wallet's own debits stay on slot 0
+    private int slotFor(Long walletId, String type) {
+        int slots = "CREDIT".equals(type) ? hotWallets.slotsOf(walletId) : 0;
+        return slots == 0 ? 0 : ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    // A day may be folded once it ended more than the grace period ago
+    private boolean foldable(LocalDate day, LocalDateTime now) {
+        return !day.plusDays(1).atStartOfDay().plusMinutes(foldGraceMinutes).isAfter(now);
+    }
+
+    // -------------------------------
+    // COMPACTION
+    // -------------------------------
+    @Scheduled(fixedDelayString = "${paythm.rollups.compact-interval-ms:300000}",
+            initialDelayString = "${paythm.rollups.compact-interval-ms:300000}")
+    public void compact() {
+        if (backfilling)
+            return; // the watermark starts at the oldest daily row
+        long start = System.currentTimeMillis();
+        initWatermark();
+        while (compactChunk(LocalDateTime.now())) {
+            // one day and one wallet-id chunk per transaction
+        }
+        lastCompactMillis = System.currentTimeMillis() - start;
+    }
+
+    private void initWatermark() {
+        if (!jdbcTemplate.queryForList("select id from rollup_watermark where id = 1", Integer.class).isEmpty())
+            return;
+        LocalDate first = jdbcTemplate.queryForObject(
+                "select min(bucket_start) from spend_rollups where granularity = 'D'", LocalDate.class);
+        try {
+            jdbcTemplate.update("insert into rollup_watermark (id, folded_day, next_wallet_id) values (1, ?, 0)",
+                    Date.valueOf(first != null ? first : LocalDate.now()));
+        } catch (DuplicateKeyException e) {
+            // another instance created it first
+        }
+    }
+
+    // False once every finished day is folded
+    boolean compactChunk(LocalDateTime now) {
+        Boolean progressed = tx.execute(status -> {
+            List<Watermark> locked = jdbcTemplate.query(WATERMARK_SQL + " for update", this::watermark);
+            if (locked.isEmpty())
+                return false;
+            LocalDate day = locked.get(0).foldedDay();
+            if (!foldable(day, now))
+                return false;
+            LocalDate expiring = day.minusDays(dailyRetentionDays);
+
+            // Skip wallet ranges without daily rows on either day
+            Long lo = min(next(day, locked.get(0).nextWalletId()), next(expiring, locked.get(0).nextWalletId()));
+            if (lo == null) {
+                jdbcTemplate.update("update rollup_watermark set folded_day = ?, next_wallet_id = 0 where id = 1",
+                        Date.valueOf(day.plusDays(1)));
+                foldedDays.increment();
+                return true;
+            }
+            long hi = lo + compactChunkSize - 1;
+            Date d = Date.valueOf(day);
+            jdbcTemplate.update(FOLD_SQL, Granularity.WEEK.code, Date.valueOf(Granularity.WEEK.start(day)), d, lo, hi);
+            jdbcTemplate.update(FOLD_SQL, Granularity.MONTH.code, Date.valueOf(Granularity.MONTH.start(day)), d, lo,
+                    hi);
+            jdbcTemplate.update(EXPIRE_SQL, Date.valueOf(expiring), lo, hi);
+            jdbcTemplate.update("update rollup_watermark set next_wallet_id = ? where id = 1", hi + 1);
+            foldedChunks.increment();
+            return true;
+        });
+        return Boolean.TRUE.equals(progressed);
+    }
+
+    private Long next(LocalDate day, long fromWalletId) {
+        return jdbcTemplate.queryForObject(NEXT_WALLET_SQL, Long.class, Date.valueOf(day), fromWalletId);
+    }
+
+    private static Long min(Long a, Long b) {
+        if (a == null || b == null)
+            return a == null ? b : a;
+        return Math.min(a, b);
+    }
+
+    // -------------------------------
+    // READ
+    // -------------------------------
+    /**
+     * Points for every bucket overlapping from..to, whole buckets (a monthly
+     * series from the 15th starts with the full month), ordered by bucket,
+     * type and category. Buckets without history have no points.
+     */
+    @Transactional(readOnly = true)
+    public List<SeriesPoint> series(Long userId, Granularity g, LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new RuntimeException("'from' must not be after 'to'");
+        if (g.buckets(from, to) > MAX_BUCKETS)
+            throw new RuntimeException("At most " + MAX_BUCKETS + " buckets per series");
+        if (g == Granularity.DAY && from.isBefore(LocalDate.now().minusDays(dailyRetentionDays - 1)))
+            throw new RuntimeException("Daily series only go back " + dailyRetentionDays
+                    + " days; use week or month");
+        Long walletId = walletRepo.findIdByUserId(userId).orElseThrow(() -> new RuntimeException("Wallet not found"));
+        seriesReads.increment();
+
+        Map<String, SeriesPoint> points = new TreeMap<>();
+        LocalDate first = g.start(from);
+        if (g == Granularity.DAY) {
+            read(points, g, walletId, Granularity.DAY, from, to);
+        } else {
+            // Watermark first: rows read after it in this snapshot agree with it
+            List<Watermark> wm = jdbcTemplate.query(WATERMARK_SQL, this::watermark);
+            LocalDate boundary = wm.isEmpty() ? first : wm.get(0).boundary(walletId);
+            read(points, g, walletId, g, first, g.start(to));
+            LocalDate unfolded = boundary.isAfter(first) ? boundary : first;
+            if (!unfolded.isAfter(g.end(to)))
+                read(points, g, walletId, Granularity.DAY, unfolded, g.end(to));
+        }
+        return new ArrayList<>(points.values());
+    }
+
+    // Adds 'stored' rows between from and to into the buckets of 'g'
+    private void read(Map<String, SeriesPoint> points, Granularity g, Long walletId, Granularity stored,
+            LocalDate from, LocalDate to) {
+        jdbcTemplate.query(SERIES_SQL, rs -> {
+            LocalDate bucket = g.start(rs.getDate(1).toLocalDate());
+            SeriesPoint p = new SeriesPoint(bucket, rs.getString(2), rs.getString(3), Money.ofPaise(rs.getLong(4)),
+                    rs.getLong(5));
+            points.merge(bucket + "|" + p.type() + "|" + p.category(), p, (a, b) -> new SeriesPoint(a.bucket(),
+                    a.type(), a.category(), a.total().plus(b.total()), a.count() + b.count()));
+        }, walletId, stored.code, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // -------------------------------
+    // BACKFILL
+    // -------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (jdbcTemplate.queryForList("select id from spend_rollups limit 1", Long.class).isEmpty()
+                && !jdbcTemplate.queryForList("select id from transaction limit 1", Long.class).isEmpty())
+        {
+            backfilling = true;
+            Thread.ofVirtual().name("rollup-backfill").start(this::backfill);
+        }
+    }
+
+    // Daily rows from the history, one DELETE + INSERT ... SELECT per wallet-id range (empty table only)
+    void backfill() {
+        long start = System.currentTimeMillis();
+        Long minId = jdbcTemplate.queryForObject("select min(id) from wallet", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from wallet", Long.class);
+        if (minId == null || maxId == null) {
+            backfilling = false;
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(backfillThreads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += compactChunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + compactChunkSize - 1);
+                chunks.add(pool.submit(() -> tx.executeWithoutResult(status -> {
+                    jdbcTemplate.update(CLEAR_RANGE_SQL, lo, hi);
+                    jdbcTemplate.update(BACKFILL_RANGE_SQL, lo, hi);
+                })));
+            }
+            for (Future<?> chunk : chunks)
+                chunk.get();
+            backfillMillis = System.currentTimeMillis() - start;
+            System.out.println("✔ Built daily rollups for wallets " + minId + ".." + maxId + " in "
+                    + backfillMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Rollup backfill failed: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+            backfilling = false;
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("upserts", upserts.sum());
+        out.put("lateBuckets", lateBuckets.sum());
+        out.put("foldedChunks", foldedChunks.sum());
+        out.put("foldedDays", foldedDays.sum());
+        out.put("lastCompactMillis", lastCompactMillis);
+        out.put("seriesReads", seriesReads.sum());
+        out.put("dailyRetentionDays", dailyRetentionDays);
+        if (backfillMillis >= 0)
+            out.put("backfillMillis", backfillMillis);
+        return out;
+    }
+}
@@ -0,0 +1,289 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.CategoryOverride;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.repository.CategoryOverrideRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Assigns every history row a spending category when it is written and
+ * keeps per-wallet monthly totals per category.
+ *
+ * A row's category is, in order: the user's override for the counterparty,
+ * the merchant keyword found in the counterparty, the one found in the
+ * message, or General. Keywords are matched in one pass by a
+ * {@link KeywordMatcher}; counterparty results are cached, since the same
+ * merchants come up again and again.
+ *
+ * DEBIT rows are added to category_spend (wallet, month, category) in the
+ * payment transaction, so the top category and per-category spend of a
+ * month are one indexed read. Rows written before categories existed stay
+ * uncategorized and are not in the totals.
+ */
+@Service
+public class SpendingCategories {
+
+    public static final String GENERAL = "General";
+
+    private static final Map<String, List<String>> MERCHANT_KEYWORDS = Map.of(
+            "Groceries", List.of("bigbasket", "blinkit", "zepto", "instamart", "dmart", "jiomart", "grofers",
+                    "reliance fresh", "more supermarket", "nature's basket", "supermarket", "grocery", "groceries",
+                    "kirana"),
+            "Dining Out", List.of("swiggy", "zomato", "eatsure", "dineout", "uber eats", "dominos", "domino's",
+                    "pizza hut", "mcdonalds", "mcdonald's", "kfc", "burger king", "starbucks", "cafe coffee day",
+                    "haldiram", "restaurant", "cafe", "dhaba"),
+            "Transport", List.of("uber", "ola", "rapido", "namma yatri", "irctc", "redbus", "metro", "fastag",
+                    "indian oil", "bharat petroleum", "hp petrol", "petrol", "fuel", "parking"),
+            "Utilities", List.of("electricity", "bescom", "tata power", "adani electricity", "mahanagar gas",
+                    "indane", "gas bill", "water bill", "airtel", "jio", "vodafone", "bsnl", "act fibernet",
+                    "broadband", "recharge", "tata play", "dth"),
+            "Entertainment", List.of("netflix", "prime video", "hotstar", "sony liv", "zee5", "spotify", "gaana",
+                    "youtube premium", "bookmyshow", "pvr", "inox", "steam", "playstation"),
+            "Shopping", List.of("amazon", "flipkart", "myntra", "ajio", "meesho", "nykaa", "tata cliq", "croma",
+                    "reliance digital", "decathlon", "ikea"),
+            "Health", List.of("apollo", "pharmeasy", "netmeds", "1mg", "medplus", "practo", "cult.fit", "cultfit",
+                    "pharmacy", "hospital", "clinic"),
+            "Travel", List.of("makemytrip", "goibibo", "cleartrip", "ixigo", "yatra", "indigo", "air india",
+                    "vistara", "spicejet", "oyo", "airbnb", "hotel"),
+            "Savings", List.of("saved to goal"));
+
+    private static final String ROLLUP_SQL = "insert into category_spend (wallet_id, spend_month, category, total, "
+            + "tx_count) values (?, ?, ?, ?, ?) on duplicate key update "
+            + "total = total + values(total), tx_count = tx_count + values(tx_count)";
+
+    private static final String MONTH_SQL = "select c.category, c.total from category_spend c "
+            + "join wallet w on w.id = c.wallet_id where w.user_id = ? and c.spend_month = ? "
+            + "order by c.total desc, c.category";
+
+    private static final String NO_MATCH = "";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryOverrideRepository overrideRepo;
+    private final WalletRepository walletRepo;
+    private final KeywordMatcher<String> matcher;
+    private final int maxCachedCounterparties;
+
+    private final ConcurrentHashMap<String, String> byCounterparty = new ConcurrentHashMap<>();
+    // Only wallets in this set are looked up; refreshed for overrides made on other instances
+    private volatile Set<Long> walletsWithOverrides = Set.of();
+    private final ConcurrentHashMap<Long, Map<String, String>> overridesByWallet = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder overridden = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+
+    public SpendingCategories(JdbcTemplate jdbcTemplate, CategoryOverrideRepository overrideRepo,
+            WalletRepository walletRepo,
+            @Value("${paythm.categories.max-cached-counterparties:100000}") int maxCachedCounterparties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.overrideRepo = overrideRepo;
+        this.walletRepo = walletRepo;
+        this.maxCachedCounterparties = maxCachedCounterparties;
+        Map<String, String> keywords = new HashMap<>();
+        MERCHANT_KEYWORDS.forEach((category, words) -> words.forEach(w -> keywords.put(w, category)));
+        this.matcher = new KeywordMatcher<>(keywords);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${paythm.categories.override-refresh-ms:60000}",
+            initialDelayString = "${paythm.categories.override-refresh-ms:60000}")
+    public void refresh() {
+        walletsWithOverrides = Set.copyOf(overrideRepo.findWalletIds());
+        overridesByWallet.clear();
+    }
+
+    // -------------------------------
+    // CLASSIFY
+    // -------------------------------
+    public String categorize(Long walletId, String counterparty, String message) {
+        String key = key(counterparty);
+        if (key != null && walletsWithOverrides.contains(walletId)) {
+            String own = overridesByWallet.computeIfAbsent(walletId, this::loadOverrides).get(key);
+            if (own != null) {
+                overridden.increment();
+                return own;
+            }
+        }
+        String category = key == null ? NO_MATCH : byCounterparty.get(key);
+        if (category == null) {
+            cacheMisses.increment();
+            category = orNoMatch(matcher.match(key));
+            if (byCounterparty.size() >= maxCachedCounterparties)
+                evict();
+            byCounterparty.put(key, category);
+        } else if (key != null) {
+            cacheHits.increment();
+        }
+        if (category.isEmpty())
+            category = orNoMatch(matcher.match(message));
+        if (category.isEmpty()) {
+            unmatched.increment();
+            return GENERAL;
+        }
+        return category;
+    }
+
+    private static String orNoMatch(String category) {
+        return category == null ? NO_MATCH : category;
+    }
+
+    private Map<String, String> loadOverrides(Long walletId) {
+        Map<String, String> out = new HashMap<>();
+        for (CategoryOverride o : overrideRepo.findByWalletIdOrderByCounterpartyKey(walletId))
+            out.put(o.getCounterpartyKey(), o.getCategory());
+        return out;
+    }
+
+    private void evict() {
+        // Drop ~1% of entries; hash order is effectively random
+        int toRemove = Math.max(1, maxCachedCounterparties / 100);
+        Iterator<String> it = byCounterparty.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    static String key(String counterparty) {
+        if (counterparty == null || counterparty.isBlank())
+            return null;
+        String k = counterparty.trim().toLowerCase(Locale.ROOT);
+        return k.length() > 191 ? k.substring(0, 191) : k;
+    }
+
+    static int month(LocalDateTime at) {
+        return at.getYear() * 100 + at.getMonthValue();
+    }
+
+    // -------------------------------
+    // WRITE PATH
+    // -------------------------------
+    // Call inside the payment transaction, before the history row is written
+    public void record(Transaction t) {
+        if (t.getCategory() == null)
+            t.setCategory(categorize(t.getWallet().getId(), t.getCounterparty(), t.getMessage()));
+        if (!"DEBIT".equals(t.getType()))
+            return;
+        LocalDateTime at = t.getTimestamp() != null ? t.getTimestamp() : LocalDateTime.now();
+        jdbcTemplate.update(ROLLUP_SQL, t.getWallet().getId(), month(at), t.getCategory(), t.getAmount().paise(), 1);
+    }
+
+    // Bulk path: one upsert per (wallet, month, category)
+    public void recordAll(List<HistoryEntry> entries, int batchSize) {
+        Map<String, Object[]> rows = new TreeMap<>();
+        for (HistoryEntry s : entries) {
+            if (!"DEBIT".equals(s.type()))
+                continue;
+            int month = month(s.at());
+            Object[] row = rows.computeIfAbsent(s.walletId() + "|" + month + "|" + s.category(),
+                    k -> new Object[] { s.walletId(), month, s.category(), 0L, 0L });
+            row[3] = (Long) row[3] + s.paise();
+            row[4] = (Long) row[4] + 1;
+        }
+        jdbcTemplate.batchUpdate(ROLLUP_SQL, new ArrayList<>(rows.values()), batchSize, (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setInt(2, (Integer) row[1]);
+            ps.setString(3, (String) row[2]);
+            ps.setLong(4, (Long) row[3]);
+            ps.setLong(5, (Long) row[4]);
+        });
+    }
+
+    // -------------------------------
+    // READ
+    // -------------------------------
+    // Category -> DEBIT total for the month, largest first
+    public Map<String, Money> monthlySpend(Long userId, YearMonth month) {
+        Map<String, Money> out = new LinkedHashMap<>();
+        jdbcTemplate.query(MONTH_SQL, rs -> {
+            out.put(rs.getString(1), Money.ofPaise(rs.getLong(2)));
+        }, userId, month.getYear() * 100 + month.getMonthValue());
+        return out;
+    }
+
+    public String topCategory(Map<String, Money> monthlySpend) {
+        return monthlySpend.isEmpty() ? GENERAL : monthlySpend.keySet().iterator().next();
+    }
+
+    // -------------------------------
+    // OVERRIDES
+    // -------------------------------
+    @Transactional
+    public CategoryOverride setOverride(Long userId, String counterparty, String category) {
+        Long walletId = walletRepo.findIdByUserId(userId).orElseThrow(() -> new RuntimeException("Wallet not found"));
+        String key = key(counterparty);
+        if (key == null)
+            throw new RuntimeException("Counterparty is required");
+        String name = category == null ? "" : category.trim();
+        if (name.isEmpty() || name.length() > 32)
+            throw new RuntimeException("Category must be 1-32 characters");
+
+        CategoryOverride o = overrideRepo.findByWalletIdAndCounterpartyKey(walletId, key).orElseGet(() -> {
+            CategoryOverride fresh = new CategoryOverride();
+            fresh.setWalletId(walletId);
+            fresh.setCounterpartyKey(key);
+            return fresh;
+        });
+        o.setCategory(name);
+        o.setUpdatedAt(LocalDateTime.now());
+        o = overrideRepo.save(o);
+        AfterCommit.run(() -> overridesChanged(walletId));
+        return o;
+    }
+
+    @Transactional
+    public void removeOverride(Long userId, String counterparty) {
+        Long walletId = walletRepo.findIdByUserId(userId).orElseThrow(() -> new RuntimeException("Wallet not found"));
+        CategoryOverride o = overrideRepo.findByWalletIdAndCounterpartyKey(walletId, key(counterparty))
+                .orElseThrow(() -> new RuntimeException("Override not found"));
+        overrideRepo.delete(o);
+        AfterCommit.run(() -> overridesChanged(walletId));
+    }
+
+    public List<CategoryOverride> overrides(Long userId) {
+        return walletRepo.findIdByUserId(userId).map(overrideRepo::findByWalletIdOrderByCounterpartyKey)
+                .orElse(List.of());
+    }
+
+    private void overridesChanged(Long walletId) {
+        Set<Long> next = new HashSet<>(walletsWithOverrides);
+        next.add(walletId); // an emptied wallet drops out at the next refresh
+        walletsWithOverrides = Set.copyOf(next);
+        overridesByWallet.remove(walletId);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("keywords", matcher.size());
+        out.put("cachedCounterparties", byCounterparty.size());
+        out.put("cacheHits", cacheHits.sum());
+        out.put("cacheMisses", cacheMisses.sum());
+        out.put("overridden", overridden.sum());
+        out.put("unmatched", unmatched.sum());
+        out.put("walletsWithOverrides", walletsWithOverrides.size());
+        return out;
+    }
+}
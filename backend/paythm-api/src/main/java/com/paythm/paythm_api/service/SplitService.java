@@ -1,6 +1,7 @@
 package com.paythm.paythm_api.service;
 
 import com.paythm.paythm_api.entity.BillSplit;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -11,18 +12,22 @@ public class SplitService {
 
     private final com.paythm.paythm_api.repository.BillSplitRepository repo;
     private final com.paythm.paythm_api.repository.UserRepository userRepo;
+    private final ApplicationEventPublisher events;
 
     public SplitService(com.paythm.paythm_api.repository.BillSplitRepository repo,
-            com.paythm.paythm_api.repository.UserRepository userRepo) {
+            com.paythm.paythm_api.repository.UserRepository userRepo, ApplicationEventPublisher events) {
         this.repo = repo;
         this.userRepo = userRepo;
+        this.events = events;
     }
 
     public BillSplit addSplit(BillSplit split, Long userId) {
         com.paythm.paythm_api.entity.User user = userRepo.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         split.setUser(user);
-        return repo.save(split);
+        BillSplit saved = repo.save(split);
+        events.publishEvent(new InsightsCache.Changed(userId));
+        return saved;
     }
 
     public List<BillSplit> getSplits(Long userId) {
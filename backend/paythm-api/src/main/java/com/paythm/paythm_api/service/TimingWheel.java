@@ -0,0 +1,127 @@
+package com.paythm.paythm_api.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (the cascading layout of the Linux kernel timer
+ * wheel). Not thread-safe; callers synchronize.
+ *
+ * Time is counted in ticks. Level L has 'size' slots of size^L ticks each.
+ * An item goes to the lowest level whose next-higher block it shares with
+ * the current tick, so scheduling is O(1) whatever the delay. Each time the
+ * clock enters a new level-L block, that block's slot is cascaded: its items
+ * are re-inserted one or more levels lower. Level-0 slots fire. Items
+ * beyond the top level wait in an overflow list that is re-examined
+ * whenever the top level wraps.
+ *
+ * Advancing costs one slot visit per elapsed tick plus the items moved, and
+ * it never depends on how many items are waiting further out.
+ */
+public class TimingWheel<T> {
+
+    private record Item<T>(T value, long dueTick) {
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final ArrayDeque<Item<T>>[][] slots;
+    private final List<Item<T>> overflow = new ArrayList<>();
+    private final List<T> ready = new ArrayList<>(); // due before they were scheduled
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1 || wheelSize < 2)
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        if (levels < 1 || (long) Integer.numberOfTrailingZeros(wheelSize) * levels > 62)
+            throw new IllegalArgumentException("Unsupported number of levels");
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.slots = new ArrayDeque[levels][wheelSize];
+        for (int l = 0; l < levels; l++)
+            for (int s = 0; s < wheelSize; s++)
+                slots[l][s] = new ArrayDeque<>();
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public void schedule(T value, long dueMillis) {
+        size++;
+        long dueTick = Math.ceilDiv(dueMillis, tickMillis); // never fire early
+        if (dueTick <= currentTick) {
+            ready.add(value);
+            return;
+        }
+        place(new Item<>(value, dueTick));
+    }
+
+    private void place(Item<T> item) {
+        for (int l = 0; l < levels; l++) {
+            int shift = bits * (l + 1);
+            if ((item.dueTick() >>> shift) == (currentTick >>> shift)) {
+                slots[l][(int) (item.dueTick() >>> (bits * l)) & mask].add(item);
+                return;
+            }
+        }
+        overflow.add(item);
+    }
+
+    /**
+     * Moves the clock to 'nowMillis' and returns every item that came due,
+     * in due order (ties in scheduling order).
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>(ready);
+        ready.clear();
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Item<T>> slot = slots[0][(int) currentTick & mask];
+            while (!slot.isEmpty())
+                due.add(slot.poll().value());
+        }
+        size -= due.size();
+        return due;
+    }
+
+    private void cascade() {
+        // Highest level first, so items can drop through several levels in one tick
+        int top = 0;
+        for (int l = 1; l < levels; l++) {
+            if ((currentTick & ((1L << (bits * l)) - 1)) != 0)
+                break;
+            top = l;
+        }
+        if (top == levels - 1 && (currentTick & ((1L << (bits * levels)) - 1)) == 0 && !overflow.isEmpty()) {
+            List<Item<T>> pending = new ArrayList<>(overflow);
+            overflow.clear();
+            pending.forEach(this::place);
+        }
+        for (int l = top; l >= 1; l--) {
+            ArrayDeque<Item<T>> slot = slots[l][(int) (currentTick >>> (bits * l)) & mask];
+            List<Item<T>> moved = new ArrayList<>(slot);
+            slot.clear();
+            for (Item<T> item : moved) {
+                if (item.dueTick() <= currentTick)
+                    slots[0][(int) currentTick & mask].add(item);
+                else
+                    place(item);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentMillis() {
+        return currentTick * tickMillis;
+    }
+}
@@ -0,0 +1,186 @@
+package com.paythm.paythm_api.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every transaction (admin export) straight from a forward-only
+ * JDBC cursor to the response as NDJSON or CSV. Rows are written as they
+ * arrive and never collected, so heap use stays flat whatever the table size.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String EXPORT_SQL = "select t.id, w.user_id, t.amount, t.type, t.message, t.counterparty, "
+            + "t.status, t.timestamp from transaction t join wallet w on w.id = t.wallet_id";
+
+    private final JdbcTemplate streamingJdbc;
+
+    public TransactionExportService(DataSource dataSource) {
+        this.streamingJdbc = new JdbcTemplate(dataSource);
+        // MySQL Connector/J only streams row-by-row with this fetch size
+        this.streamingJdbc.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public void export(OutputStream out, boolean csv, boolean gzip, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        StringBuilder sql = new StringBuilder(EXPORT_SQL);
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(args.isEmpty() ? " where" : " and").append(" t.timestamp >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(args.isEmpty() ? " where" : " and").append(" t.timestamp < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" order by t.id");
+
+        GZIPOutputStream gz = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gz != null ? gz : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(256);
+
+        if (csv)
+            writer.write("id,userId,amount,type,message,counterparty,status,timestamp\n");
+
+        try {
+            streamingJdbc.query(sql.toString(), rs -> {
+                line.setLength(0);
+                if (csv)
+                    csvRow(rs, line);
+                else
+                    jsonRow(rs, line);
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gz != null)
+            gz.finish();
+    }
+
+    // -------------------------------
+    // ROW FORMATS
+    // -------------------------------
+    private static void jsonRow(ResultSet rs, StringBuilder sb) throws SQLException {
+        sb.append("{\"id\":").append(rs.getLong(1));
+        sb.append(",\"userId\":").append(rs.getLong(2));
+        sb.append(",\"amount\":");
+        rupees(sb, rs.getLong(3));
+        sb.append(",\"type\":");
+        jsonString(sb, rs.getString(4));
+        sb.append(",\"message\":");
+        jsonString(sb, rs.getString(5));
+        sb.append(",\"counterparty\":");
+        jsonString(sb, rs.getString(6));
+        sb.append(",\"status\":");
+        jsonString(sb, rs.getString(7));
+        sb.append(",\"timestamp\":");
+        Timestamp ts = rs.getTimestamp(8);
+        jsonString(sb, ts == null ? null : ts.toLocalDateTime().toString());
+        sb.append("}\n");
+    }
+
+    private static void csvRow(ResultSet rs, StringBuilder sb) throws SQLException {
+        sb.append(rs.getLong(1)).append(',');
+        sb.append(rs.getLong(2)).append(',');
+        rupees(sb, rs.getLong(3));
+        sb.append(',');
+        csvField(sb, rs.getString(4));
+        sb.append(',');
+        csvField(sb, rs.getString(5));
+        sb.append(',');
+        csvField(sb, rs.getString(6));
+        sb.append(',');
+        csvField(sb, rs.getString(7));
+        sb.append(',');
+        Timestamp ts = rs.getTimestamp(8);
+        csvField(sb, ts == null ? null : ts.toLocalDateTime().toString());
+        sb.append('\n');
+    }
+
+    // Paise column -> "1250.05" without going through double or BigDecimal
+    private static void rupees(StringBuilder sb, long paise) {
+        if (paise < 0) {
+            sb.append('-');
+            paise = -paise;
+        }
+        long fraction = paise % 100;
+        sb.append(paise / 100).append('.');
+        if (fraction < 10)
+            sb.append('0');
+        sb.append(fraction);
+    }
+
+    private static void jsonString(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void csvField(StringBuilder sb, String s) {
+        if (s == null)
+            return;
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"')
+                sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,393 @@
+package com.paythm.paythm_api.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Segmented, memory-mapped, append-only log with group commit.
+ *
+ * Records are [int length][int crc32c][payload] laid out back to back in
+ * fixed-size segment files (journal-NNNNNNNN.seg). A position is a global
+ * byte offset: segment index * segment size + offset in the segment.
+ *
+ * Appends only copy bytes into the mapped segment. A single flusher thread
+ * forces everything written so far in one msync and then wakes every
+ * waiter whose record is covered, so concurrent writers share one fsync.
+ *
+ * On open the tail segment is scanned; the first record with a bad length
+ * or checksum ends the log and the rest of the segment is zeroed, so a torn
+ * write (or stale bytes behind it) can never come back as a valid record.
+ * Readers only see records below the durable position. The checkpoint is
+ * the position up to which a consumer has applied the log; whole segments
+ * below it are deleted.
+ *
+ * Positions restart at 0 in a new directory, so each directory also gets a
+ * random id on first open; id + position names a record uniquely across
+ * instances and across a wiped journal.
+ */
+public class TransactionJournal implements Closeable {
+
+    public record Entry(long position, long next, byte[] payload) {
+    }
+
+    private static final int HEADER = 8;
+    private static final int SKIP = -1; // rest of the segment is unused, continue in the next one
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String ID = "journal-id";
+
+    private final Path dir;
+    private final String id;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushNeeded = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+
+    private volatile long written; // end of the last appended record
+    private volatile long durable; // everything below is on disk
+    private volatile long checkpoint;
+    private volatile IOException flushError;
+    private volatile boolean closed;
+    private final AtomicLong forces = new AtomicLong();
+    private final Thread flusher;
+
+    public TransactionJournal(Path dir, int segmentSize) throws IOException {
+        if (segmentSize < 64)
+            throw new IllegalArgumentException("Segment size too small");
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+        this.id = readOrCreateId();
+        this.checkpoint = readCheckpoint();
+        recover();
+        this.flusher = Thread.ofPlatform().daemon().name("journal-flusher").start(this::flushLoop);
+    }
+
+    // -------------------------------
+    // APPEND / GROUP COMMIT
+    // -------------------------------
+    // Returns the position just past the record; pass it to awaitDurable
+    public long append(byte[] payload) {
+        int size = HEADER + payload.length;
+        if (size > segmentSize)
+            throw new IllegalArgumentException("Record larger than a segment");
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        appendLock.lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("Journal is closed");
+            long pos = written;
+            int offset = offsetOf(pos);
+            if (offset + size > segmentSize) {
+                // Mark the unused tail and roll over
+                if (segmentSize - offset >= 4)
+                    segment(indexOf(pos)).putInt(offset, SKIP);
+                pos = (indexOf(pos) + 1) * segmentSize;
+                offset = 0;
+            }
+            MappedByteBuffer buf = segment(indexOf(pos));
+            buf.put(offset + HEADER, payload);
+            buf.putInt(offset + 4, (int) crc.getValue());
+            buf.putInt(offset, payload.length); // length last: a record is visible only once complete
+            written = pos + size;
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void awaitDurable(long position) throws IOException, InterruptedException {
+        if (durable >= position)
+            return;
+        flushLock.lock();
+        try {
+            flushNeeded.signal();
+            while (durable < position) {
+                if (flushError != null)
+                    throw flushError;
+                if (!flusher.isAlive())
+                    throw new IOException("Journal closed before the record was flushed");
+                flushed.await();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            flushLock.lock();
+            try {
+                while (!closed && written == durable)
+                    flushNeeded.awaitUninterruptibly();
+                if (closed && written == durable) {
+                    flushed.signalAll();
+                    return;
+                }
+                target = written;
+            } finally {
+                flushLock.unlock();
+            }
+
+            try {
+                force(durable, target);
+                forces.incrementAndGet();
+            } catch (IOException | UncheckedIOException e) {
+                flushError = e instanceof IOException io ? io : ((UncheckedIOException) e).getCause();
+            }
+
+            flushLock.lock();
+            try {
+                if (flushError == null)
+                    durable = target;
+                flushed.signalAll();
+                if (flushError != null)
+                    return;
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void force(long from, long to) throws IOException {
+        for (long index = indexOf(from); index <= indexOf(Math.max(from, to - 1)); index++) {
+            MappedByteBuffer buf = segment(index);
+            int start = index == indexOf(from) ? offsetOf(from) : 0;
+            int end = index == indexOf(to) ? offsetOf(to) : segmentSize;
+            if (end > start)
+                buf.force(start, end - start);
+        }
+    }
+
+    // -------------------------------
+    // READ / CHECKPOINT
+    // -------------------------------
+    // Durable records starting at 'position', at most 'max' of them
+    public List<Entry> read(long position, int max) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        long pos = position;
+        long end = durable;
+        while (out.size() < max && pos < end) {
+            MappedByteBuffer buf = segment(indexOf(pos));
+            int offset = offsetOf(pos);
+            int length = segmentSize - offset >= 4 ? buf.getInt(offset) : SKIP;
+            if (length == SKIP) {
+                pos = (indexOf(pos) + 1) * segmentSize;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            buf.get(offset + HEADER, payload);
+            long next = pos + HEADER + length;
+            out.add(new Entry(pos, next, payload));
+            pos = next;
+        }
+        return out;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    // Persist the applied position (write-then-rename) and drop fully applied segments
+    public void checkpoint(long position) throws IOException {
+        if (position <= checkpoint)
+            return;
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocate(12).putLong(position);
+            b.putInt(crcOf(position)).flip();
+            ch.write(b);
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = position;
+
+        long keepFrom = indexOf(position);
+        for (Map.Entry<Long, MappedByteBuffer> e : segments.headMap(keepFrom).entrySet()) {
+            segments.remove(e.getKey());
+            Files.deleteIfExists(segmentPath(e.getKey()));
+        }
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public long writtenPosition() {
+        return written;
+    }
+
+    public long durablePosition() {
+        return durable;
+    }
+
+    public long forceCount() {
+        return forces.get();
+    }
+
+    @Override
+    // Stops accepting appends and waits for the flusher to make the rest durable
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        flushLock.lock();
+        try {
+            flushNeeded.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segments.clear();
+        if (flushError != null)
+            throw flushError;
+    }
+
+    // -------------------------------
+    // RECOVERY
+    // -------------------------------
+    private void recover() throws IOException {
+        List<Long> indexes;
+        try (Stream<Path> files = Files.list(dir)) {
+            indexes = files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("journal-") && n.endsWith(".seg"))
+                    .map(n -> Long.parseLong(n.substring(8, n.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+        if (indexes.isEmpty()) {
+            written = durable = checkpoint;
+            segment(indexOf(checkpoint));
+            return;
+        }
+
+        // Scan forward from the first retained segment until the log ends
+        long pos = Math.max(checkpoint, indexes.get(0) * segmentSize);
+        while (true) {
+            MappedByteBuffer buf = segment(indexOf(pos));
+            int offset = offsetOf(pos);
+            int length = segmentSize - offset >= 4 ? buf.getInt(offset) : SKIP;
+            if (length == SKIP) {
+                long nextIndex = indexOf(pos) + 1;
+                if (!indexes.contains(nextIndex))
+                    break;
+                pos = nextIndex * segmentSize;
+                continue;
+            }
+            if (length <= 0 || length > segmentSize - offset - HEADER)
+                break;
+            byte[] payload = new byte[length];
+            buf.get(offset + HEADER, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if (buf.getInt(offset + 4) != (int) crc.getValue())
+                break;
+            pos += HEADER + length;
+        }
+
+        // Everything after the last valid record is garbage: wipe it
+        long tail = indexOf(pos);
+        MappedByteBuffer buf = segment(tail);
+        byte[] zeros = new byte[8192];
+        for (int i = offsetOf(pos); i < segmentSize; i += zeros.length)
+            buf.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+        buf.force();
+        for (long index : indexes) {
+            if (index > tail) {
+                segments.remove(index);
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+        written = durable = pos;
+    }
+
+    private String readOrCreateId() throws IOException {
+        Path file = dir.resolve(ID);
+        if (Files.exists(file))
+            return Files.readString(file).trim();
+        String created = UUID.randomUUID().toString();
+        Path tmp = dir.resolve(ID + ".tmp");
+        Files.writeString(tmp, created);
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return created;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file))
+            return 0;
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (b.remaining() < 12)
+            return 0;
+        long position = b.getLong();
+        return b.getInt() == crcOf(position) ? position : 0;
+    }
+
+    // -------------------------------
+    // SEGMENTS
+    // -------------------------------
+    private MappedByteBuffer segment(long index) throws IOException {
+        MappedByteBuffer buf = segments.get(index);
+        if (buf != null)
+            return buf;
+        try (FileChannel ch = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // grows the file to full size
+        }
+        MappedByteBuffer prev = segments.putIfAbsent(index, buf);
+        return prev != null ? prev : buf;
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("journal-%08d.seg", index));
+    }
+
+    private long indexOf(long position) {
+        return position / segmentSize;
+    }
+
+    private int offsetOf(long position) {
+        return (int) (position % segmentSize);
+    }
+
+    private static int crcOf(long position) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(position).flip());
+        return (int) crc.getValue();
+    }
+}
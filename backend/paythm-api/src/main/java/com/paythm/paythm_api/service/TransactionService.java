@@ -1,5 +1,6 @@
 package com.paythm.paythm_api.service;
 
+import com.paythm.paythm_api.dto.TransactionView;
 import com.paythm.paythm_api.entity.Transaction;
 import com.paythm.paythm_api.repository.TransactionRepository;
 import org.springframework.stereotype.Service;
@@ -19,7 +20,7 @@ public class TransactionService {
         return repo.save(t);
     }
 
-    public List<Transaction> getUserTransactions(Long userId) {
-        return repo.findByUserId(userId);
+    public List<TransactionView> getUserTransactions(Long userId) {
+        return repo.findViewsByUserId(userId);
     }
 }
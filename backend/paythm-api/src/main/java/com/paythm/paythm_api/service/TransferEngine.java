@@ -0,0 +1,287 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.WalletBalance;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves money between wallets without read-modify-write races.
+ *
+ * Every balance change is a single conditional UPDATE, so the database never
+ * sees a lost update. On top of that, wallets are mapped onto a fixed set of
+ * striped in-JVM locks which are always taken in ascending stripe order and
+ * held until the surrounding transaction completes. Transfers touching
+ * different stripes run fully in parallel; transfers on the same wallets
+ * queue on the lock instead of piling up on InnoDB row locks.
+ *
+ * Amounts reach the database as plain paise longs, so the hot path does no
+ * floating-point or BigDecimal arithmetic.
+ *
+ * Credits to a sharded (hot) wallet skip its stripe and row entirely and
+ * land on one of its slots (see {@link HotWalletShards}); only the payer is
+ * locked. Debits from a sharded wallet drain the slots first when needed.
+ * The slot is credited before the payer is debited: if the receiver turns
+ * out to be unsharded meanwhile nothing has been written yet, so the payer's
+ * stripe is given back and both stripes are taken in order, as for any
+ * other transfer.
+ */
+@Service
+public class TransferEngine {
+
+    private final WalletRepository walletRepo;
+    private final BalanceCache balanceCache;
+    private final HotWalletShards shards;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+
+    public TransferEngine(WalletRepository walletRepo, BalanceCache balanceCache, HotWalletShards shards,
+            @Value("${paythm.transfer.lock-stripes:1024}") int stripeCount,
+            @Value("${paythm.transfer.lock-timeout-ms:2000}") long lockTimeoutMillis) {
+        this.walletRepo = walletRepo;
+        this.balanceCache = balanceCache;
+        this.shards = shards;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        // Round up to a power of two so the stripe index is a simple mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // -------------------------------
+    // WALLET -> WALLET
+    // -------------------------------
+    @Transactional
+    public boolean transfer(Long fromWalletId, Long toWalletId, Money amount) {
+        long paise = requirePositive(amount);
+        if (fromWalletId.equals(toWalletId))
+            throw new IllegalArgumentException("Cannot transfer to the same wallet");
+
+        if (shards.slotsOf(toWalletId) > 0) {
+            // Hot receiver: lock the payer only, the credit goes to one slot row
+            Stripes payer = lockAll(fromWalletId);
+            int slot = shards.creditSlot(toWalletId, fromWalletId, paise);
+            if (slot >= 0) {
+                if (!debitWallet(fromWalletId, paise)) {
+                    shards.uncredit(toWalletId, slot, paise);
+                    return false;
+                }
+                publishBalances(List.of(fromWalletId));
+                return true;
+            }
+            // Unsharded meanwhile: the row is a plain wallet again and needs its stripe. Nothing is
+            // written yet, so hand the payer's stripe back and take both in order below
+            payer.unlock();
+        }
+
+        lockAll(fromWalletId, toWalletId);
+
+        // Touch rows in wallet-id order so other app instances acquire
+        // InnoDB row locks in the same order as we do.
+        if (fromWalletId < toWalletId) {
+            if (!debitWallet(fromWalletId, paise))
+                return false;
+            walletRepo.credit(toWalletId, paise);
+        } else {
+            walletRepo.credit(toWalletId, paise);
+            if (!debitWallet(fromWalletId, paise)) {
+                // Undo the credit inside the same transaction
+                walletRepo.credit(toWalletId, -paise);
+                return false;
+            }
+        }
+        publishBalances(List.of(fromWalletId, toWalletId));
+        return true;
+    }
+
+    // -------------------------------
+    // SINGLE WALLET
+    // -------------------------------
+    @Transactional
+    public boolean debit(Long walletId, Money amount) {
+        long paise = requirePositive(amount);
+        lockAll(walletId);
+        if (!debitWallet(walletId, paise))
+            return false;
+        publishBalances(List.of(walletId));
+        return true;
+    }
+
+    @Transactional
+    public void credit(Long walletId, Money amount) {
+        long paise = requirePositive(amount);
+        if (shards.credit(walletId, null, paise))
+            return;
+        lockAll(walletId);
+        if (walletRepo.credit(walletId, paise) == 0)
+            throw new RuntimeException("Wallet not found");
+        publishBalances(List.of(walletId));
+    }
+
+    // -------------------------------
+    // HOLDS
+    // -------------------------------
+    // Reserves part of the spendable balance (balance - held) without moving money
+    @Transactional
+    public boolean hold(Long walletId, Money amount) {
+        long paise = requirePositive(amount);
+        lockAll(walletId);
+        if (walletRepo.holdIfAvailable(walletId, paise) > 0)
+            return true;
+        if (shards.consolidate(walletId) == 0)
+            return false;
+        return walletRepo.holdIfAvailable(walletId, paise) > 0;
+    }
+
+    // Debits 'amount' (at most 'held') and gives back the whole reservation in the same UPDATE
+    @Transactional
+    public void capture(Long walletId, Money amount, Money held) {
+        long paise = requirePositive(amount);
+        if (paise > held.paise())
+            throw new IllegalArgumentException("Capture exceeds the held amount");
+        lockAll(walletId);
+        if (walletRepo.captureHeld(walletId, paise, held.paise()) == 0)
+            throw new IllegalStateException("Hold is no longer reserved on wallet " + walletId);
+        publishBalances(List.of(walletId));
+    }
+
+    // Unreserving never makes anything unspendable, so it needs no stripe
+    @Transactional
+    public void release(Long walletId, Money held) {
+        if (walletRepo.releaseHeld(walletId, requirePositive(held)) == 0)
+            throw new IllegalStateException("Hold is no longer reserved on wallet " + walletId);
+    }
+
+    // Guarded debit of the wallet row; a sharded wallet drains its slots and retries once
+    private boolean debitWallet(Long walletId, long paise) {
+        if (walletRepo.debitIfSufficient(walletId, paise) > 0)
+            return true;
+        if (shards.consolidate(walletId) == 0)
+            return false;
+        return walletRepo.debitIfSufficient(walletId, paise) > 0;
+    }
+
+    // -------------------------------
+    // SHARDING
+    // -------------------------------
+    /**
+     * Turns a wallet into a hot wallet with the given number of credit slots,
+     * or back into a plain wallet with 0. Existing slot balances are moved
+     * onto the wallet row first, so the total never changes.
+     */
+    @Transactional
+    public void reshard(Long walletId, int slots) {
+        if (slots < 0 || slots > shards.maxSlots())
+            throw new IllegalArgumentException("Slots must be between 0 and " + shards.maxSlots());
+        lockAll(walletId);
+        shards.consolidate(walletId);
+        shards.replaceSlots(walletId, slots);
+        if (walletRepo.updateShardCount(walletId, slots) == 0)
+            throw new RuntimeException("Wallet not found");
+        publishBalances(List.of(walletId));
+        AfterCommit.run(() -> shards.registered(walletId, slots));
+    }
+
+    /**
+     * Reads back post-update balances (our row locks make them exact) and
+     * hands them to the balance cache once the transaction commits.
+     * Also used by batch writers that update wallets outside the engine.
+     */
+    public void publishBalances(java.util.Collection<Long> walletIds) {
+        for (WalletBalance b : walletRepo.findBalancesByIdIn(walletIds)) {
+            balanceCache.putAfterCommit(b);
+        }
+    }
+
+    // -------------------------------
+    // LOCKING
+    // -------------------------------
+    private int stripeFor(Long walletId) {
+        int h = Long.hashCode(walletId);
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    // Stripes taken by one lockAll; unlocked at most once, at transaction end or earlier
+    private static final class Stripes {
+        private final List<ReentrantLock> held;
+        private boolean unlocked;
+
+        Stripes(List<ReentrantLock> held) {
+            this.held = held;
+        }
+
+        // Only before this transaction has written anything under these stripes
+        void unlock() {
+            if (unlocked)
+                return;
+            unlocked = true;
+            TransferEngine.unlock(held);
+        }
+    }
+
+    private Stripes lockAll(Long... walletIds) {
+        int[] indexes = new int[walletIds.length];
+        for (int i = 0; i < walletIds.length; i++) {
+            indexes[i] = stripeFor(walletIds[i]);
+        }
+        java.util.Arrays.sort(indexes);
+
+        List<ReentrantLock> held = new ArrayList<>(indexes.length);
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                if (i > 0 && indexes[i] == indexes[i - 1])
+                    continue;
+                ReentrantLock lock = stripes[indexes[i]];
+                if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS))
+                    throw new RuntimeException("Wallet is busy, please retry");
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(held);
+            throw new RuntimeException("Interrupted while waiting for wallet lock");
+        } catch (RuntimeException e) {
+            unlock(held);
+            throw e;
+        }
+
+        // Keep the stripes until commit/rollback so nobody reads or moves
+        // money on these wallets while our UPDATEs are still uncommitted.
+        Stripes taken = new Stripes(held);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    taken.unlock();
+                }
+            });
+        } else {
+            taken.unlock();
+        }
+        return taken;
+    }
+
+    private static void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private static long requirePositive(Money amount) {
+        if (amount == null || !amount.isPositive())
+            throw new IllegalArgumentException("Amount must be positive");
+        return amount.paise();
+    }
+}
@@ -0,0 +1,223 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.UserSearchResult;
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Type-ahead index over user names, phones and PayThm IDs.
+ *
+ * Every searchable token (each name word, the full name, phone digits and
+ * the PayThm ID) is a key in a sorted skip list, so a prefix query is a
+ * range scan of at most a few hundred keys no matter how many users exist.
+ * Results are capped at top-k and ranked by the caller's recent payees.
+ */
+@Service
+public class UserSearchIndex {
+
+    public static final int MAX_RESULTS = 20;
+    private static final int CANDIDATE_FACTOR = 4;
+    private static final int RECENT_PAYEES = 10;
+
+    private record Entry(UserSearchResult view, String[] tokens) {
+    }
+
+    private final UserRepository userRepo;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    // sender id -> most recent payees, newest first
+    private final ConcurrentHashMap<Long, long[]> recentPayees = new ConcurrentHashMap<>();
+
+    public UserSearchIndex(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    @PostConstruct
+    void load() {
+        for (Object[] row : userRepo.findSearchEntries()) {
+            put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+        }
+    }
+
+    // -------------------------------
+    // SEARCH
+    // -------------------------------
+    public List<UserSearchResult> search(String q, Long callerId, int limit) {
+        String query = q == null ? "" : normalize(q);
+        if (query.matches("^\\+?[0-9 ]+$"))
+            query = phonePrefix(query); // phone typed as +91 98765...
+        int k = Math.max(1, Math.min(limit, MAX_RESULTS));
+        if (query.isEmpty())
+            return List.of();
+
+        LinkedHashSet<Long> ranked = new LinkedHashSet<>();
+
+        // 1. Caller's recent payees that match, most recent first
+        long[] recent = callerId != null ? recentPayees.get(callerId) : null;
+        if (recent != null) {
+            for (long id : recent) {
+                Entry e = entries.get(id);
+                if (e != null && matches(e, query))
+                    ranked.add(id);
+            }
+        }
+
+        // 2. Everyone else, in token order (bounded scan)
+        int cap = k * CANDIDATE_FACTOR;
+        scan:
+        for (Map.Entry<String, Set<Long>> hit : tokens.tailMap(query, true).entrySet()) {
+            if (!hit.getKey().startsWith(query))
+                break;
+            // A common token (a first name) can be shared by thousands of users
+            for (Long id : hit.getValue()) {
+                if (ranked.size() >= cap)
+                    break scan;
+                ranked.add(id);
+            }
+        }
+
+        List<UserSearchResult> results = new ArrayList<>(k);
+        for (Long id : ranked) {
+            if (id.equals(callerId))
+                continue;
+            Entry e = entries.get(id);
+            if (e != null)
+                results.add(e.view());
+            if (results.size() == k)
+                break;
+        }
+        return results;
+    }
+
+    // -------------------------------
+    // MAINTENANCE (applied after commit)
+    // -------------------------------
+    public void index(User user) {
+        Long id = user.getId();
+        String fullName = user.getFullName();
+        String phone = user.getPhone();
+        String paythmId = user.getPaythmId();
+        AfterCommit.run(() -> put(id, fullName, phone, paythmId));
+    }
+
+    public void remove(Long userId) {
+        AfterCommit.run(() -> {
+            evict(userId);
+            recentPayees.remove(userId);
+        });
+    }
+
+    public void recordPayee(Long senderId, Long receiverId) {
+        AfterCommit.run(() -> recentPayees.compute(senderId, (k, old) -> {
+            long[] next = new long[Math.min(RECENT_PAYEES, (old == null ? 0 : old.length) + 1)];
+            next[0] = receiverId;
+            int n = 1;
+            if (old != null) {
+                for (int i = 0; i < old.length && n < next.length; i++) {
+                    if (old[i] != receiverId)
+                        next[n++] = old[i];
+                }
+            }
+            return n == next.length ? next : java.util.Arrays.copyOf(next, n);
+        }));
+    }
+
+    private void put(Long id, String fullName, String phone, String paythmId) {
+        if (id == null)
+            return;
+        evict(id);
+
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        if (fullName != null && !fullName.isBlank()) {
+            String name = normalize(fullName);
+            keys.add(name);
+            for (String word : name.split(" "))
+                if (!word.isEmpty())
+                    keys.add(word);
+        }
+        String digits = digitsOf(phone);
+        if (!digits.isEmpty()) {
+            keys.add(digits);
+            if (digits.length() > 10)
+                keys.add(digits.substring(digits.length() - 10));
+        }
+        if (paythmId != null && !paythmId.isBlank())
+            keys.add(normalize(paythmId));
+
+        String[] tokenArray = keys.toArray(new String[0]);
+        entries.put(id, new Entry(new UserSearchResult(id, fullName, paythmId, mask(digits)), tokenArray));
+        for (String token : tokenArray) {
+            tokens.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void evict(Long id) {
+        Entry old = entries.remove(id);
+        if (old == null)
+            return;
+        for (String token : old.tokens()) {
+            tokens.computeIfPresent(token, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static boolean matches(Entry e, String query) {
+        for (String token : e.tokens())
+            if (token.startsWith(query))
+                return true;
+        return false;
+    }
+
+    private static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String digitsOf(String phone) {
+        if (phone == null)
+            return "";
+        StringBuilder sb = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9')
+                sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Digits of a typed phone prefix in the national form put() indexes:
+     * the country code is dropped when it is written as such ("+91 98765",
+     * "91 98765", 12 digits starting with 91), as is a leading trunk 0.
+     * Indian mobile numbers never start with 0, and 91XXXXXXXX on its own
+     * is a valid national number, so only those forms are stripped.
+     */
+    static String phonePrefix(String query) {
+        String digits = digitsOf(query);
+        String trimmed = query.trim();
+        if (digits.startsWith("91") && (trimmed.startsWith("+") || trimmed.startsWith("91 ") || digits.length() > 10))
+            return digits.substring(2);
+        if (digits.startsWith("0"))
+            return digits.substring(1);
+        return digits;
+    }
+
+    private static String mask(String digits) {
+        if (digits.length() <= 4)
+            return digits;
+        return "*".repeat(digits.length() - 4) + digits.substring(digits.length() - 4);
+    }
+}
@@ -1,6 +1,7 @@
 package com.paythm.paythm_api.service;
 
 import com.paythm.paythm_api.dto.UserLoginRequest;
+import com.paythm.paythm_api.entity.Money;
 import com.paythm.paythm_api.entity.User;
 import com.paythm.paythm_api.entity.Wallet;
 import com.paythm.paythm_api.repository.UserRepository;
@@ -19,14 +20,21 @@ public class UserService {
     private final WalletRepository walletRepo;
     private final com.paythm.paythm_api.repository.TransactionRepository txRepo;
     private final PasswordEncoder passwordEncoder;
+    private final RecipientDirectory recipientDirectory;
+    private final UserSearchIndex userSearchIndex;
+    private final BalanceCache balanceCache;
 
     @Autowired
     public UserService(UserRepository repo, WalletRepository walletRepo,
-            com.paythm.paythm_api.repository.TransactionRepository txRepo, PasswordEncoder passwordEncoder) {
+            com.paythm.paythm_api.repository.TransactionRepository txRepo, PasswordEncoder passwordEncoder,
+            RecipientDirectory recipientDirectory, UserSearchIndex userSearchIndex, BalanceCache balanceCache) {
         this.repo = repo;
         this.walletRepo = walletRepo;
         this.txRepo = txRepo;
         this.passwordEncoder = passwordEncoder;
+        this.recipientDirectory = recipientDirectory;
+        this.userSearchIndex = userSearchIndex;
+        this.balanceCache = balanceCache;
     }
 
     // ✔ SIGNUP
@@ -98,9 +106,11 @@ public class UserService {
         // Auto create wallet
         Wallet wallet = new Wallet();
         wallet.setUser(savedUser);
-        wallet.setBalance(0.0);
+        wallet.setBalance(Money.ZERO);
         walletRepo.save(wallet);
 
+        recipientDirectory.index(savedUser);
+        userSearchIndex.index(savedUser);
         return savedUser;
     }
 
@@ -120,6 +130,10 @@ public class UserService {
         return user;
     }
 
+    public List<com.paythm.paythm_api.dto.UserSearchResult> search(String q, Long callerId, int limit) {
+        return userSearchIndex.search(q, callerId, limit);
+    }
+
     public List<User> getAll() {
         return repo.findAll();
     }
@@ -134,7 +148,10 @@ public class UserService {
         User user = repo.findById(userId).orElse(null);
         if (user != null) {
             user.setKycStatus(status);
-            return repo.save(user);
+            User saved = repo.save(user);
+            recipientDirectory.index(saved);
+            userSearchIndex.index(saved);
+            return saved;
         }
         return null;
     }
@@ -163,6 +180,9 @@ public class UserService {
             }
             // 2. Delete User
             repo.delete(user);
+            recipientDirectory.remove(userId);
+            balanceCache.invalidateAfterCommit(userId);
+            userSearchIndex.remove(userId);
         }
     }
 }
@@ -0,0 +1,238 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user, per-endpoint velocity limits for money-moving endpoints, checked
+ * in the controller before anything touches the database.
+ *
+ * Each endpoint has a count limit and an amount limit, each over its own
+ * window. Both are token buckets in GCRA form: a bucket is one long, the
+ * "theoretical arrival time" of the next request, advanced with a single
+ * CAS. A user's buckets for all endpoints live in one AtomicLongArray, so an
+ * allowed request costs a map lookup, a clock read and two CASes, and
+ * allocates nothing.
+ *
+ * A bucket whose arrival time has passed is indistinguishable from a fresh
+ * one, so idle users are dropped by a periodic sweep without loosening any
+ * limit. The map is bounded: a new user arriving while it is full evicts
+ * the entry among a small sample whose buckets refill soonest (an idle one
+ * if the sample has any), so the request thread never scans the map and
+ * the most active users keep their buckets. The sample is drawn at random
+ * from a ring holding the most recently registered user ids: map iteration
+ * order would offer the same few users every time, and a client cycling
+ * fresh ids could push those out whatever their activity.
+ */
+@Service
+public class VelocityLimiter {
+
+    public enum Endpoint {
+        SEND("send"), SEND_UPI("send-upi"), SEND_BANK("send-bank"), ADD("add");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+    }
+
+    private record Limits(double countNanos, long countWindow, double paiseNanos, long amountWindow) {
+    }
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final Limits[] limits = new Limits[ENDPOINTS.length];
+    private final ConcurrentHashMap<Long, AtomicLongArray> buckets = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    // Eviction candidates: the last maxEntries registered ids (0 = empty), overwritten round-robin
+    private final AtomicLongArray recent;
+    private final AtomicLong recentCursor = new AtomicLong();
+    private final long origin = System.nanoTime();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VelocityLimiter(Environment env) {
+        this.maxEntries = env.getProperty("paythm.velocity.max-entries", Integer.class, 100_000);
+        this.recent = new AtomicLongArray(Math.max(1, maxEntries));
+        for (Endpoint e : ENDPOINTS) {
+            String prefix = "paythm.velocity." + e.key + ".";
+            long countWindow = TimeUnit.MILLISECONDS.toNanos(
+                    env.getProperty(prefix + "count-window-ms", Long.class, 60_000L));
+            long maxCount = env.getProperty(prefix + "max-count", Long.class, 20L);
+            long amountWindow = TimeUnit.MILLISECONDS.toNanos(
+                    env.getProperty(prefix + "amount-window-ms", Long.class, 3_600_000L));
+            long maxPaise = Money.ofRupees(env.getProperty(prefix + "max-amount", Double.class, 100_000.0)).paise();
+            if (maxCount <= 0 || maxPaise <= 0)
+                throw new IllegalArgumentException("Velocity limits for " + e.key + " must be positive");
+            limits[e.ordinal()] = new Limits((double) countWindow / maxCount, countWindow,
+                    (double) amountWindow / maxPaise, amountWindow);
+        }
+    }
+
+    // -------------------------------
+    // CHECK
+    // -------------------------------
+    /**
+     * Takes one request and 'amount' from the user's buckets for the endpoint.
+     * Returns 0 if allowed, otherwise the nanoseconds until it would be;
+     * a rejected request consumes nothing.
+     */
+    public long tryAcquire(Long userId, Endpoint endpoint, Money amount) {
+        if (userId == null || amount == null || !amount.isPositive())
+            return 0; // let the service reject it with its usual message
+        AtomicLongArray b = buckets.get(userId);
+        if (b == null)
+            b = register(userId);
+
+        Limits l = limits[endpoint.ordinal()];
+        long now = System.nanoTime() - origin;
+        int countSlot = endpoint.ordinal() * 2;
+
+        long wait = take(b, countSlot, now, (long) Math.ceil(l.countNanos()), l.countWindow());
+        if (wait == 0) {
+            long amountCost = (long) Math.min(Long.MAX_VALUE / 4, Math.ceil(amount.paise() * l.paiseNanos()));
+            wait = take(b, countSlot + 1, now, amountCost, l.amountWindow());
+            if (wait != 0)
+                b.addAndGet(countSlot, -(long) Math.ceil(l.countNanos())); // give the request slot back
+        }
+        if (wait == 0)
+            allowed.increment();
+        else
+            rejected.increment();
+        return wait;
+    }
+
+    // GCRA: allowed while the new arrival time stays within one window of now
+    private static long take(AtomicLongArray b, int slot, long now, long cost, long window) {
+        while (true) {
+            long tat = b.get(slot);
+            long next = Math.max(tat, now) + cost;
+            long allowAt = next - window;
+            if (allowAt > now)
+                return cost > window ? window : allowAt - now; // never fits: report a full window
+            if (b.compareAndSet(slot, tat, next))
+                return 0;
+        }
+    }
+
+    private AtomicLongArray register(Long userId) {
+        if (buckets.size() >= maxEntries)
+            evictOne();
+        AtomicLongArray fresh = new AtomicLongArray(ENDPOINTS.length * 2);
+        AtomicLongArray prev = buckets.putIfAbsent(userId, fresh);
+        if (prev != null)
+            return prev;
+        recent.set((int) Math.floorMod(recentCursor.getAndIncrement(), recent.length()), userId);
+        return fresh;
+    }
+
+    // -------------------------------
+    // EVICTION
+    // -------------------------------
+    // Drops users whose buckets are all full again; losslessly, see class comment
+    @Scheduled(fixedDelayString = "${paythm.velocity.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime() - origin;
+        Iterator<Map.Entry<Long, AtomicLongArray>> it = buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, AtomicLongArray> e = it.next();
+            if (idle(e.getValue(), now) && buckets.remove(e.getKey(), e.getValue()))
+                evictions.increment();
+        }
+    }
+
+    private static boolean idle(AtomicLongArray b, long now) {
+        for (int i = 0; i < b.length(); i++) {
+            if (b.get(i) > now)
+                return false;
+        }
+        return true;
+    }
+
+    // Latest arrival time over all buckets: the user's limits are fully refilled at this point
+    private static long refilledAt(AtomicLongArray b) {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < b.length(); i++)
+            max = Math.max(max, b.get(i));
+        return max;
+    }
+
+    // Room for one new user; costs at most 5 * EVICTION_SAMPLE entries looked at, never a full sweep
+    private void evictOne() {
+        long now = System.nanoTime() - origin;
+        Long victim = null;
+        AtomicLongArray victimBuckets = null;
+        long victimRefill = Long.MAX_VALUE;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int live = 0;
+        for (int probe = 0; probe < EVICTION_SAMPLE * 4 && live < EVICTION_SAMPLE; probe++) {
+            long userId = recent.get(random.nextInt(recent.length()));
+            AtomicLongArray b = userId == 0 ? null : buckets.get(userId);
+            if (b == null)
+                continue; // slot empty or user already gone
+            live++;
+            long refill = refilledAt(b);
+            if (refill < victimRefill) {
+                victim = userId;
+                victimBuckets = b;
+                victimRefill = refill;
+            }
+            if (refill <= now)
+                break; // idle: dropping it loosens nothing
+        }
+        if (victim == null) {
+            // Every probed id was stale: fall back to the first live entries of the map
+            Iterator<Map.Entry<Long, AtomicLongArray>> it = buckets.entrySet().iterator();
+            for (int seen = 0; seen < EVICTION_SAMPLE && it.hasNext(); seen++) {
+                Map.Entry<Long, AtomicLongArray> e = it.next();
+                long refill = refilledAt(e.getValue());
+                if (refill < victimRefill) {
+                    victim = e.getKey();
+                    victimBuckets = e.getValue();
+                    victimRefill = refill;
+                }
+            }
+        }
+        if (victim != null && buckets.remove(victim, victimBuckets))
+            evictions.increment();
+    }
+
+    // -------------------------------
+    // HTTP
+    // -------------------------------
+    public static ResponseEntity<String> tooManyRequests(long waitNanos) {
+        long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body("Too many requests, retry in " + seconds + "s");
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("users", buckets.size());
+        out.put("maxEntries", maxEntries);
+        out.put("allowed", allowed.sum());
+        out.put("rejected", rejected.sum());
+        out.put("evictions", evictions.sum());
+        return out;
+    }
+}
@@ -1,14 +1,51 @@
 package com.paythm.paythm_api.service;
 
+import com.paythm.paythm_api.dto.HistoryPage;
+import com.paythm.paythm_api.dto.HistoryQuery;
+import com.paythm.paythm_api.dto.PayoutItem;
+import com.paythm.paythm_api.dto.PayoutResult;
+import com.paythm.paythm_api.dto.AdminTransactionView;
+import com.paythm.paythm_api.dto.TransactionView;
+import com.paythm.paythm_api.dto.WalletBalance;
+import com.paythm.paythm_api.entity.BankTransfer;
+import com.paythm.paythm_api.entity.Money;
 import com.paythm.paythm_api.entity.Transaction;
 import com.paythm.paythm_api.entity.User;
 import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.entity.WalletHold;
 import com.paythm.paythm_api.repository.UserRepository;
 import com.paythm.paythm_api.repository.WalletRepository;
 import com.paythm.paythm_api.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @org.springframework.transaction.annotation.Transactional
@@ -26,73 +63,203 @@ public class WalletService {
     @Autowired
     private TransactionRepository txRepo;
 
+    @Autowired
+    private TransferEngine transferEngine;
+
+    @Autowired
+    private HotWalletShards hotWallets;
+
+    @Autowired
+    private RiskScorer riskScorer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipientDirectory recipientDirectory;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private RewardsService rewardsService;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private LedgerService ledger;
+
+    @Autowired
+    private HistoryJournal historyJournal;
+
+    @Autowired
+    private WalletStatsService walletStats;
+
+    @Autowired
+    private SpendingCategories categories;
+
+    @Autowired
+    private SpendRollups rollups;
+
+    @Autowired
+    private BankSettlementService settlement;
+
+    @Autowired
+    private com.paythm.paythm_api.repository.WalletHoldRepository holdRepo;
+
+    @Autowired
+    private BankConnector bankConnector;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${paythm.bank.timeout-ms:3000}")
+    private long bankTimeoutMs;
+
+    // Bank answers arrive on the connector's threads; the wallet credit runs on its own virtual thread
+    private final ExecutorService bankCallbacks = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${paythm.holds.max-ttl-minutes:43200}")
+    private long maxHoldMinutes;
+
+    @Value("${paythm.payout.max-items:10000}")
+    private int maxPayoutItems;
+
+    @Value("${paythm.payout.jdbc-batch-size:1000}")
+    private int payoutBatchSize;
+
     // -------------------------------
     // GET BALANCE
     // -------------------------------
-    public double getBalance(Long userId) {
-        User user = userRepo.findById(userId).orElse(null);
-        if (user == null)
-            return 0;
-        Wallet wallet = walletRepo.findByUser(user);
-        if (wallet == null)
-            return 0;
-        return wallet.getBalance();
+    // Hot polling path: served from BalanceCache, no transaction is opened on a hit
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Money getBalance(Long userId) {
+        Money cached = balanceCache.get(userId);
+        if (cached != null)
+            return cached;
+        WalletBalance b = walletRepo.findBalanceByUserId(userId).orElse(null);
+        if (b == null)
+            return Money.ZERO;
+        balanceCache.put(b);
+        return hotWallets.totalBalance(b);
     }
 
-    // -------------------------------
-    // ADD MONEY (Now Deducts from Mock Bank)
-    // -------------------------------
-    public Wallet addMoney(Long userId, double amount) {
-        User user = userRepo.findById(userId).orElse(null);
-        if (user == null)
-            throw new RuntimeException("User not found");
+    // 0 turns a sharded wallet back into a plain one
+    public void setWalletShards(Long userId, int slots) {
+        Long walletId = walletRepo.findIdByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        transferEngine.reshard(walletId, slots);
+    }
 
-        // 1. Mock Bank Logic
-        List<com.paythm.paythm_api.entity.BankAccount> banks = bankRepo.findByUserAndIsPrimaryTrue(user);
-        com.paythm.paythm_api.entity.BankAccount bank = banks.isEmpty() ? null : banks.get(0);
+    // Cached insights of the user are recomputed once the caller's transaction commits
+    private void insightsChanged(Long userId) {
+        events.publishEvent(new InsightsCache.Changed(userId));
+    }
 
-        // Auto-create mock bank if missing (Demo feature)
-        if (bank == null) {
-            bank = new com.paythm.paythm_api.entity.BankAccount();
-            bank.setUser(user);
-            bank.setBankName(user.getBankName() != null ? user.getBankName() : "State Bank of India");
-            bank.setAccountNumber("**** " + (1000 + new java.util.Random().nextInt(8999)));
-            bank.setBalance(50000.00); // Default Mock Balance
-            bank.setPrimary(true);
-            bankRepo.save(bank);
-        } else if (user.getBankName() != null && !user.getBankName().equals(bank.getBankName())) {
-            bank.setBankName(user.getBankName());
-            bankRepo.save(bank);
-        }
+    private static final Money MOCK_BANK_BALANCE = Money.ofPaise(5_000_000); // ₹50,000
 
-        if (bank.getBalance() < amount) {
-            // We throw wrapper exception that Controller can catch or bubble up
-            throw new RuntimeException("Insufficient Bank Balance! (Available: ₹" + bank.getBalance() + ")");
+    // -------------------------------
+    // ADD MONEY (pulled from the linked bank via BankConnector)
+    // -------------------------------
+    // Blocking form for callers without an async path (webhooks)
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Wallet addMoney(Long userId, Money amount) {
+        try {
+            return addMoneyAsync(userId, amount).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e;
         }
+    }
 
-        // Deduct from Bank
-        bank.setBalance(bank.getBalance() - amount);
-        bankRepo.save(bank);
+    /**
+     * Debits the bank first and only then opens the wallet transaction, so no
+     * connection or lock is held while the bank answers. A bank that doesn't
+     * answer within the timeout, or a wallet credit that fails after the
+     * bank approved, is compensated with BankConnector.reverse.
+     */
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Wallet> addMoneyAsync(Long userId, Money amount) {
+        if (amount == null || !amount.isPositive())
+            return CompletableFuture.failedFuture(new RuntimeException("Amount must be positive"));
+        User user = userRepo.findById(userId).orElse(null);
+        if (user == null)
+            return CompletableFuture.failedFuture(new RuntimeException("User not found"));
+        Long walletId = walletRepo.findIdByUserId(userId).orElse(null);
+        if (walletId == null)
+            return CompletableFuture.failedFuture(new RuntimeException("Wallet not found"));
+        com.paythm.paythm_api.entity.BankAccount bank = new TransactionTemplate(txManager)
+                .execute(status -> primaryBank(user));
+
+        String key = "TOPUP-" + UUID.randomUUID();
+        return bankConnector.debit(new BankConnector.Debit(key, bank.getId(), amount))
+                .orTimeout(bankTimeoutMs, TimeUnit.MILLISECONDS)
+                .handleAsync((result, error) -> {
+                    if (error != null) {
+                        bankConnector.reverse(key);
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        throw new RuntimeException(cause instanceof TimeoutException
+                                ? "Bank did not respond in time, please try again"
+                                : "Bank error: " + cause.getMessage());
+                    }
+                    if (!result.approved())
+                        throw new RuntimeException(result.message());
+                    try {
+                        return new TransactionTemplate(txManager).execute(status -> {
+                            Wallet credited = creditTopUp(walletId, bank, amount);
+                            insightsChanged(userId);
+                            return credited;
+                        });
+                    } catch (RuntimeException e) {
+                        bankConnector.reverse(key);
+                        throw e;
+                    }
+                }, bankCallbacks);
+    }
 
-        // Add to Wallet
-        Wallet wallet = walletRepo.findByUser(user);
-        wallet.setBalance(wallet.getBalance() + amount);
-        walletRepo.save(wallet);
+    private Wallet creditTopUp(Long walletId, com.paythm.paythm_api.entity.BankAccount bank, Money amount) {
+        transferEngine.credit(walletId, amount);
+        Long postingId = ledger.transfer("TOPUP", "Added from " + bank.getBankName(),
+                LedgerService.bank(bank.getId()), LedgerService.wallet(walletId), amount);
 
         Transaction tx = new Transaction();
         tx.setAmount(amount);
         tx.setType("CREDIT");
         tx.setMessage("Added from " + bank.getBankName());
-        tx.setWallet(wallet);
-        txRepo.save(tx);
+        tx.setCounterparty(bank.getBankName());
+        tx.setWallet(walletRepo.getReferenceById(walletId));
+        historyJournal.record(tx, postingId);
 
-        return wallet;
+        return walletRepo.findById(walletId).orElse(null);
     }
 
     // -------------------------------
     // SEND MONEY (PayThm ID / Email / Name)
     // -------------------------------
-    public String sendMoney(Long senderId, String receiverIdentifier, double amount) {
+    public String sendMoney(Long senderId, String receiverIdentifier, Money amount) {
+        return sendMoney(senderId, receiverIdentifier, amount, null);
+    }
+
+    // 'pin' is only checked when the risk check holds the payment
+    public String sendMoney(Long senderId, String receiverIdentifier, Money amount, String pin) {
+        return sendMoney(senderId, receiverIdentifier, amount, pin, false);
+    }
+
+    // Standing instruction the user confirmed with their PIN when creating it; risk holds don't apply
+    public String sendMoneyPreAuthorized(Long senderId, String receiverIdentifier, Money amount) {
+        return sendMoney(senderId, receiverIdentifier, amount, null, true);
+    }
+
+    private String sendMoney(Long senderId, String receiverIdentifier, Money amount, String pin,
+            boolean preAuthorized) {
+        if (amount == null || !amount.isPositive())
+            return "Amount must be positive!";
         User sender = userRepo.findById(senderId).orElse(null);
         if (sender == null)
             return "Sender not found";
@@ -103,66 +270,11 @@ public class WalletService {
         // ROBUST USER LOOKUP LOGIC
         // ---------------------------------------------------------
 
-        // 1. Try as PayThm ID (Exact Match)
-        if (receiver == null) {
-            receiver = userRepo.findByPaythmId(receiverIdentifier).orElse(null);
-        }
-
-        // 2. Try as Phone Number (Smart Matching)
-        // Checks exact match, then with +91, then without +91
-        if (receiver == null && receiverIdentifier.matches("^[0-9+]+$")) {
-            // A. Exact
-            List<User> list = userRepo.findByPhone(receiverIdentifier);
-            if (!list.isEmpty())
-                receiver = list.get(0);
-
-            // B. Verify +91 Case
-            if (receiver == null) {
-                if (receiverIdentifier.length() == 10) {
-                    list = userRepo.findByPhone("+91" + receiverIdentifier);
-                    if (!list.isEmpty())
-                        receiver = list.get(0);
-                } else if (receiverIdentifier.startsWith("+91") && receiverIdentifier.length() == 13) {
-                    list = userRepo.findByPhone(receiverIdentifier.substring(3));
-                    if (!list.isEmpty())
-                        receiver = list.get(0);
-                }
-            }
-        }
-
-        // 3. Try as Database User ID (Primary Key)
-        if (receiver == null) {
-            try {
-                Long id = Long.parseLong(receiverIdentifier);
-                // If ID is very large (likely a phone number), we skip this unless we failed
-                // previous checks
-                // But since we are here, phone lookup failed, so maybe it IS a real ID?
-                receiver = userRepo.findById(id).orElse(null);
-            } catch (NumberFormatException e) {
-                // Not a number, ignore
-            }
-        }
-
-        // 4. VPA Logic (legacy support for @domain format)
-        if (receiver == null && receiverIdentifier.contains("@")) {
-            String[] parts = receiverIdentifier.split("@");
-            if (parts.length > 0) {
-                String core = parts[0];
-                // Lookup core as paythmId or phone
-                receiver = userRepo.findByPaythmId(core).orElse(null);
-                if (receiver == null && core.matches("\\d+")) {
-                    List<User> pList = userRepo.findByPhone(core);
-                    if (!pList.isEmpty())
-                        receiver = pList.get(0);
-                }
-            }
-        }
-
-        // 5. Try as Email
-        if (receiver == null) {
-            List<User> emailUsers = userRepo.findByEmail(receiverIdentifier);
-            if (!emailUsers.isEmpty())
-                receiver = emailUsers.get(0);
+        // 1-5. PayThm ID / Phone / User ID / VPA / Email
+        // Single in-memory lookup (see RecipientDirectory for precedence)
+        Long receiverId = recipientDirectory.resolve(receiverIdentifier);
+        if (receiverId != null) {
+            receiver = userRepo.findById(receiverId).orElse(null);
         }
 
         // 6. Try as Name
@@ -185,90 +297,469 @@ public class WalletService {
             return "Cannot send money to yourself!";
         }
 
-        Wallet w1 = walletRepo.findByUser(sender);
-        Wallet w2 = walletRepo.findByUser(receiver);
+        Long w1 = walletRepo.findIdByUserId(sender.getId()).orElse(null);
+        Long w2 = walletRepo.findIdByUserId(receiver.getId()).orElse(null);
+        if (w1 == null || w2 == null)
+            return "Wallet not found";
+
+        String refused = riskCheck(senderId, w1, amount, receiver.getFullName(), pin, preAuthorized);
+        if (refused != null)
+            return refused;
 
-        if (w1.getBalance() < amount) {
+        if (!transferEngine.transfer(w1, w2, amount)) {
             return "Insufficient balance!";
         }
-
-        w1.setBalance(w1.getBalance() - amount);
-        walletRepo.save(w1);
-
-        w2.setBalance(w2.getBalance() + amount);
-        walletRepo.save(w2);
+        riskScorer.recordAfterCommit(w1, amount, receiver.getFullName());
+        Long postingId = ledger.transfer("P2P", sender.getFullName() + " -> " + receiver.getFullName(),
+                LedgerService.wallet(w1), LedgerService.wallet(w2), amount);
 
         Transaction t1 = new Transaction();
         t1.setAmount(amount);
         t1.setType("DEBIT");
         t1.setMessage("Sent to " + receiver.getFullName());
-        t1.setWallet(w1);
-        txRepo.save(t1);
+        t1.setCounterparty(receiver.getFullName());
+        t1.setWallet(walletRepo.getReferenceById(w1));
+        historyJournal.record(t1, postingId);
 
         Transaction t2 = new Transaction();
         t2.setAmount(amount);
         t2.setType("CREDIT");
         t2.setMessage("Received from " + sender.getFullName());
-        t2.setWallet(w2);
-        txRepo.save(t2);
+        t2.setCounterparty(sender.getFullName());
+        t2.setWallet(walletRepo.getReferenceById(w2));
+        historyJournal.record(t2, postingId);
 
-        checkAndApplyRewards(sender, w1);
+        rewardsService.recordPayment(w1);
+        userSearchIndex.recordPayee(sender.getId(), receiver.getId());
+        insightsChanged(sender.getId());
+        insightsChanged(receiver.getId());
 
         return "Money Sent Successfully!";
     }
 
+    // Null if the payment may go ahead, otherwise the message to return
+    private String riskCheck(Long senderId, Long walletId, Money amount, String counterparty, String pin) {
+        return riskCheck(senderId, walletId, amount, counterparty, pin, false);
+    }
+
+    private String riskCheck(Long senderId, Long walletId, Money amount, String counterparty, String pin,
+            boolean preAuthorized) {
+        RiskScorer.Assessment risk = riskScorer.score(walletId, amount, counterparty);
+        switch (risk.decision()) {
+            case BLOCK:
+                // Counted by RiskScorer (blocked in /api/metrics/risk)
+                return RiskScorer.BLOCKED;
+            case HOLD:
+                if (preAuthorized)
+                    return null;
+                if (pin == null || pin.isBlank() || !userService.verifyPin(senderId, pin))
+                    return RiskScorer.PIN_REQUIRED;
+                return null;
+            default:
+                return null;
+        }
+    }
+
     // -------------------------------
     // SEND MONEY VIA UPI (mock implementation)
     // -------------------------------
-    public String sendMoneyViaUpi(Long senderId, String upiId, double amount) {
+    public String sendMoneyViaUpi(Long senderId, String upiId, Money amount) {
+        return sendMoneyViaUpi(senderId, upiId, amount, null);
+    }
+
+    public String sendMoneyViaUpi(Long senderId, String upiId, Money amount, String pin) {
+        if (amount == null || !amount.isPositive())
+            return "Amount must be positive!";
         User sender = userRepo.findById(senderId).orElse(null);
         if (sender == null)
             return "Sender not found";
-        Wallet wallet = walletRepo.findByUser(sender);
-        if (wallet.getBalance() < amount)
+        Long walletId = walletRepo.findIdByUserId(senderId).orElse(null);
+        if (walletId == null)
+            return "Wallet not found";
+        String refused = riskCheck(senderId, walletId, amount, upiId, pin);
+        if (refused != null)
+            return refused;
+        if (!transferEngine.debit(walletId, amount))
             return "Insufficient balance!";
-        wallet.setBalance(wallet.getBalance() - amount);
-        walletRepo.save(wallet);
+        insightsChanged(senderId);
+        return completeUpi(walletId, upiId, amount);
+    }
+
+    // Everything after the wallet debit: ledger, history, rewards
+    private String completeUpi(Long walletId, String upiId, Money amount) {
+        riskScorer.recordAfterCommit(walletId, amount, upiId);
+        Long postingId = ledger.transfer("UPI", "Sent via UPI to " + upiId, LedgerService.wallet(walletId), LedgerService.UPI,
+                amount);
         Transaction tx = new Transaction();
         tx.setAmount(amount);
         tx.setType("DEBIT");
         tx.setMessage("Sent via UPI to " + upiId);
-        tx.setWallet(wallet);
-        txRepo.save(tx);
-        checkAndApplyRewards(sender, wallet);
+        tx.setCounterparty(upiId);
+        tx.setWallet(walletRepo.getReferenceById(walletId));
+        historyJournal.record(tx, postingId);
+        rewardsService.recordPayment(walletId);
         return "UPI Transfer Successful";
     }
 
     // -------------------------------
-    // SEND MONEY VIA BANK (mock implementation)
+    // SEND MONEY VIA BANK (settled asynchronously in batches)
     // -------------------------------
     public String sendMoneyViaBank(Long senderId, String accountNumber, String ifsc, String recipientName,
-            double amount) {
+            Money amount) {
+        return sendMoneyViaBank(senderId, accountNumber, ifsc, recipientName, amount, null);
+    }
+
+    public String sendMoneyViaBank(Long senderId, String accountNumber, String ifsc, String recipientName,
+            Money amount, String pin) {
+        if (amount == null || !amount.isPositive())
+            return "Amount must be positive!";
         User sender = userRepo.findById(senderId).orElse(null);
         if (sender == null)
             return "Sender not found";
-        Wallet wallet = walletRepo.findByUser(sender);
-        if (wallet.getBalance() < amount)
+        Long walletId = walletRepo.findIdByUserId(senderId).orElse(null);
+        if (walletId == null)
+            return "Wallet not found";
+        String refused = riskCheck(senderId, walletId, amount, recipientName, pin);
+        if (refused != null)
+            return refused;
+        if (!transferEngine.debit(walletId, amount))
             return "Insufficient balance!";
-        wallet.setBalance(wallet.getBalance() - amount);
-        walletRepo.save(wallet);
+        insightsChanged(senderId);
+        return completeBank(walletId, accountNumber, ifsc, recipientName, amount);
+    }
+
+    private String completeBank(Long walletId, String accountNumber, String ifsc, String recipientName,
+            Money amount) {
+        riskScorer.recordAfterCommit(walletId, amount, recipientName);
+        // Held in clearing until the bank settles it (see BankSettlementService)
+        BankTransfer transfer = settlement.enqueue(walletId, accountNumber, ifsc, recipientName, amount);
+        String memo = BankSettlementService.memo(transfer);
+        Long postingId = ledger.transfer("BANK_TRANSFER", memo, LedgerService.wallet(walletId),
+                LedgerService.BANK_SETTLEMENT, amount);
         Transaction tx = new Transaction();
         tx.setAmount(amount);
         tx.setType("DEBIT");
-        tx.setMessage("Bank transfer to " + recipientName + " (Acc: " + accountNumber + ")");
-        tx.setWallet(wallet);
-        txRepo.save(tx);
-        checkAndApplyRewards(sender, wallet);
-        return "Bank Transfer Successful";
+        tx.setStatus("Pending");
+        tx.setMessage(memo);
+        tx.setCounterparty(recipientName);
+        tx.setBankTransferId(transfer.getId());
+        tx.setWallet(walletRepo.getReferenceById(walletId));
+        historyJournal.record(tx, postingId);
+        rewardsService.recordPayment(walletId);
+        return "Bank Transfer Initiated";
+    }
+
+    // -------------------------------
+    // HOLDS (authorize now, capture later: UPI mandates, bank payouts)
+    // -------------------------------
+    public Money getAvailableBalance(Long userId) {
+        Long walletId = walletRepo.findIdByUserId(userId).orElse(null);
+        if (walletId == null)
+            return Money.ZERO;
+        return getBalance(userId).minus(Money.ofPaise(walletRepo.findHeldPaise(walletId)));
+    }
+
+    // Risk-checked like the payment itself; ifsc and beneficiaryName are only used by BANK holds
+    public WalletHold authorizeHold(Long userId, String type, String payee, String ifsc, String beneficiaryName,
+            Money amount, String pin, long ttlMinutes) {
+        if (amount == null || !amount.isPositive())
+            throw new RuntimeException("Amount must be positive!");
+        if (!"UPI".equals(type) && !"BANK".equals(type))
+            throw new RuntimeException("Hold type must be UPI or BANK");
+        if (payee == null || payee.isBlank())
+            throw new RuntimeException("Payee is required");
+        if (ttlMinutes <= 0 || ttlMinutes > maxHoldMinutes)
+            throw new RuntimeException("Hold must expire within " + maxHoldMinutes + " minutes");
+        Long walletId = walletRepo.findIdByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        String refused = riskCheck(userId, walletId, amount, "BANK".equals(type) ? beneficiaryName : payee, pin);
+        if (refused != null)
+            throw new RuntimeException(refused);
+        if (!transferEngine.hold(walletId, amount))
+            throw new RuntimeException("Insufficient balance!");
+
+        WalletHold hold = new WalletHold();
+        hold.setWalletId(walletId);
+        hold.setUserId(userId);
+        hold.setType(type);
+        hold.setPayee(payee.trim());
+        hold.setIfsc(ifsc);
+        hold.setBeneficiaryName(beneficiaryName);
+        hold.setAmount(amount);
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        return holdRepo.save(hold);
+    }
+
+    // Pays up to the held amount (all of it when 'amount' is null); the rest is released
+    public String captureHold(Long userId, Long holdId, Money amount) {
+        WalletHold hold = lockedHold(userId, holdId);
+        if (hold == null)
+            return "Hold not found";
+        if (!"AUTHORIZED".equals(hold.getStatus()))
+            return "Hold is " + hold.getStatus().toLowerCase(Locale.ROOT);
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            finishHold(hold, "EXPIRED");
+            return "Hold has expired";
+        }
+        Money capture = amount == null ? hold.getAmount() : amount;
+        if (!capture.isPositive() || capture.paise() > hold.getAmount().paise())
+            return "Capture must be between ₹0.01 and the held " + hold.getAmount();
+
+        transferEngine.capture(hold.getWalletId(), capture, hold.getAmount());
+        hold.setCapturedAmount(capture);
+        hold.setStatus("CAPTURED");
+        hold.setUpdatedAt(LocalDateTime.now());
+        holdRepo.save(hold);
+        insightsChanged(userId);
+        return "UPI".equals(hold.getType())
+                ? completeUpi(hold.getWalletId(), hold.getPayee(), capture)
+                : completeBank(hold.getWalletId(), hold.getPayee(), hold.getIfsc(), hold.getBeneficiaryName(), capture);
+    }
+
+    public String releaseHold(Long userId, Long holdId) {
+        WalletHold hold = lockedHold(userId, holdId);
+        if (hold == null)
+            return "Hold not found";
+        if (!"AUTHORIZED".equals(hold.getStatus()))
+            return "Hold is " + hold.getStatus().toLowerCase(Locale.ROOT);
+        finishHold(hold, "RELEASED");
+        return "Hold Released";
+    }
+
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<WalletHold> holds(Long userId) {
+        return holdRepo.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    private WalletHold lockedHold(Long userId, Long holdId) {
+        WalletHold hold = holdRepo.findByIdForUpdate(holdId).orElse(null);
+        return hold == null || !hold.getUserId().equals(userId) ? null : hold;
+    }
+
+    private void finishHold(WalletHold hold, String status) {
+        transferEngine.release(hold.getWalletId(), hold.getAmount());
+        hold.setStatus(status);
+        hold.setUpdatedAt(LocalDateTime.now());
+        holdRepo.save(hold);
+    }
+
+    // -------------------------------
+    // BULK PAYOUT (Payroll / Refunds)
+    // -------------------------------
+    private static final String CREDIT_WALLET_SQL = "update wallet set balance = balance + ?, "
+            + "balance_version = balance_version + 1 where id = ?";
+    private static final String INSERT_TX_SQL = "insert into transaction "
+            + "(amount, type, message, counterparty, status, timestamp, wallet_id, category) "
+            + "values (?, ?, ?, ?, 'Completed', ?, ?, ?)";
+
+    private record PayoutLeg(Long walletId, Money amount, String type, String message, String counterparty,
+            String category) {
+    }
+
+    public List<PayoutResult> bulkPayout(Long senderId, List<PayoutItem> items) {
+        return bulkPayout(senderId, items, null);
+    }
+
+    // Every item goes through the same risk check as a single payment; a refused item fails on its own
+    public List<PayoutResult> bulkPayout(Long senderId, List<PayoutItem> items, String pin) {
+        if (items == null || items.isEmpty())
+            throw new RuntimeException("No payout items");
+        if (items.size() > maxPayoutItems)
+            throw new RuntimeException("Too many payout items (max " + maxPayoutItems + ")");
+
+        User sender = userRepo.findById(senderId).orElseThrow(() -> new RuntimeException("Sender not found"));
+        Long senderWalletId = walletRepo.findIdByUserId(senderId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+
+        // 1. Resolve every recipient and wallet with set-based queries
+        Map<String, User> recipients = resolveRecipients(items);
+        Map<Long, Long> walletIds = new HashMap<>();
+        if (!recipients.isEmpty()) {
+            Set<Long> userIds = new HashSet<>();
+            for (User u : recipients.values())
+                userIds.add(u.getId());
+            for (Object[] row : walletRepo.findIdsByUserIdIn(userIds))
+                walletIds.put((Long) row[0], (Long) row[1]);
+        }
+
+        // 2. Validate and risk-score items, collect the legs to write. The PIN is verified at most once;
+        // items are scored against history before this batch (it is recorded after commit).
+        boolean pinVerified = pin != null && !pin.isBlank() && userService.verifyPin(senderId, pin);
+        List<PayoutResult> results = new ArrayList<>(items.size());
+        List<PayoutLeg> debits = new ArrayList<>();
+        List<PayoutLeg> credits = new ArrayList<>();
+        Set<Long> paid = new HashSet<>();
+        Money total = Money.ZERO;
+        for (PayoutItem item : items) {
+            String key = item.getReceiver() == null ? "" : item.getReceiver().trim();
+            User receiver = recipients.get(key);
+            Long walletId = receiver == null ? null : walletIds.get(receiver.getId());
+
+            String error = null;
+            if (item.getAmount() == null || !item.getAmount().isPositive())
+                error = "Amount must be positive";
+            else if (receiver == null)
+                error = "Receiver not found";
+            else if (receiver.getId().equals(senderId))
+                error = "Cannot send money to yourself";
+            else if (walletId == null)
+                error = "Wallet not found";
+            else
+                error = riskCheck(senderId, senderWalletId, item.getAmount(), receiver.getFullName(), null,
+                        pinVerified);
+
+            if (error != null) {
+                results.add(new PayoutResult(item.getReceiver(), item.getAmount(), "FAILED", error));
+                continue;
+            }
+
+            String note = item.getNote() != null && !item.getNote().isBlank() ? " - " + item.getNote() : "";
+            String debitMessage = "Payout to " + receiver.getFullName() + note;
+            String creditMessage = "Received from " + sender.getFullName() + note;
+            debits.add(new PayoutLeg(senderWalletId, item.getAmount(), "DEBIT", debitMessage, receiver.getFullName(),
+                    categories.categorize(senderWalletId, receiver.getFullName(), debitMessage)));
+            credits.add(new PayoutLeg(walletId, item.getAmount(), "CREDIT", creditMessage, sender.getFullName(),
+                    categories.categorize(walletId, sender.getFullName(), creditMessage)));
+            total = total.plus(item.getAmount());
+            paid.add(receiver.getId());
+            riskScorer.recordAfterCommit(senderWalletId, item.getAmount(), receiver.getFullName());
+            results.add(new PayoutResult(item.getReceiver(), item.getAmount(), "PAID", "Paid to " + receiver.getFullName()));
+        }
+
+        if (credits.isEmpty())
+            return results;
+
+        // 3. Debit the source wallet once for the whole batch
+        if (!transferEngine.debit(senderWalletId, total))
+            throw new RuntimeException("Insufficient balance!");
+        rewardsService.recordPayments(senderWalletId, debits.size());
+
+        // 4. Batched credits (wallet-id order, like TransferEngine) and history rows;
+        // hot wallets take theirs on a slot instead of the wallet row
+        credits.sort(Comparator.comparing(PayoutLeg::walletId));
+        List<PayoutLeg> rowCredits = new ArrayList<>(credits.size());
+        for (PayoutLeg leg : credits) {
+            if (!hotWallets.credit(leg.walletId(), senderWalletId, leg.amount().paise()))
+                rowCredits.add(leg);
+        }
+        jdbcTemplate.batchUpdate(CREDIT_WALLET_SQL, rowCredits, payoutBatchSize, (ps, leg) -> {
+            ps.setLong(1, leg.amount().paise());
+            ps.setLong(2, leg.walletId());
+        });
+        Set<Long> creditedWallets = new HashSet<>();
+        for (PayoutLeg leg : rowCredits)
+            creditedWallets.add(leg.walletId());
+        transferEngine.publishBalances(creditedWallets);
+
+        // One balanced posting for the whole batch
+        List<LedgerService.Leg> ledgerLegs = new ArrayList<>(credits.size() + 1);
+        ledgerLegs.add(new LedgerService.Leg(LedgerService.wallet(senderWalletId), total.negate()));
+        for (PayoutLeg leg : credits)
+            ledgerLegs.add(new LedgerService.Leg(LedgerService.wallet(leg.walletId()), leg.amount()));
+        ledger.post("PAYOUT", "Bulk payout by " + sender.getFullName() + " (" + credits.size() + " items)",
+                ledgerLegs);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<PayoutLeg> legs = new ArrayList<>(debits.size() + credits.size());
+        legs.addAll(debits);
+        legs.addAll(credits);
+        jdbcTemplate.batchUpdate(INSERT_TX_SQL, legs, payoutBatchSize, (ps, leg) -> {
+            ps.setLong(1, leg.amount().paise());
+            ps.setString(2, leg.type());
+            ps.setString(3, leg.message());
+            ps.setString(4, leg.counterparty());
+            ps.setTimestamp(5, now);
+            ps.setLong(6, leg.walletId());
+            ps.setString(7, leg.category());
+        });
+        List<HistoryEntry> entries = new ArrayList<>(legs.size());
+        for (PayoutLeg leg : legs)
+            entries.add(new HistoryEntry(leg.walletId(), leg.type(), leg.category(), leg.amount().paise(),
+                    now.toLocalDateTime()));
+        categories.recordAll(entries, payoutBatchSize);
+        walletStats.recordAll(entries, payoutBatchSize);
+        rollups.recordAll(entries, payoutBatchSize);
+        insightsChanged(senderId);
+        paid.forEach(this::insightsChanged);
+
+        return results;
+    }
+
+    // Exact identifiers only (no name matching for bulk), one query for all users
+    private Map<String, User> resolveRecipients(List<PayoutItem> items) {
+        Map<String, Long> idsByKey = new HashMap<>();
+        for (PayoutItem item : items) {
+            if (item.getReceiver() == null)
+                continue;
+            String key = item.getReceiver().trim();
+            Long id = recipientDirectory.resolve(key);
+            if (id != null)
+                idsByKey.put(key, id);
+        }
+        Map<String, User> resolved = new HashMap<>();
+        if (idsByKey.isEmpty())
+            return resolved;
+
+        Map<Long, User> users = new HashMap<>();
+        for (User u : userRepo.findAllById(new HashSet<>(idsByKey.values())))
+            users.put(u.getId(), u);
+        for (Map.Entry<String, Long> e : idsByKey.entrySet()) {
+            User u = users.get(e.getValue());
+            if (u != null)
+                resolved.put(e.getKey(), u);
+        }
+        return resolved;
     }
 
     // -------------------------------
     // HISTORY
     // -------------------------------
-    public List<Transaction> history(Long userId) {
-        User user = userRepo.findById(userId).orElse(null);
-        Wallet wallet = walletRepo.findByUser(user);
-        return txRepo.findByWallet(wallet);
+    public List<TransactionView> history(Long userId) {
+        Long walletId = walletRepo.findIdByUserId(userId).orElse(null);
+        if (walletId == null)
+            return List.of();
+        return txRepo.findViewsByWalletId(walletId);
+    }
+
+    // Keyset pagination: cost per page stays the same however deep the user scrolls
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public HistoryPage historyPage(Long userId, HistoryQuery q) {
+        Long walletId = walletRepo.findIdByUserId(userId).orElse(null);
+        if (walletId == null)
+            return new HistoryPage(List.of(), null, false);
+
+        int limit = Math.max(1, Math.min(q.getLimit(), MAX_PAGE_SIZE));
+        LocalDateTime cursorTs = null;
+        Long cursorId = null;
+        if (q.getCursor() != null && !q.getCursor().isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(q.getCursor()), StandardCharsets.UTF_8);
+                int sep = decoded.indexOf('|');
+                cursorTs = LocalDateTime.parse(decoded.substring(0, sep));
+                cursorId = Long.parseLong(decoded.substring(sep + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<TransactionView> rows = txRepo.findHistoryPage(walletId, q.getType(), q.getStatus(),
+                toMoney(q.getMinAmount()), toMoney(q.getMaxAmount()), q.getFrom(), q.getTo(), cursorTs, cursorId,
+                PageRequest.of(0, limit + 1));
+
+        boolean hasMore = rows.size() > limit;
+        List<TransactionView> items = hasMore ? rows.subList(0, limit) : rows;
+        String next = null;
+        if (hasMore) {
+            TransactionView last = items.get(items.size() - 1);
+            next = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.timestamp() + "|" + last.id()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new HistoryPage(items, next, hasMore);
+    }
+
+    private static Money toMoney(Double rupees) {
+        return rupees == null ? null : Money.ofRupees(rupees);
     }
 
     // -------------------------------
@@ -279,18 +770,16 @@ public class WalletService {
         if (user == null)
             return null;
 
+        return primaryBank(user);
+    }
+
+    private com.paythm.paythm_api.entity.BankAccount primaryBank(User user) {
         List<com.paythm.paythm_api.entity.BankAccount> banks = bankRepo.findByUserAndIsPrimaryTrue(user);
         com.paythm.paythm_api.entity.BankAccount bank = banks.isEmpty() ? null : banks.get(0);
 
         if (bank == null) {
             // Create default if missing
-            bank = new com.paythm.paythm_api.entity.BankAccount();
-            bank.setUser(user);
-            bank.setBankName(user.getBankName() != null ? user.getBankName() : "State Bank of India");
-            bank.setAccountNumber("**** " + (1000 + new java.util.Random().nextInt(8999)));
-            bank.setBalance(50000.00);
-            bank.setPrimary(true);
-            bankRepo.save(bank);
+            bank = createMockBank(user);
         } else if (user.getBankName() != null && !user.getBankName().equals(bank.getBankName())) {
             // Sync Bank Name if user profile updates
             bank.setBankName(user.getBankName());
@@ -299,38 +788,24 @@ public class WalletService {
         return bank;
     }
 
+    // Demo bank account with a fixed starting balance, funded in the ledger from external:mock-bank
+    private com.paythm.paythm_api.entity.BankAccount createMockBank(User user) {
+        com.paythm.paythm_api.entity.BankAccount bank = new com.paythm.paythm_api.entity.BankAccount();
+        bank.setUser(user);
+        bank.setBankName(user.getBankName() != null ? user.getBankName() : "State Bank of India");
+        bank.setAccountNumber("**** " + ThreadLocalRandom.current().nextInt(1000, 9999));
+        bank.setBalance(MOCK_BANK_BALANCE); // Default Mock Balance
+        bank.setPrimary(true);
+        bank = bankRepo.save(bank);
+        ledger.transfer("BANK_LINK", "Mock bank linked: " + bank.getBankName(), LedgerService.MOCK_BANK,
+                LedgerService.bank(bank.getId()), MOCK_BANK_BALANCE);
+        return bank;
+    }
+
     // -------------------------------
     // ALL TRANSACTIONS (Admin)
     // -------------------------------
-    public List<Transaction> getAllTransactions() {
-        return txRepo.findAll();
-    }
-
-    private void checkAndApplyRewards(User user, Wallet wallet) {
-        long count = txRepo.countByWalletUserIdAndType(user.getId(), "DEBIT");
-        if (count == 5) {
-            double cashback = 50.0; // Fixed cashback for now
-            wallet.setBalance(wallet.getBalance() + cashback);
-            walletRepo.save(wallet);
-
-            Transaction tx = new Transaction();
-            tx.setAmount(cashback);
-            tx.setType("CREDIT");
-            tx.setMessage("🎉 Cashback Reward! (First 5 Payments)");
-            tx.setWallet(wallet);
-            txRepo.save(tx);
-        } else if (count > 5 && count % 10 == 0) {
-            // Milestone Reward every 10 txs
-            double cashback = 10.0;
-            wallet.setBalance(wallet.getBalance() + cashback);
-            walletRepo.save(wallet);
-
-            Transaction tx = new Transaction();
-            tx.setAmount(cashback);
-            tx.setType("CREDIT");
-            tx.setMessage("🎁 Loyalty Bonus (Every 10 Payments)");
-            tx.setWallet(wallet);
-            txRepo.save(tx);
-        }
+    public List<AdminTransactionView> getAllTransactions() {
+        return txRepo.findAllAdminViews();
     }
 }
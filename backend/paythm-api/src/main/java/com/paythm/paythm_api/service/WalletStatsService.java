@@ -0,0 +1,327 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-wallet running totals over the history rows: spent, received, debit
+ * count, row count, late-night rows and first/last row time. Insights read
+ * them in one indexed query instead of summing and scanning the history.
+ *
+ * Totals are upserted in the payment transaction, next to the history row
+ * they describe, so a rolled-back payment never counts. Credits to a sharded
+ * (hot) wallet land on a random stats slot, like the balance itself, so
+ * payers of one merchant do not queue on a single stats row; a wallet's
+ * stats are the sum of its slots.
+ *
+ * The rebuild job recomputes every wallet's totals from the transaction
+ * table in parallel wallet-id ranges (one DELETE + INSERT ... SELECT per
+ * range) and then verifies stored against recomputed totals. It runs on
+ * start when the table is still empty (first deploy), or when
+ * paythm.stats.rebuild-on-start=true; paythm.stats.verify-on-start=true only
+ * verifies. With the history journal enabled, rows still waiting for the
+ * applier are counted but not yet in the table: run the job when it has
+ * caught up.
+ */
+@Service
+public class WalletStatsService {
+
+    public record Stats(Money totalSpent, Money totalReceived, long debitCount, long transactionCount,
+            long lateNightCount, LocalDateTime firstAt, LocalDateTime lastAt) {
+
+        public static final Stats EMPTY = new Stats(Money.ZERO, Money.ZERO, 0, 0, 0, null, null);
+    }
+
+    public record Check(long wallets, long mismatches, boolean rebuilt, long millis) {
+    }
+
+    private static final int LATE_NIGHT_END_HOUR = 5; // midnight to 5 AM
+
+    private static final String UPSERT_SQL = "insert into wallet_stats (wallet_id, slot, total_spent, "
+            + "total_received, debit_count, tx_count, late_night_count, first_tx_at, last_tx_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?) on duplicate key update "
+            + "total_spent = total_spent + values(total_spent), "
+            + "total_received = total_received + values(total_received), "
+            + "debit_count = debit_count + values(debit_count), "
+            + "tx_count = tx_count + values(tx_count), "
+            + "late_night_count = late_night_count + values(late_night_count), "
+            + "first_tx_at = coalesce(least(first_tx_at, values(first_tx_at)), first_tx_at, values(first_tx_at)), "
+            + "last_tx_at = coalesce(greatest(last_tx_at, values(last_tx_at)), last_tx_at, values(last_tx_at))";
+
+    private static final String READ_SQL = "select coalesce(sum(s.total_spent), 0), "
+            + "coalesce(sum(s.total_received), 0), coalesce(sum(s.debit_count), 0), coalesce(sum(s.tx_count), 0), "
+            + "coalesce(sum(s.late_night_count), 0), min(s.first_tx_at), max(s.last_tx_at) "
+            + "from wallet_stats s join wallet w on w.id = s.wallet_id where w.user_id = ?";
+
+    private static final String RECOMPUTED_COLUMNS = "coalesce(sum(case when type = 'DEBIT' then amount end), 0), "
+            + "coalesce(sum(case when type = 'CREDIT' then amount end), 0), "
+            + "sum(case when type = 'DEBIT' then 1 else 0 end), count(*), "
+            + "sum(case when hour(timestamp) < " + LATE_NIGHT_END_HOUR + " then 1 else 0 end), "
+            + "min(timestamp), max(timestamp)";
+
+    private static final String RECOMPUTE_SQL = "select wallet_id, " + RECOMPUTED_COLUMNS
+            + " from transaction where wallet_id between ? and ? group by wallet_id";
+
+    private static final String STORED_SQL = "select wallet_id, sum(total_spent), sum(total_received), "
+            + "sum(debit_count), sum(tx_count), sum(late_night_count), min(first_tx_at), max(last_tx_at) "
+            + "from wallet_stats where wallet_id between ? and ? group by wallet_id";
+
+    private static final String CLEAR_RANGE_SQL = "delete from wallet_stats where wallet_id between ? and ?";
+
+    private static final String REBUILD_RANGE_SQL = "insert into wallet_stats (wallet_id, slot, total_spent, "
+            + "total_received, debit_count, tx_count, late_night_count, first_tx_at, last_tx_at) "
+            + "select wallet_id, 0, " + RECOMPUTED_COLUMNS
+            + " from transaction where wallet_id between ? and ? group by wallet_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final HotWalletShards hotWallets;
+    private final boolean rebuildOnStart;
+    private final boolean verifyOnStart;
+    private final int rebuildThreads;
+    private final int rebuildChunkSize;
+
+    private final LongAdder upserts = new LongAdder();
+    private volatile Check lastCheck;
+
+    public WalletStatsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager txManager,
+            HotWalletShards hotWallets,
+            @Value("${paythm.stats.rebuild-on-start:false}") boolean rebuildOnStart,
+            @Value("${paythm.stats.verify-on-start:false}") boolean verifyOnStart,
+            @Value("${paythm.stats.rebuild-threads:4}") int rebuildThreads,
+            @Value("${paythm.stats.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(txManager);
+        this.hotWallets = hotWallets;
+        this.rebuildOnStart = rebuildOnStart;
+        this.verifyOnStart = verifyOnStart;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    // -------------------------------
+    // WRITE PATH
+    // -------------------------------
+    // Call inside the payment transaction that writes the history row
+    public void record(Transaction t) {
+        Delta d = new Delta();
+        d.add(t.getType(), t.getAmount().paise(), t.getTimestamp());
+        Long walletId = t.getWallet().getId();
+        upsert(List.<Object[]>of(d.forWallet(walletId, slotFor(walletId, d.debits == 0))), 1);
+    }
+
+    // Bulk path: one upsert per wallet, in wallet-id order like the balance updates
+    public void recordAll(List<HistoryEntry> entries, int batchSize) {
+        Map<Long, Delta> byWallet = new TreeMap<>();
+        for (HistoryEntry e : entries)
+            byWallet.computeIfAbsent(e.walletId(), k -> new Delta()).add(e.type(), e.paise(), e.at());
+        List<Object[]> rows = new ArrayList<>(byWallet.size());
+        byWallet.forEach((walletId, d) -> rows.add(d.forWallet(walletId, slotFor(walletId, d.debits == 0))));
+        upsert(rows, batchSize);
+    }
+
+    // Only credits are spread; a wallet's own debits stay on slot 0
+    private int slotFor(Long walletId, boolean creditOnly) {
+        int slots = creditOnly ? hotWallets.slotsOf(walletId) : 0;
+        return slots == 0 ? 0 : ThreadLocalRandom.current().nextInt(slots);
+    }
+
+    private void upsert(List<Object[]> rows, int batchSize) {
+        if (rows.size() == 1)
+            jdbcTemplate.update(UPSERT_SQL, rows.get(0));
+        else
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++)
+                    ps.setObject(i + 1, row[i]);
+            });
+        upserts.add(rows.size());
+    }
+
+    private static final class Delta {
+        long spent;
+        long received;
+        long debits;
+        long count;
+        long lateNight;
+        LocalDateTime first;
+        LocalDateTime last;
+
+        void add(String type, long paise, LocalDateTime at) {
+            if ("DEBIT".equals(type)) {
+                spent = Math.addExact(spent, paise);
+                debits++;
+            } else if ("CREDIT".equals(type)) {
+                received = Math.addExact(received, paise);
+            }
+            count++;
+            if (at != null) {
+                if (at.getHour() < LATE_NIGHT_END_HOUR)
+                    lateNight++;
+                if (first == null || at.isBefore(first))
+                    first = at;
+                if (last == null || at.isAfter(last))
+                    last = at;
+            }
+        }
+
+        Object[] forWallet(Long walletId, int slot) {
+            return new Object[] { walletId, slot, spent, received, debits, count, lateNight,
+                    first == null ? null : Timestamp.valueOf(first), last == null ? null : Timestamp.valueOf(last) };
+        }
+    }
+
+    // -------------------------------
+    // READ
+    // -------------------------------
+    // Zeros for a user without wallet or history
+    public Stats statsOfUser(Long userId) {
+        return jdbcTemplate.queryForObject(READ_SQL, (rs, i) -> readStats(rs, 1), userId);
+    }
+
+    private static Stats readStats(ResultSet rs, int col) throws SQLException {
+        Timestamp first = rs.getTimestamp(col + 5);
+        Timestamp last = rs.getTimestamp(col + 6);
+        return new Stats(Money.ofPaise(rs.getLong(col)), Money.ofPaise(rs.getLong(col + 1)), rs.getLong(col + 2),
+                rs.getLong(col + 3), rs.getLong(col + 4), first == null ? null : first.toLocalDateTime(),
+                last == null ? null : last.toLocalDateTime());
+    }
+
+    // -------------------------------
+    // REBUILD / VERIFY
+    // -------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCheck() {
+        boolean rebuild = rebuildOnStart || neverBuilt();
+        if (rebuild || verifyOnStart)
+            Thread.ofVirtual().name("wallet-stats-check").start(() -> check(rebuild));
+    }
+
+    private boolean neverBuilt() {
+        return jdbcTemplate.queryForList("select id from wallet_stats limit 1", Long.class).isEmpty()
+                && !jdbcTemplate.queryForList("select id from transaction limit 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Optionally regenerates every wallet's stats from its history rows, then
+     * compares stored and recomputed totals. A wallet that differs is checked
+     * once more before it counts as a mismatch, since a payment may have
+     * committed between the two reads.
+     */
+    public Check check(boolean rebuild) {
+        long start = System.currentTimeMillis();
+        Long minId = jdbcTemplate.queryForObject("select min(id) from wallet", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from wallet", Long.class);
+        if (minId == null || maxId == null) {
+            lastCheck = new Check(0, 0, rebuild, 0);
+            return lastCheck;
+        }
+
+        // Each chunk owns a wallet-id range, so chunks never touch the same rows
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<long[]>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += rebuildChunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + rebuildChunkSize - 1);
+                chunks.add(pool.submit(() -> {
+                    if (rebuild)
+                        tx.executeWithoutResult(status -> {
+                            jdbcTemplate.update(CLEAR_RANGE_SQL, lo, hi);
+                            jdbcTemplate.update(REBUILD_RANGE_SQL, lo, hi);
+                        });
+                    return verifyRange(lo, hi);
+                }));
+            }
+            long wallets = 0;
+            long mismatches = 0;
+            for (Future<long[]> chunk : chunks) {
+                long[] r = chunk.get();
+                wallets += r[0];
+                mismatches += r[1];
+            }
+            lastCheck = new Check(wallets, mismatches, rebuild, System.currentTimeMillis() - start);
+            System.out.println("✔ " + (rebuild ? "Rebuilt and verified" : "Verified") + " stats for " + wallets
+                    + " wallets in " + lastCheck.millis() + " ms, " + mismatches + " mismatches");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Wallet stats check failed: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        return lastCheck;
+    }
+
+    // { wallets with history, mismatching wallets }
+    private long[] verifyRange(long lo, long hi) {
+        Map<Long, Stats> recomputed = load(RECOMPUTE_SQL, lo, hi);
+        Map<Long, Stats> stored = load(STORED_SQL, lo, hi);
+        long mismatches = 0;
+        for (Map.Entry<Long, Stats> e : recomputed.entrySet()) {
+            if (!same(e.getValue(), stored.remove(e.getKey())) && !recheck(e.getKey()))
+                mismatches++;
+        }
+        for (Long walletId : stored.keySet()) {
+            if (!recheck(walletId))
+                mismatches++; // stats for a wallet without history rows
+        }
+        return new long[] { recomputed.size(), mismatches };
+    }
+
+    private boolean recheck(Long walletId) {
+        boolean ok = same(load(RECOMPUTE_SQL, walletId, walletId).get(walletId),
+                load(STORED_SQL, walletId, walletId).get(walletId));
+        if (!ok)
+            System.err.println("Wallet stats mismatch for wallet " + walletId);
+        return ok;
+    }
+
+    private Map<Long, Stats> load(String sql, long lo, long hi) {
+        Map<Long, Stats> out = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            out.put(rs.getLong(1), readStats(rs, 2));
+        }, lo, hi);
+        return out;
+    }
+
+    private static boolean same(Stats a, Stats b) {
+        return Objects.equals(a == null ? Stats.EMPTY : a, b == null ? Stats.EMPTY : b);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("upserts", upserts.sum());
+        Check c = lastCheck;
+        if (c != null) {
+            out.put("lastCheckRebuilt", c.rebuilt());
+            out.put("lastCheckWallets", c.wallets());
+            out.put("lastCheckMismatches", c.mismatches());
+            out.put("lastCheckMillis", c.millis());
+        }
+        return out;
+    }
+}
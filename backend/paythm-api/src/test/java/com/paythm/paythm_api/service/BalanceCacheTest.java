@@ -0,0 +1,56 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.WalletBalance;
+import com.paythm.paythm_api.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCacheTest {
+
+    @Test
+    void newerVersionWinsAndOlderIsIgnored() {
+        BalanceCache cache = new BalanceCache(100, 60_000);
+        cache.put(balance(1L, 500, 2));
+        cache.put(balance(1L, 300, 1));
+        assertEquals(Money.ofPaise(500), cache.get(1L));
+        cache.put(balance(1L, 700, 3));
+        assertEquals(Money.ofPaise(700), cache.get(1L));
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        BalanceCache cache = new BalanceCache(100, 20);
+        cache.put(balance(1L, 500, 1));
+        assertNotNull(cache.get(1L));
+        Thread.sleep(50);
+        // Another instance may have moved money meanwhile: go back to the row
+        assertNull(cache.get(1L));
+        assertEquals(1L, cache.metrics().get("expirations"));
+    }
+
+    @Test
+    void aFullCacheEvictsTheEntriesConfirmedLongestAgo() throws Exception {
+        BalanceCache cache = new BalanceCache(100, 60_000);
+        for (long user = 1; user <= 100; user++) {
+            cache.put(balance(user, 100, 1));
+            Thread.sleep(1);
+        }
+        // Users 1..10 are read back from the row: same version, fresh again
+        for (long user = 1; user <= 10; user++)
+            cache.put(balance(user, 100, 1));
+
+        cache.put(balance(101L, 100, 1));
+
+        // One percent of 100 goes, and it is user 11, now the oldest
+        assertNull(cache.get(11L));
+        for (long user = 1; user <= 10; user++)
+            assertNotNull(cache.get(user), "user " + user);
+        assertNotNull(cache.get(101L));
+        assertEquals(1L, cache.metrics().get("evictions"));
+    }
+
+    private static WalletBalance balance(Long userId, long paise, long version) {
+        return new WalletBalance(userId, userId, Money.ofPaise(paise), version, 0);
+    }
+}
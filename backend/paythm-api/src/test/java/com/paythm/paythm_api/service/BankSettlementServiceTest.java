@@ -0,0 +1,123 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.BankTransfer;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.SettlementBatch;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.repository.BankTransferRepository;
+import com.paythm.paythm_api.repository.SettlementBatchRepository;
+import com.paythm.paythm_api.repository.TransactionRepository;
+import com.paythm.paythm_api.repository.UserRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * How bank answers reach the history rows of the transfers they settle,
+ * against the configured datasource.
+ */
+@SpringBootTest
+class BankSettlementServiceTest {
+
+    private static final Money AMOUNT = Money.ofRupees(250);
+
+    @Autowired
+    private BankSettlementService settlement;
+
+    @Autowired
+    private BankTransferRepository transferRepo;
+
+    @Autowired
+    private SettlementBatchRepository batchRepo;
+
+    @Autowired
+    private TransactionRepository txRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private WalletRepository walletRepo;
+
+    @Test
+    void identicalTransfersResolveOnlyTheirOwnHistoryRow() {
+        Wallet wallet = newWallet("twin-sender");
+        Long batchId = batchRepo.save(new SettlementBatch()).getId();
+        BankTransfer first = batched(wallet, batchId);
+        BankTransfer second = batched(wallet, batchId);
+        Long firstRow = pendingRow(wallet, first).getId();
+        Long secondRow = pendingRow(wallet, second).getId();
+
+        settlement.applyResponses(List.of(new NeftBatchFile.Response(BankSettlementService.reference(first.getId()),
+                true, null)));
+
+        assertEquals("Completed", status(firstRow));
+        assertEquals("Pending", status(secondRow));
+    }
+
+    @Test
+    void rowStillInTheJournalIsResolvedWhenItLands() {
+        Wallet wallet = newWallet("late-row-sender");
+        BankTransfer transfer = batched(wallet, batchRepo.save(new SettlementBatch()).getId());
+
+        // The bank answers before the applier has inserted the Pending row
+        settlement.applyResponses(List.of(new NeftBatchFile.Response(
+                BankSettlementService.reference(transfer.getId()), false, "Account closed")));
+        Long row = pendingRow(wallet, transfer).getId();
+        settlement.reconcileHistory();
+
+        assertEquals("Failed", status(row));
+    }
+
+    private String status(Long transactionId) {
+        return txRepo.findById(transactionId).orElseThrow().getStatus();
+    }
+
+    private BankTransfer batched(Wallet wallet, Long batchId) {
+        BankTransfer t = new BankTransfer();
+        t.setWalletId(wallet.getId());
+        t.setAccountNumber("50100012345678");
+        t.setIfsc("HDFC0001234");
+        t.setBeneficiaryName("Priya Sharma");
+        t.setAmount(AMOUNT);
+        t.setStatus("BATCHED");
+        t.setBatchId(batchId);
+        return transferRepo.save(t);
+    }
+
+    // What WalletService writes for the debit, memo included: twins share every column but the transfer id
+    private Transaction pendingRow(Wallet wallet, BankTransfer transfer) {
+        Transaction tx = new Transaction();
+        tx.setAmount(AMOUNT);
+        tx.setType("DEBIT");
+        tx.setStatus("Pending");
+        tx.setMessage("Bank transfer to Priya Sharma (Acc: 50100012345678)");
+        tx.setCounterparty("Priya Sharma");
+        tx.setBankTransferId(transfer.getId());
+        tx.setWallet(wallet);
+        return txRepo.save(tx);
+    }
+
+    private Wallet newWallet(String prefix) {
+        String name = prefix + "-" + System.nanoTime();
+        User user = new User();
+        user.setFullName(name);
+        user.setEmail(name + "@test.paythm.com");
+        user.setPassword("x");
+        user.setPaythmId(name + "@test");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setRole("USER");
+        user = userRepo.save(user);
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        return walletRepo.save(wallet);
+    }
+}
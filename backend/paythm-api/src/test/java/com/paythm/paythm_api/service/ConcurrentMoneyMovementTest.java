@@ -0,0 +1,177 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Goal;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.repository.GoalRepository;
+import com.paythm.paythm_api.repository.UserRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import com.paythm.paythm_api.repository.WalletShardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Concurrent money movements against the configured datasource: no
+ * contribution or transfer may be lost, and money is never created or
+ * destroyed, however the calls interleave.
+ */
+@SpringBootTest
+class ConcurrentMoneyMovementTest {
+
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 25;
+    private static final Money AMOUNT = Money.ofRupees(1);
+
+    @Autowired
+    private TransferEngine engine;
+
+    @Autowired
+    private GoalService goalService;
+
+    @Autowired
+    private GoalRepository goalRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private WalletRepository walletRepo;
+
+    @Autowired
+    private WalletShardRepository shardRepo;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Test
+    void concurrentGoalContributionsAllReachTheGoal() throws Exception {
+        Wallet wallet = newWallet("goal-saver");
+        Long walletId = wallet.getId();
+        Money funded = AMOUNT.times((long) THREADS * CALLS_PER_THREAD);
+        engine.credit(walletId, funded);
+        Goal goal = goalRepo.save(new Goal("Bike", Money.ofRupees(100_000), Money.ZERO, null, wallet.getUser()));
+
+        runConcurrently(() -> goalService.addMoneyToGoal(goal.getId(), AMOUNT));
+
+        assertEquals(funded, goalRepo.findById(goal.getId()).orElseThrow().getCurrentAmount());
+        assertEquals(Money.ZERO, balance(walletId));
+    }
+
+    @Test
+    void concurrentTransfersBothWaysConserveMoney() throws Exception {
+        Long a = newWallet("transfer-a").getId();
+        Long b = newWallet("transfer-b").getId();
+        Money start = AMOUNT.times((long) THREADS * CALLS_PER_THREAD);
+        engine.credit(a, start);
+        engine.credit(b, start);
+
+        // Opposite directions on the same pair: the lock order must hold without deadlock
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                boolean forward = t % 2 == 0;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < CALLS_PER_THREAD; i++)
+                        engine.transfer(forward ? a : b, forward ? b : a, AMOUNT);
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        }
+
+        // Half the threads each way, all with enough funds: both balances end where they started
+        assertEquals(start, balance(a));
+        assertEquals(start, balance(b));
+    }
+
+    @Test
+    void failedTransferToAHotWalletTakesItsSlotCreditBack() {
+        Long payer = newWallet("hot-payer").getId();
+        Long hot = newWallet("hot-merchant").getId();
+        engine.reshard(hot, 4);
+
+        assertFalse(engine.transfer(payer, hot, AMOUNT));
+
+        assertEquals(0L, shardRepo.aggregateBalance(hot));
+        engine.reshard(hot, 0);
+    }
+
+    @Test
+    void hotReceiverUnshardedElsewhereKeepsTheLockOrder() throws Exception {
+        Long payer = newWallet("unsharded-payer").getId();
+        Long hot = newWallet("unsharded-merchant").getId();
+        Money start = AMOUNT.times((long) THREADS * CALLS_PER_THREAD);
+        engine.credit(payer, start);
+        engine.credit(hot, start);
+        engine.reshard(hot, 4);
+        // Another instance turned the wallet back into a plain one: this JVM still routes credits to slots
+        new TransactionTemplate(txManager).executeWithoutResult(status -> shardRepo.deleteByWallet(hot));
+
+        // Credits into the stale hot wallet fall back to its row while the reverse direction locks both stripes
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                boolean toHot = t % 2 == 0;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < CALLS_PER_THREAD; i++)
+                        engine.transfer(toHot ? payer : hot, toHot ? hot : payer, AMOUNT);
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        }
+
+        assertEquals(start, balance(payer));
+        assertEquals(start.paise(), shardRepo.aggregateBalance(hot));
+    }
+
+    private void runConcurrently(Runnable call) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < CALLS_PER_THREAD; i++)
+                        call.run();
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        }
+    }
+
+    private Money balance(Long walletId) {
+        return walletRepo.findById(walletId).orElseThrow().getBalance();
+    }
+
+    private Wallet newWallet(String prefix) {
+        String name = prefix + "-" + System.nanoTime();
+        User user = new User();
+        user.setFullName(name);
+        user.setEmail(name + "@test.paythm.com");
+        user.setPassword("x");
+        user.setPaythmId(name + "@test");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setRole("USER");
+        user = userRepo.save(user);
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        return walletRepo.save(wallet);
+    }
+}
@@ -0,0 +1,192 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.Transaction;
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.repository.LedgerPostingRepository;
+import com.paythm.paythm_api.repository.TransactionRepository;
+import com.paythm.paythm_api.repository.UserRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sustained P2P payments/sec with history rows written by one INSERT each
+ * vs. through the local journal (group-committed, applied in the
+ * background). Needs a real MySQL (the configured datasource) and creates
+ * its own throw-away users, so it only runs with -Dpaythm.bench=true:
+ *
+ * mvn test -Dtest=HistoryJournalBenchmark -Dpaythm.bench=true
+ *
+ * Each payment is what WalletService does for a P2P send minus lookups and
+ * risk checks: transfer, ledger posting and two history rows in one
+ * transaction. Payers and payees are disjoint pairs, so the numbers measure
+ * the history write path rather than wallet contention. The journal run
+ * also reports how long the applier needed to catch up afterwards.
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=64")
+@EnabledIfSystemProperty(named = "paythm.bench", matches = "true")
+class HistoryJournalBenchmark {
+
+    private static final int PAIRS = 200;
+    private static final int PAYMENTS_PER_PAIR = 25;
+    private static final Money AMOUNT = Money.ofRupees(1);
+
+    @Autowired
+    private TransferEngine engine;
+
+    @Autowired
+    private LedgerService ledger;
+
+    @Autowired
+    private TransactionRepository txRepo;
+
+    @Autowired
+    private LedgerPostingRepository postingRepo;
+
+    @Autowired
+    private WalletStatsService stats;
+
+    @Autowired
+    private SpendingCategories categories;
+
+    @Autowired
+    private SpendRollups rollups;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private WalletRepository walletRepo;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void journalRaisesSustainedPaymentRate() throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Long[]> pairs = new ArrayList<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            Long payer = newWallet("bench-hj-payer-" + run + "-" + i).getId();
+            Long payee = newWallet("bench-hj-payee-" + run + "-" + i).getId();
+            engine.credit(payer, AMOUNT.times(PAYMENTS_PER_PAIR * 2L));
+            pairs.add(new Long[] { payer, payee });
+        }
+
+        System.out.printf("%n%-10s %10s %12s %10s %12s%n", "history", "payments", "elapsed ms", "tx/s", "catch-up ms");
+        double plain = measure("insert", newJournal(false), pairs);
+        double journaled = measure("journal", newJournal(true), pairs);
+        System.out.printf("journal / insert: %.2fx%n", journaled / plain);
+        assertTrue(journaled > 0 && plain > 0);
+    }
+
+    private double measure(String label, HistoryJournal history, List<Long[]> pairs) throws Exception {
+        history.start();
+        try {
+            TransactionTemplate tx = new TransactionTemplate(txManager);
+            AtomicLong failed = new AtomicLong();
+            long started = System.nanoTime();
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>(pairs.size());
+                for (Long[] pair : pairs) {
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < PAYMENTS_PER_PAIR; i++) {
+                            try {
+                                tx.executeWithoutResult(status -> pay(history, pair[0], pair[1]));
+                            } catch (RuntimeException e) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures)
+                    f.get();
+            }
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            long payments = (long) pairs.size() * PAYMENTS_PER_PAIR - failed.get();
+
+            long catchUpStart = System.nanoTime();
+            // Without the journal both are absent: rows were inserted before each commit
+            while (!caughtUp(history.metrics()))
+                Thread.sleep(10);
+            long catchUpMs = (System.nanoTime() - catchUpStart) / 1_000_000;
+
+            double rate = payments * 1000.0 / elapsedMs;
+            System.out.printf("%-10s %10d %12d %10.0f %12d%n", label, payments, elapsedMs, rate, catchUpMs);
+            return rate;
+        } finally {
+            history.stop();
+        }
+    }
+
+    private static boolean caughtUp(Map<String, Object> m) {
+        return Objects.equals(m.get("appended"), m.get("applied"));
+    }
+
+    private void pay(HistoryJournal history, Long from, Long to) {
+        assertTrue(engine.transfer(from, to, AMOUNT));
+        Long postingId = ledger.transfer("P2P", "bench", LedgerService.wallet(from), LedgerService.wallet(to), AMOUNT);
+        history.record(row(from, "DEBIT"), postingId);
+        history.record(row(to, "CREDIT"), postingId);
+    }
+
+    private Transaction row(Long walletId, String type) {
+        Transaction t = new Transaction();
+        t.setAmount(AMOUNT);
+        t.setType(type);
+        t.setMessage("bench");
+        t.setCounterparty("bench");
+        t.setWallet(walletRepo.getReferenceById(walletId));
+        return t;
+    }
+
+    private HistoryJournal newJournal(boolean enabled) throws Exception {
+        return new HistoryJournal(txRepo, postingRepo, walletRepo, stats, categories, rollups, jdbcTemplate,
+                txManager, events, enabled, dir.toString(), 64 << 20, 500, 200);
+    }
+
+    private Wallet newWallet(String name) {
+        User user = new User();
+        user.setFullName(name);
+        user.setEmail(name + "@bench.paythm.com");
+        user.setPassword("x");
+        user.setPaythmId(name + "@bench");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setRole("USER");
+        user = userRepo.save(user);
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        return walletRepo.save(wallet);
+    }
+}
@@ -0,0 +1,126 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.entity.Wallet;
+import com.paythm.paythm_api.repository.UserRepository;
+import com.paythm.paythm_api.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Credit throughput into one merchant wallet with 500 concurrent payers,
+ * plain wallet vs. hot-wallet slots. Needs a real MySQL (the configured
+ * datasource) and creates its own throw-away users, so it only runs with
+ * -Dpaythm.bench=true:
+ *
+ * mvn test -Dtest=HotWalletShardingBenchmark -Dpaythm.bench=true
+ *
+ * Payments go straight through TransferEngine so the numbers measure the
+ * merchant row / stripe contention, not history or ledger inserts. A payment
+ * rejected with "Wallet is busy" (stripe lock timeout) is retried and
+ * counted.
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=64")
+@EnabledIfSystemProperty(named = "paythm.bench", matches = "true")
+class HotWalletShardingBenchmark {
+
+    private static final int PAYERS = 500;
+    private static final int PAYMENTS_PER_PAYER = 20;
+    private static final Money AMOUNT = Money.ofRupees(1);
+    private static final int[] SLOT_COUNTS = { 0, 4, 16, 32 };
+
+    @Autowired
+    private TransferEngine engine;
+
+    @Autowired
+    private HotWalletShards hotWallets;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private WalletRepository walletRepo;
+
+    @Test
+    void creditThroughputScalesWithSlots() throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        Wallet merchant = newWallet("bench-merchant-" + run);
+        List<Long> payers = new ArrayList<>(PAYERS);
+        for (int i = 0; i < PAYERS; i++) {
+            Long walletId = newWallet("bench-payer-" + run + "-" + i).getId();
+            engine.credit(walletId, AMOUNT.times((long) PAYMENTS_PER_PAYER * SLOT_COUNTS.length));
+            payers.add(walletId);
+        }
+
+        System.out.printf("%n%-8s %10s %10s %12s %10s%n", "slots", "payments", "busy", "elapsed ms", "tx/s");
+        long expected = 0;
+        for (int slots : SLOT_COUNTS) {
+            engine.reshard(merchant.getId(), slots);
+            AtomicLong busy = new AtomicLong();
+            long started = System.nanoTime();
+            payAll(merchant.getId(), payers, busy);
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            long payments = (long) PAYERS * PAYMENTS_PER_PAYER;
+            expected += payments * AMOUNT.paise();
+            System.out.printf("%-8d %10d %10d %12d %10.0f%n", slots, payments, busy.get(), elapsedMs,
+                    payments * 1000.0 / elapsedMs);
+
+            assertEquals(Money.ofPaise(expected), hotWallets.totalBalance(
+                    walletRepo.findBalanceByUserId(merchant.getUser().getId()).orElseThrow()));
+        }
+        engine.reshard(merchant.getId(), 0);
+    }
+
+    private void payAll(Long merchant, List<Long> payers, AtomicLong busy) throws Exception {
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(payers.size());
+            for (Long payer : payers) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < PAYMENTS_PER_PAYER; i++) {
+                        while (true) {
+                            try {
+                                assertTrue(engine.transfer(payer, merchant, AMOUNT));
+                                break;
+                            } catch (RuntimeException e) {
+                                if (!"Wallet is busy, please retry".equals(e.getMessage()))
+                                    throw e;
+                                busy.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        }
+    }
+
+    private Wallet newWallet(String name) {
+        User user = new User();
+        user.setFullName(name);
+        user.setEmail(name + "@bench.paythm.com");
+        user.setPassword("x");
+        user.setPaythmId(name + "@bench");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setRole("USER");
+        user = userRepo.save(user);
+        Wallet wallet = new Wallet();
+        wallet.setUser(user);
+        return walletRepo.save(wallet);
+    }
+}
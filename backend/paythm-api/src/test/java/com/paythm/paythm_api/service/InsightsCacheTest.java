@@ -0,0 +1,67 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.InsightsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InsightsCacheTest {
+
+    private final InsightsService insights = mock(InsightsService.class);
+    private final AtomicInteger computed = new AtomicInteger();
+
+    // Cards come back partial while 'partial' says so; each one is numbered
+    private void cards(boolean... partial) {
+        when(insights.generateInsights(any())).thenAnswer(invocation -> {
+            int n = computed.getAndIncrement();
+            InsightsResponse card = new InsightsResponse();
+            card.setAiSuggestions(List.of("card " + n));
+            card.setPartial(partial[Math.min(n, partial.length - 1)]);
+            return card;
+        });
+    }
+
+    // A stale card triggers one recomputation in the background; wait for it to land
+    private static InsightsResponse refreshed(InsightsCache cache, Long userId, String suggestion) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            InsightsResponse card = cache.get(userId);
+            if (card.getAiSuggestions().contains(suggestion))
+                return card;
+            Thread.sleep(10);
+        }
+        return fail("never saw " + suggestion);
+    }
+
+    @Test
+    void completeCardStaysFresh() throws Exception {
+        cards(false);
+        InsightsCache cache = new InsightsCache(insights, 100, 60_000, 50);
+
+        cache.get(1L);
+        Thread.sleep(100);
+        cache.get(1L);
+
+        assertEquals(1, computed.get());
+        cache.stop();
+    }
+
+    @Test
+    void partialCardIsRecomputedAfterItsShortAge() throws Exception {
+        cards(true, false);
+        InsightsCache cache = new InsightsCache(insights, 100, 60_000, 50);
+
+        assertTrue(cache.get(1L).isPartial());
+        Thread.sleep(100);
+
+        assertFalse(refreshed(cache, 1L, "card 1").isPartial());
+        cache.get(1L);
+        assertEquals(2, computed.get());
+        cache.stop();
+    }
+}
@@ -0,0 +1,87 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.dto.InsightsResponse;
+import com.paythm.paythm_api.entity.Money;
+import com.paythm.paythm_api.repository.BillSplitRepository;
+import com.paythm.paythm_api.repository.BudgetRepository;
+import com.paythm.paythm_api.repository.GoalRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InsightsServiceTest {
+
+    private final WalletService wallets = mock(WalletService.class);
+    private final WalletStatsService stats = mock(WalletStatsService.class);
+    private final SpendingCategories categories = mock(SpendingCategories.class);
+    private final GoalRepository goals = mock(GoalRepository.class);
+    private final BudgetRepository budgets = mock(BudgetRepository.class);
+    private final BillSplitRepository splits = mock(BillSplitRepository.class);
+
+    // Every load takes 'millis' before answering
+    private void slowLoads(long millis) {
+        when(wallets.getBalance(any())).thenAnswer(slow(millis, Money.ofRupees(1_000)));
+        when(stats.statsOfUser(any())).thenAnswer(slow(millis, WalletStatsService.Stats.EMPTY));
+        when(goals.findByUserId(any())).thenAnswer(slow(millis, List.of()));
+        when(budgets.findByUserId(any())).thenAnswer(slow(millis, List.of()));
+        when(splits.countOpenByUserId(any())).thenAnswer(slow(millis, 0L));
+        when(categories.monthlySpend(any(), any(YearMonth.class))).thenAnswer(slow(millis, Map.of()));
+    }
+
+    private static Answer<Object> slow(long millis, Object result) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return result;
+        };
+    }
+
+    private InsightsService service(long callTimeoutMs, int maxConcurrentCards) {
+        return new InsightsService(wallets, stats, categories, goals, budgets, splits, callTimeoutMs,
+                maxConcurrentCards);
+    }
+
+    @Test
+    void cardsWithinTheCapGetEveryLoad() throws Exception {
+        slowLoads(600);
+        InsightsService insights = service(1_000, 2);
+
+        // Two cards at once: the cap counts whole cards, so no load waits behind the other card's
+        List<Future<InsightsResponse>> cards = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            for (long userId = 1; userId <= 2; userId++) {
+                long id = userId;
+                cards.add(pool.submit(() -> insights.generateInsights(id)));
+            }
+            for (Future<InsightsResponse> card : cards)
+                assertEquals(List.of(), card.get().getUnavailable());
+        }
+        insights.stop();
+    }
+
+    @Test
+    void lateStatsAreLeftOutRatherThanShownAsZero() {
+        slowLoads(0);
+        when(stats.statsOfUser(any())).thenThrow(new IllegalStateException("stats table locked"));
+        InsightsService insights = service(1_000, 2);
+
+        InsightsResponse card = insights.generateInsights(1L);
+
+        assertNull(card.getTotalSpent());
+        assertNull(card.getTotalReceived());
+        assertEquals(List.of("stats"), card.getUnavailable());
+        assertTrue(card.isPartial());
+        insights.stop();
+    }
+}
@@ -0,0 +1,76 @@
+package com.paythm.paythm_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private static final KeywordMatcher<String> MATCHER = new KeywordMatcher<>(Map.of(
+            "uber", "Transport",
+            "uber eats", "Dining Out",
+            "ola", "Transport",
+            "swiggy", "Dining Out",
+            "amazon", "Shopping",
+            "prime video", "Entertainment"));
+
+    @Test
+    void matchesWholeWordsIgnoringCase() {
+        assertEquals("Transport", MATCHER.match("Ola Cabs"));
+        assertEquals("Dining Out", MATCHER.match("swiggy@ybl"));
+        assertEquals("Shopping", MATCHER.match("Sent via UPI to AMAZON.in"));
+        assertNull(MATCHER.match("Motorola store"));
+        assertNull(MATCHER.match("Sent to Priya Sharma"));
+        assertNull(MATCHER.match(null));
+    }
+
+    @Test
+    void longestKeywordWinsThenEarliest() {
+        assertEquals("Dining Out", MATCHER.match("Uber Eats order"));
+        assertEquals("Transport", MATCHER.match("uber ride"));
+        assertEquals("Entertainment", MATCHER.match("amazon prime video"));
+        assertEquals("Transport", MATCHER.match("ola then uber"));
+    }
+
+    @Test
+    void agreesWithNaiveScanOnRandomText() {
+        // Overlapping keywords exercise the fail and dictionary links
+        Map<String, Integer> keywords = new HashMap<>();
+        String[] words = { "a", "ab", "bab", "bc", "bca", "c", "caa", "abc", "cab" };
+        for (int i = 0; i < words.length; i++)
+            keywords.put(words[i], i);
+        KeywordMatcher<Integer> m = new KeywordMatcher<>(keywords);
+        Random random = new Random(7);
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder text = new StringBuilder();
+            int len = 1 + random.nextInt(12);
+            for (int i = 0; i < len; i++)
+                text.append(random.nextInt(4) == 0 ? ' ' : (char) ('a' + random.nextInt(3)));
+            assertEquals(naive(words, text.toString()), m.match(text.toString()), text.toString());
+        }
+    }
+
+    private static Integer naive(String[] words, String text) {
+        Integer best = null;
+        int bestLen = 0;
+        int bestStart = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (int from = text.indexOf(words[w]); from >= 0; from = text.indexOf(words[w], from + 1)) {
+                int end = from + words[w].length();
+                boolean whole = (from == 0 || text.charAt(from - 1) == ' ')
+                        && (end == text.length() || text.charAt(end) == ' ');
+                int len = words[w].length();
+                if (whole && (len > bestLen || (len == bestLen && from < bestStart))) {
+                    best = w;
+                    bestLen = len;
+                    bestStart = from;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,78 @@
+package com.paythm.paythm_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeftBatchFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void detailsRoundTripAsFixedWidthRecords() throws Exception {
+        Path file = dir.resolve("batch.txt");
+        List<NeftBatchFile.Detail> details = new ArrayList<>();
+        // Enough records to flush the 64 KB buffer several times
+        for (int i = 1; i <= 5000; i++)
+            details.add(new NeftBatchFile.Detail(BankSettlementService.reference((long) i), "HDFC0001234",
+                    "5010" + i, "Priya Sharma " + i, 100L * i));
+        try (NeftBatchFile out = NeftBatchFile.create(file)) {
+            out.header(7, LocalDateTime.of(2026, 1, 2, 3, 4, 5), details.size(), 0);
+            for (NeftBatchFile.Detail d : details)
+                out.detail(d);
+            out.trailer();
+            assertEquals(5002L * (NeftBatchFile.RECORD_LENGTH + 1), out.bytesWritten());
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        assertEquals(5002, lines.size());
+        assertTrue(lines.stream().allMatch(l -> l.length() == NeftBatchFile.RECORD_LENGTH));
+        assertTrue(lines.get(0).startsWith("H00000000000720260102030405000005000"));
+        // Trailer carries the count and total of the details written
+        assertTrue(lines.get(5001).startsWith("T000005000" + String.format("%018d", 100L * 5000 * 5001 / 2)));
+
+        List<NeftBatchFile.Detail> read = NeftBatchFile.readDetails(file);
+        assertEquals(details.size(), read.size());
+        assertEquals(new NeftBatchFile.Detail("PTB0000000000042", "HDFC0001234", "501042", "PRIYA SHARMA 42", 4200),
+                read.get(41));
+    }
+
+    @Test
+    void textIsCutToItsFieldAndNonAsciiIsReplaced() throws Exception {
+        Path file = dir.resolve("batch.txt");
+        try (NeftBatchFile out = NeftBatchFile.create(file)) {
+            out.detail(new NeftBatchFile.Detail("PTB1", "SBIN0000001", "1", "Ananya Café Private Limited Bangalore South",
+                    1));
+        }
+        assertEquals("ANANYA CAF? PRIVATE LIMITED BANGALO", NeftBatchFile.readDetails(file).get(0).beneficiaryName());
+    }
+
+    @Test
+    void responsesRoundTrip() throws Exception {
+        Path file = dir.resolve("batch.ret");
+        try (NeftBatchFile out = NeftBatchFile.create(file)) {
+            out.response(new NeftBatchFile.Response("PTB0000000000001", true, ""));
+            out.response(new NeftBatchFile.Response("PTB0000000000002", false, "Invalid IFSC"));
+        }
+        assertEquals(List.of(new NeftBatchFile.Response("PTB0000000000001", true, ""),
+                new NeftBatchFile.Response("PTB0000000000002", false, "INVALID IFSC")),
+                NeftBatchFile.readResponses(file));
+    }
+
+    @Test
+    void numbersWiderThanTheirFieldAreRejected() throws Exception {
+        try (NeftBatchFile out = NeftBatchFile.create(dir.resolve("batch.txt"))) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> out.detail(new NeftBatchFile.Detail("PTB1", "X", "1", "A", 1_000_000_000_000_000L)));
+        }
+    }
+}
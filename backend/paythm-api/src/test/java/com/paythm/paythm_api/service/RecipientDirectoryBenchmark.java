@@ -0,0 +1,138 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.User;
+import com.paythm.paythm_api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Receiver resolution: the repository cascade sendMoney used before
+ * RecipientDirectory vs. the directory, for identifiers that resolve (PayThm
+ * ID, phone in both forms, email, VPA) and for names, which miss every exact
+ * key. Needs a real MySQL (the configured datasource) and creates its own
+ * throw-away users, so it only runs with -Dpaythm.bench=true:
+ *
+ * mvn test -Dtest=RecipientDirectoryBenchmark -Dpaythm.bench=true
+ *
+ * The build has no JMH, so this follows the other benchmarks here: a warm-up
+ * pass, then wall-clock time over many lookups on one thread. Directory hits
+ * never leave the JVM; a name costs the directory one indexed query (its
+ * miss path) against two round trips for the cascade, so run it against a
+ * networked database: on an in-memory one round trips cost nothing.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "paythm.bench", matches = "true")
+class RecipientDirectoryBenchmark {
+
+    private static final int USERS = 2_000;
+    private static final int LOOKUPS = 20_000;
+
+    @Autowired
+    private RecipientDirectory directory;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void directoryBeatsTheRepositoryCascade() {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        long phoneBase = 7_000_000_000L + System.currentTimeMillis() % 900_000_000L;
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++)
+            users.add(newUser(run, Long.toString(phoneBase + i), i));
+
+        List<String> hits = new ArrayList<>(LOOKUPS);
+        List<String> names = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            User u = users.get(i % USERS);
+            hits.add(switch (i % 5) {
+                case 0 -> u.getPaythmId();
+                case 1 -> u.getPhone();
+                case 2 -> "+91" + u.getPhone();
+                case 3 -> u.getEmail();
+                default -> u.getPhone() + "@paythm";
+            });
+            names.add(u.getFullName());
+        }
+
+        System.out.printf("%n%-10s %-10s %10s %12s %12s%n", "input", "resolver", "lookups", "elapsed ms", "us/lookup");
+        for (String resolver : List.of("cascade", "directory")) {
+            Function<String, Long> resolve = resolver.equals("cascade") ? this::cascade : directory::resolve;
+            measure("exact", resolver, hits, resolve);
+            measure("name", resolver, names, resolve);
+        }
+
+        // Both agree on every exact identifier
+        for (int i = 0; i < 100; i++)
+            assertEquals(cascade(hits.get(i)), directory.resolve(hits.get(i)), hits.get(i));
+    }
+
+    private void measure(String input, String resolver, List<String> keys, Function<String, Long> resolve) {
+        for (int i = 0; i < Math.min(keys.size(), 1_000); i++)
+            resolve.apply(keys.get(i));
+        long found = 0;
+        long start = System.nanoTime();
+        for (String key : keys) {
+            if (resolve.apply(key) != null)
+                found++;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.printf("%-10s %-10s %10d %12d %12.1f   (%d resolved)%n", input, resolver, keys.size(),
+                elapsedNanos / 1_000_000, elapsedNanos / 1_000.0 / keys.size(), found);
+    }
+
+    // sendMoney's lookup before the directory, exact identifiers only (names are the fallback in both)
+    private Long cascade(String identifier) {
+        User receiver = userRepo.findByPaythmId(identifier).orElse(null);
+        if (receiver == null && identifier.matches("^[0-9+]+$")) {
+            receiver = first(userRepo.findByPhone(identifier));
+            if (receiver == null && identifier.length() == 10)
+                receiver = first(userRepo.findByPhone("+91" + identifier));
+            else if (receiver == null && identifier.startsWith("+91") && identifier.length() == 13)
+                receiver = first(userRepo.findByPhone(identifier.substring(3)));
+        }
+        if (receiver == null) {
+            try {
+                receiver = userRepo.findById(Long.parseLong(identifier)).orElse(null);
+            } catch (NumberFormatException e) {
+                // Not a number
+            }
+        }
+        if (receiver == null && identifier.contains("@")) {
+            String core = identifier.split("@")[0];
+            receiver = userRepo.findByPaythmId(core).orElse(null);
+            if (receiver == null && core.matches("\\d+"))
+                receiver = first(userRepo.findByPhone(core));
+        }
+        if (receiver == null)
+            receiver = first(userRepo.findByEmail(identifier));
+        return receiver == null ? null : receiver.getId();
+    }
+
+    private static User first(List<User> users) {
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    private User newUser(String run, String phone, int i) {
+        User user = new User();
+        user.setFullName("Bench Recipient " + run + " " + i);
+        user.setEmail("bench-dir-" + run + "-" + i + "@bench.paythm.com");
+        user.setPhone(phone);
+        user.setPassword("x");
+        user.setPaythmId("bench-dir-" + run + "-" + i + "@bench");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setRole("USER");
+        user = userRepo.save(user);
+        directory.index(user);
+        return user;
+    }
+}
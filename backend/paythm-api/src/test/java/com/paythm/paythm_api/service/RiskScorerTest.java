@@ -0,0 +1,113 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RiskScorerTest {
+
+    private static RiskScorer scorer(long burstWindowMs, int burstLimit) {
+        return new RiskScorer(null, true, 32, 5, burstWindowMs, burstLimit, 50, 80, 1000, 30, 1, 1000);
+    }
+
+    // Profile of 10 payments of ₹100-₹140 to two regular recipients, spread out so no burst is seen
+    private static RiskScorer withHistory() {
+        RiskScorer s = scorer(0, 5);
+        for (int i = 0; i < 10; i++)
+            s.recordAfterCommit(1L, Money.ofRupees(100 + (i % 5) * 10), i % 2 == 0 ? "Priya Sharma" : "Mom");
+        return s;
+    }
+
+    @Test
+    void usualPaymentIsAllowed() {
+        RiskScorer.Assessment a = withHistory().score(1L, Money.ofRupees(120), "Priya Sharma");
+        assertEquals(RiskScorer.Decision.ALLOW, a.decision(), a.reasons().toString());
+    }
+
+    @Test
+    void outlierAmountToNewRecipientIsHeld() {
+        RiskScorer.Assessment a = withHistory().score(1L, Money.ofRupees(5000), "Unknown Person");
+        assertEquals(RiskScorer.Decision.HOLD, a.decision(), a.reasons().toString());
+        assertTrue(a.reasons().contains("new recipient"));
+    }
+
+    @Test
+    void burstOfOutliersIsBlocked() {
+        RiskScorer s = scorer(60_000, 5);
+        for (int i = 0; i < 10; i++)
+            s.recordAfterCommit(1L, Money.ofRupees(100), "Mom");
+        RiskScorer.Assessment a = s.score(1L, Money.ofRupees(5000), "Mom");
+        assertEquals(RiskScorer.Decision.BLOCK, a.decision(), a.reasons().toString());
+    }
+
+    @Test
+    void walletWithoutHistoryOnlyFlagsLargeAmounts() {
+        RiskScorer s = scorer(60_000, 5);
+        assertEquals(0, s.score(9L, Money.ofRupees(500), "Anyone").score());
+        assertEquals(20, s.score(9L, Money.ofRupees(20_000), "Anyone").score());
+    }
+
+    @Test
+    void debitsCommittedDuringTheRebuildLandAfterTheHistory() throws Exception {
+        RiskScorer[] scorer = new RiskScorer[1];
+        JdbcTemplate history = new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                return requiredType.cast(1L);
+            }
+
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                // A payment commits while the scan runs, before wallet 1's rows are read
+                scorer[0].recordAfterCommit(1L, Money.ofRupees(100), "Mom");
+                try {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong(1)).thenReturn(1L);
+                    when(rs.getLong(2)).thenReturn(10_000L);
+                    when(rs.getString(3)).thenReturn("Mom");
+                    when(rs.getTimestamp(4)).thenReturn(Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+                    for (int i = 0; i < 10; i++)
+                        rch.processRow(rs);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        RiskScorer s = new RiskScorer(history, true, 32, 5, 60_000, 3, 50, 80, 1000, 30, 1, 1000);
+        scorer[0] = s;
+
+        s.startRebuild();
+        Map<String, Object> m = s.metrics();
+        while (!(Boolean) m.get("rebuilt") || (Boolean) m.get("holdingBack")) {
+            Thread.sleep(5);
+            m = s.metrics();
+        }
+
+        // The live debit is the newest entry, so the burst check sees it
+        RiskScorer.Assessment a = s.score(1L, Money.ofRupees(100), "Mom");
+        assertTrue(a.reasons().contains("rapid payments"), a.reasons().toString());
+    }
+
+    @Test
+    void windowForgetsOldPayments() {
+        RiskScorer s = scorer(0, 5);
+        for (int i = 0; i < 32; i++)
+            s.recordAfterCommit(1L, Money.ofRupees(10), "Old Shop");
+        for (int i = 0; i < 32; i++)
+            s.recordAfterCommit(1L, Money.ofRupees(1000), "New Shop");
+        // Only the last 32 payments count: ₹1000 is now the norm and "Old Shop" is forgotten
+        RiskScorer.Assessment a = s.score(1L, Money.ofRupees(1000), "Old Shop");
+        assertEquals(15, a.score(), a.reasons().toString());
+    }
+}
@@ -0,0 +1,39 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.service.SpendRollups.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendRollupsTest {
+
+    @Test
+    void bucketsStartOnMondayAndFirstOfMonth() {
+        LocalDate sunday = LocalDate.of(2026, 3, 1);
+        assertEquals(LocalDate.of(2026, 2, 23), Granularity.WEEK.start(sunday));
+        assertEquals(LocalDate.of(2026, 3, 1), Granularity.WEEK.end(sunday));
+        assertEquals(LocalDate.of(2026, 3, 2), Granularity.WEEK.start(LocalDate.of(2026, 3, 2)));
+        assertEquals(LocalDate.of(2026, 2, 1), Granularity.MONTH.start(LocalDate.of(2026, 2, 28)));
+        assertEquals(LocalDate.of(2028, 2, 29), Granularity.MONTH.end(LocalDate.of(2028, 2, 3)));
+        assertEquals(sunday, Granularity.DAY.start(sunday));
+    }
+
+    @Test
+    void countsWholeBuckets() {
+        LocalDate from = LocalDate.of(2026, 1, 31);
+        LocalDate to = LocalDate.of(2026, 2, 1);
+        assertEquals(2, Granularity.DAY.buckets(from, to));
+        assertEquals(2, Granularity.MONTH.buckets(from, to));
+        assertEquals(1, Granularity.WEEK.buckets(from, to)); // Saturday and Sunday
+        assertEquals(12, Granularity.MONTH.buckets(LocalDate.of(2025, 11, 30), LocalDate.of(2026, 10, 1)));
+    }
+
+    @Test
+    void parsesNamesIgnoringCase() {
+        assertEquals(Granularity.WEEK, Granularity.parse(" Week "));
+        assertThrows(RuntimeException.class, () -> Granularity.parse("hour"));
+        assertThrows(RuntimeException.class, () -> Granularity.parse(null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.paythm.paythm_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void itemsFireInTheTickTheyAreDue() {
+        // 4 slots x 3 levels = 64 ticks before the overflow list is needed
+        TimingWheel<Long> wheel = new TimingWheel<>(1000, 4, 3, 0);
+        Random random = new Random(42);
+        Map<Long, Long> dueById = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            long due = 1000 + random.nextInt(300_000); // up to 300 ticks: exercises every level and overflow
+            dueById.put(id, due);
+            wheel.schedule(id, due);
+        }
+        assertEquals(5000, wheel.size());
+
+        long now = 0;
+        List<Long> fired = new ArrayList<>();
+        while (now < 310_000) {
+            now += 1000 * (1 + random.nextInt(3));
+            long tick = now;
+            for (Long id : wheel.advance(now)) {
+                long due = dueById.get(id);
+                assertTrue(due <= tick, "fired early: " + id);
+                fired.add(id);
+            }
+        }
+        assertEquals(5000, fired.size());
+        assertEquals(5000, fired.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advancingOneTickAtATimeIsExact() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("a", 5);
+        wheel.schedule("b", 640); // exactly one full level-1 rotation away
+        wheel.schedule("c", 5_000); // overflow
+        for (long t = 10; t <= 6_000; t += 10) {
+            List<String> due = wheel.advance(t);
+            if (t == 10)
+                assertEquals(List.of("a"), due);
+            else if (t == 640)
+                assertEquals(List.of("b"), due);
+            else if (t == 5_000)
+                assertEquals(List.of("c"), due);
+            else
+                assertTrue(due.isEmpty(), "unexpected at " + t + ": " + due);
+        }
+    }
+
+    @Test
+    void overdueItemsAreReturnedOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 64, 4, 1_000_000);
+        wheel.schedule("missed", 10);
+        wheel.schedule("soon", 1_000_500);
+        assertEquals(List.of("missed"), wheel.advance(1_000_900));
+        assertEquals(List.of("soon"), wheel.advance(1_001_000));
+    }
+
+    @Test
+    void dueOrderIsPreservedAcrossLevels() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 4, 4, 0);
+        for (int i = 200; i >= 1; i--)
+            wheel.schedule(i, i);
+        List<Integer> fired = wheel.advance(200);
+        for (int i = 0; i < fired.size(); i++)
+            assertEquals(i + 1, fired.get(i));
+    }
+}
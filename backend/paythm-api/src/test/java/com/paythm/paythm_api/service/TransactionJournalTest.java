@@ -0,0 +1,225 @@
+package com.paythm.paythm_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Crash-recovery behaviour of {@link TransactionJournal}. A "crash" is
+ * simulated by damaging the segment files the way a lost or torn page
+ * write would, then reopening the journal on the same directory.
+ */
+class TransactionJournalTest {
+
+    private static final int SEGMENT = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void durableRecordsSurviveReopen() throws Exception {
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            long end = 0;
+            for (int i = 0; i < 20; i++)
+                end = j.append(bytes("tx-" + i));
+            j.awaitDurable(end);
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(names(20, 0), payloads(j));
+        }
+    }
+
+    @Test
+    void tornTailRecordIsDropped() throws Exception {
+        long lastStart;
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            j.append(bytes("a"));
+            lastStart = j.append(bytes("b"));
+            j.awaitDurable(j.append(bytes("c")));
+        }
+        // Flip one payload byte of "c": its checksum no longer matches
+        corrupt(lastStart + 8);
+
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(List.of("a", "b"), payloads(j));
+            j.awaitDurable(j.append(bytes("d")));
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(List.of("a", "b", "d"), payloads(j));
+        }
+    }
+
+    @Test
+    void recordsAfterACorruptOneAreNeverResurrected() throws Exception {
+        List<Long> starts = new ArrayList<>();
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            long pos = 0;
+            for (int i = 0; i < 5; i++) {
+                starts.add(pos);
+                pos = j.append(bytes("record-" + i));
+            }
+            j.awaitDurable(pos);
+        }
+        // Record 1 lost, records 2..4 made it to disk (out-of-order page writeback)
+        corrupt(starts.get(1) + 9);
+
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(List.of("record-0"), payloads(j));
+            // A shorter record now sits where record-1 was; the old bytes behind it must stay dead
+            j.awaitDurable(j.append(bytes("x")));
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(List.of("record-0", "x"), payloads(j));
+        }
+    }
+
+    @Test
+    void garbageLengthHeaderAtTailIsIgnored() throws Exception {
+        long end;
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            end = j.append(bytes("only"));
+            j.awaitDurable(end);
+        }
+        // Half-written header claiming a huge record
+        try (RandomAccessFile f = new RandomAccessFile(dir.resolve("journal-00000000.seg").toFile(), "rw")) {
+            f.seek(end);
+            f.writeInt(Integer.MAX_VALUE);
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(List.of("only"), payloads(j));
+            assertEquals(end, j.writtenPosition());
+        }
+    }
+
+    @Test
+    void recordsRollOverSegmentsInOrder() throws Exception {
+        try (TransactionJournal j = new TransactionJournal(dir, 256)) {
+            long end = 0;
+            for (int i = 0; i < 100; i++)
+                end = j.append(bytes("tx-" + i));
+            j.awaitDurable(end);
+        }
+        assertTrue(segmentCount() > 1);
+        try (TransactionJournal j = new TransactionJournal(dir, 256)) {
+            assertEquals(names(100, 0), payloads(j));
+        }
+    }
+
+    @Test
+    void checkpointSkipsAppliedRecordsAndDropsOldSegments() throws Exception {
+        try (TransactionJournal j = new TransactionJournal(dir, 256)) {
+            long end = 0;
+            for (int i = 0; i < 100; i++)
+                end = j.append(bytes("tx-" + i));
+            j.awaitDurable(end);
+
+            List<TransactionJournal.Entry> first = j.read(0, 60);
+            j.checkpoint(first.get(59).next());
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, 256)) {
+            assertEquals(names(40, 60), payloads(j));
+            assertTrue(Files.notExists(dir.resolve("journal-00000000.seg")));
+        }
+    }
+
+    @Test
+    void unflushedRecordsAreNotVisibleToReaders() throws Exception {
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            long end = j.append(bytes("pending"));
+            // Only durable records may be applied downstream
+            if (j.durablePosition() < end)
+                assertTrue(j.read(0, 10).isEmpty());
+            j.awaitDurable(end);
+            assertEquals(1, j.read(0, 10).size());
+        }
+    }
+
+    @Test
+    void idSurvivesReopenButNotAWipedDirectory(@TempDir Path other) throws Exception {
+        String id;
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            id = j.id();
+        }
+        try (TransactionJournal j = new TransactionJournal(dir, SEGMENT)) {
+            assertEquals(id, j.id());
+        }
+        // Positions restart at 0 in a fresh directory; the id keeps id + position unique
+        try (TransactionJournal j = new TransactionJournal(other, SEGMENT)) {
+            assertNotEquals(id, j.id());
+        }
+    }
+
+    @Test
+    void concurrentWritersShareFsyncs() throws Exception {
+        int threads = 16;
+        int perThread = 200;
+        try (TransactionJournal j = new TransactionJournal(dir, 1 << 20)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++)
+                        j.awaitDurable(j.append(bytes(id + ":" + i)));
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+            pool.shutdown();
+
+            assertEquals(threads * perThread, j.read(0, Integer.MAX_VALUE).size());
+            assertTrue(j.forceCount() < threads * perThread,
+                    "expected group commit, got " + j.forceCount() + " fsyncs");
+        }
+    }
+
+    // -------------------------------
+    // HELPERS
+    // -------------------------------
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> names(int count, int from) {
+        List<String> out = new ArrayList<>();
+        for (int i = from; i < from + count; i++)
+            out.add("tx-" + i);
+        return out;
+    }
+
+    private static List<String> payloads(TransactionJournal j) throws IOException {
+        List<String> out = new ArrayList<>();
+        for (TransactionJournal.Entry e : j.read(j.checkpoint(), Integer.MAX_VALUE))
+            out.add(new String(e.payload(), StandardCharsets.UTF_8));
+        return out;
+    }
+
+    private void corrupt(long position) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(dir.resolve("journal-00000000.seg").toFile(), "rw")) {
+            f.seek(position);
+            int b = f.read();
+            f.seek(position);
+            f.write(b ^ 0xFF);
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+}
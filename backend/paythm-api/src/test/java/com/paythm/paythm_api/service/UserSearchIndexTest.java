@@ -0,0 +1,43 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTest {
+
+    private static User user(long id, String name, String phone) {
+        User u = new User();
+        u.setId(id);
+        u.setFullName(name);
+        u.setPhone(phone);
+        return u;
+    }
+
+    @Test
+    void phonePrefixDropsCountryCodeAndTrunkZero() {
+        assertEquals("98765", UserSearchIndex.phonePrefix("+91 98765"));
+        assertEquals("98765", UserSearchIndex.phonePrefix("91 98765"));
+        assertEquals("9876543210", UserSearchIndex.phonePrefix("919876543210"));
+        assertEquals("98765", UserSearchIndex.phonePrefix("098765"));
+        assertEquals("9198765", UserSearchIndex.phonePrefix("9198765"));
+    }
+
+    @Test
+    void findsPhonesTypedWithCountryCode() {
+        UserSearchIndex index = new UserSearchIndex(null);
+        index.index(user(1, "Priya Sharma", "9876543210"));
+        index.index(user(2, "Rahul Verma", "+919123456789"));
+        assertEquals(1L, index.search("+91 98765", null, 5).get(0).getId());
+        assertEquals(2L, index.search("+91 91234", null, 5).get(0).getId());
+    }
+
+    @Test
+    void sharedTokenIsCappedAtTopK() {
+        UserSearchIndex index = new UserSearchIndex(null);
+        for (long id = 1; id <= 5000; id++)
+            index.index(user(id, "Amit " + id, null));
+        assertEquals(3, index.search("amit", null, 3).size());
+    }
+}
@@ -0,0 +1,127 @@
+package com.paythm.paythm_api.service;
+
+import com.paythm.paythm_api.entity.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityLimiterTest {
+
+    private static final Money ONE = Money.ofRupees(1);
+
+    private static VelocityLimiter limiter(long maxCount, double maxAmount) {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("paythm.velocity.send.max-count", Long.toString(maxCount))
+                .withProperty("paythm.velocity.send.count-window-ms", "60000")
+                .withProperty("paythm.velocity.send.max-amount", Double.toString(maxAmount))
+                .withProperty("paythm.velocity.send.amount-window-ms", "3600000");
+        return new VelocityLimiter(env);
+    }
+
+    @Test
+    void countLimitRejectsOnceTheWindowIsUsedUp() {
+        VelocityLimiter l = limiter(5, 1_000_000);
+        for (int i = 0; i < 5; i++)
+            assertEquals(0, l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, ONE));
+        long wait = l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, ONE);
+        // One request slot refills every 60s / 5
+        assertTrue(wait > TimeUnit.SECONDS.toNanos(11) && wait <= TimeUnit.SECONDS.toNanos(12), "wait " + wait);
+    }
+
+    @Test
+    void amountLimitIsSeparateFromCount() {
+        VelocityLimiter l = limiter(100, 500);
+        assertEquals(0, l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, Money.ofRupees(300)));
+        assertTrue(l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, Money.ofRupees(300)) > 0);
+        // The rejected request gave its count slot back and spent no amount
+        assertEquals(0, l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, Money.ofRupees(200)));
+        assertEquals(2L, l.metrics().get("allowed"));
+    }
+
+    @Test
+    void usersAndEndpointsHaveTheirOwnBuckets() {
+        VelocityLimiter l = limiter(1, 1_000_000);
+        assertEquals(0, l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, ONE));
+        assertTrue(l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, ONE) > 0);
+        assertEquals(0, l.tryAcquire(2L, VelocityLimiter.Endpoint.SEND, ONE));
+        assertEquals(0, l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND_UPI, ONE));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimit() throws Exception {
+        VelocityLimiter l = limiter(1000, 1_000_000);
+        AtomicInteger allowed = new AtomicInteger();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (l.tryAcquire(7L, VelocityLimiter.Endpoint.SEND, ONE) == 0)
+                            allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+        // A few slots may refill while the test runs, never more than that
+        assertTrue(allowed.get() >= 1000 && allowed.get() <= 1005, "allowed " + allowed.get());
+    }
+
+    @Test
+    void idleUsersAreSweptOnlyOnceTheirBucketsRefill() {
+        VelocityLimiter l = limiter(1_000_000, 1_000_000);
+        l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, ONE);
+        l.sweep();
+        // Still inside its window (the 1 ms request slot may already be back, the amount is not)
+        assertEquals(1, l.metrics().get("users"));
+    }
+
+    @Test
+    void aFullMapEvictsTheLeastActiveUser() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("paythm.velocity.max-entries", "2")
+                .withProperty("paythm.velocity.send.max-amount", "1000");
+        VelocityLimiter l = new VelocityLimiter(env);
+        l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, Money.ofRupees(900));
+        l.tryAcquire(2L, VelocityLimiter.Endpoint.SEND, ONE);
+        l.tryAcquire(3L, VelocityLimiter.Endpoint.SEND, ONE);
+
+        assertEquals(2, l.metrics().get("users"));
+        assertEquals(1L, l.metrics().get("evictions"));
+        // User 1 kept its nearly spent amount bucket
+        assertTrue(l.tryAcquire(1L, VelocityLimiter.Endpoint.SEND, Money.ofRupees(200)) > 0);
+    }
+
+    @Test
+    void cyclingFreshIdsThroughAFullMapCannotEvictActiveUsers() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("paythm.velocity.max-entries", "256")
+                .withProperty("paythm.velocity.send.max-count", "1000000")
+                .withProperty("paythm.velocity.send.max-amount", "1000");
+        VelocityLimiter l = new VelocityLimiter(env);
+        // Small ids sit in the first hash bins, i.e. first in map iteration order
+        for (long user = 1; user <= 16; user++)
+            l.tryAcquire(user, VelocityLimiter.Endpoint.SEND, Money.ofRupees(900));
+
+        for (long id = 1_000_000; id < 1_010_000; id++)
+            l.tryAcquire(id, VelocityLimiter.Endpoint.SEND, ONE);
+
+        assertEquals(256, l.metrics().get("users"));
+        for (long user = 1; user <= 16; user++)
+            assertTrue(l.tryAcquire(user, VelocityLimiter.Endpoint.SEND, Money.ofRupees(200)) > 0, "user " + user);
+    }
+
+    @Test
+    void tooManyRequestsCarriesRetryAfterInSeconds() {
+        ResponseEntity<String> r = VelocityLimiter.tooManyRequests(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, r.getStatusCode());
+        assertEquals("2", r.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
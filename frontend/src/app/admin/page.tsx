@@ -151,8 +151,8 @@ export default function AdminPage() {
       ...transactions.map(tx => {
         // Safe access to nested user properties
         // Assuming the backend returns wallet -> user structure
-        const userName = tx.wallet?.user?.fullName || "Unknown User";
-        const userId = tx.wallet?.user?.id || "N/A";
+        const userName = tx.userName || "Unknown User";
+        const userId = tx.userId || "N/A";
         const date = new Date(tx.timestamp).toLocaleString();
 
         return [
@@ -42,7 +42,7 @@ export default function SendMoneyPage() {
   const [mode, setMode] = useState<PaymentMode>('paythm');
   const [isLoading, setIsLoading] = useState(false);
   const [isPinModalOpen, setIsPinModalOpen] = useState(false);
-  const [pendingAction, setPendingAction] = useState<(() => Promise<void>) | null>(null);
+  const [pendingAction, setPendingAction] = useState<((pin: string) => Promise<void>) | null>(null);
 
   // 2. Load Initial Data (URL Params)
   const searchParams = typeof window !== 'undefined' ? new URLSearchParams(window.location.search) : null;
@@ -84,12 +84,13 @@ export default function SendMoneyPage() {
     return JSON.parse(str);
   };
 
-  const handleSendPaythm = async () => {
+  // The PIN only matters when the backend risk check holds the payment (428)
+  const handleSendPaythm = async (pin: string) => {
     setIsLoading(true);
     try {
       const user = getUserData();
       const senderId = user.id || user.user?.id;
-      await axios.post(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/wallet/send/${senderId}/${recipient}/${amount}`);
+      await axios.post(`${process.env.NEXT_PUBLIC_BACKEND_URL}/api/wallet/send/${senderId}/${recipient}/${amount}`, { pin });
       toast({ title: "Transfer Successful! 🎉", description: `Sent ₹${amount} to ${recipient}` });
       router.push("/dashboard");
     } catch (e: any) {
@@ -97,7 +98,7 @@ export default function SendMoneyPage() {
     } finally { setIsLoading(false); }
   };
 
-  const handleSendUpi = async () => {
+  const handleSendUpi = async (pin: string) => {
     setIsLoading(true);
     try {
       const user = getUserData();
@@ -106,6 +107,7 @@ export default function SendMoneyPage() {
         senderId: Number(senderId),
         upiId: recipient,
         amount: parseFloat(amount),
+        pin,
       });
       toast({ title: "UPI Payment Successful! 🚀", description: `Sent ₹${amount} to ${recipient}` });
       router.push("/dashboard");
@@ -114,7 +116,7 @@ export default function SendMoneyPage() {
     } finally { setIsLoading(false); }
   };
 
-  const handleSendBank = async () => {
+  const handleSendBank = async (pin: string) => {
     setIsLoading(true);
     try {
       const user = getUserData();
@@ -125,8 +127,9 @@ export default function SendMoneyPage() {
         ifsc: bankIfsc,
         recipientName: bankName,
         amount: parseFloat(amount),
+        pin,
       });
-      toast({ title: "Bank Transfer Successful! 🏦", description: `Sent ₹${amount} to ${bankName}` });
+      toast({ title: "Bank Transfer Initiated 🏦", description: `₹${amount} to ${bankName} will be settled shortly` });
       router.push("/dashboard");
     } catch (e: any) {
       toast({ variant: "destructive", title: "Bank Transfer Failed", description: e.response?.data || "Check details." });
@@ -158,10 +161,10 @@ export default function SendMoneyPage() {
     setIsPinModalOpen(true);
   };
 
-  const handlePinSuccess = () => {
+  const handlePinSuccess = (pin: string) => {
     setIsPinModalOpen(false);
     if (pendingAction) {
-      pendingAction();
+      pendingAction(pin);
       setPendingAction(null);
     }
   };
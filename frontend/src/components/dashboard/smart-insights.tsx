@@ -19,7 +19,8 @@ export function SmartInsights() {
     const [insight, setInsight] = useState("Initializing PayThm AI Neural Engine...");
     const [analyzing, setAnalyzing] = useState(true);
     const [userId, setUserId] = useState<number | null>(null);
-    const [stats, setStats] = useState({ spent: 0, received: 0, txCount: 0 });
+    // null while the backend could not load the totals (listed in data.unavailable)
+    const [stats, setStats] = useState<{ spent: number | null; received: number | null; txCount: number }>({ spent: 0, received: 0, txCount: 0 });
 
     useEffect(() => {
         const userStr = localStorage.getItem("user");
@@ -134,7 +135,7 @@ export function SmartInsights() {
                         </div>
                         <div>
                             <p className="text-[10px] text-zinc-500 uppercase font-bold tracking-wider">Observed Outflow</p>
-                            <p className="text-sm font-bold text-zinc-900 dark:text-zinc-100">₹{stats.spent.toLocaleString()}</p>
+                            <p className="text-sm font-bold text-zinc-900 dark:text-zinc-100">{stats.spent == null ? "—" : `₹${stats.spent.toLocaleString()}`}</p>
                         </div>
                     </div>
                     <div className="flex items-center gap-3 p-3 rounded-lg border border-zinc-100 dark:border-zinc-800/50 bg-white dark:bg-zinc-900/20">
@@ -143,7 +144,7 @@ export function SmartInsights() {
                         </div>
                         <div>
                             <p className="text-[10px] text-zinc-500 uppercase font-bold tracking-wider">Net Reserve</p>
-                            <p className="text-sm font-bold text-zinc-900 dark:text-zinc-100">₹{(stats.received - stats.spent).toLocaleString()}</p>
+                            <p className="text-sm font-bold text-zinc-900 dark:text-zinc-100">{stats.spent == null || stats.received == null ? "—" : `₹${(stats.received - stats.spent).toLocaleString()}`}</p>
                         </div>
                     </div>
                 </div>
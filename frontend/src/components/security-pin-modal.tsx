@@ -19,7 +19,8 @@ import { Logo } from "@/components/logo";
 interface SecurityPinModalProps {
     isOpen: boolean;
     onClose: () => void;
-    onSuccess: () => void;
+    // Receives the verified PIN; payment screens send it with every payment request
+    onSuccess: (pin: string) => void;
     title?: string;
     description?: string;
 }
@@ -76,10 +77,11 @@ export function SecurityPinModal({ isOpen, onClose, onSuccess, title = "Security
 
             if (res.data === true) {
                 // Success
+                const verifiedPin = pin;
                 setIsLoading(false);
                 setPin("");
                 setAttempts(0); // Reset attempts on success
-                onSuccess();
+                onSuccess(verifiedPin);
             } else {
                 throw new Error("Invalid PIN");
             }